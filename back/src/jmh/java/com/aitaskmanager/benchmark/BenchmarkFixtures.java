@@ -0,0 +1,233 @@
+package com.aitaskmanager.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.aitaskmanager.repository.customMapper.TaskMapper;
+import com.aitaskmanager.repository.dto.holiday.PublicHoliday;
+import com.aitaskmanager.repository.dto.tasks.TaskWithRollup;
+import com.aitaskmanager.service.holiday.BusinessDayService;
+import com.aitaskmanager.service.holiday.HolidayService;
+
+/**
+ * ベンチマーク用の合成データと、Spring を起動せずにサービスを組み立てるための補助。
+ * 乱数は固定シードのため、同じパラメータなら毎回同じデータになる。
+ */
+public final class BenchmarkFixtures {
+
+    /** 乱数のシード */
+    public static final long SEED = 20240401L;
+
+    /** ベンチマーク上のユーザーSID */
+    public static final int USER_SID = 1;
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+
+    /** 階層の上限（TaskService と同じ4階層） */
+    private static final int MAX_LEVELS = 4;
+
+    private static final String[] STATUSES = {"TODO", "TODO", "DOING", "DONE"};
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "MEDIUM", "HIGH"};
+    private static final String[] WORDS = {
+        "設計", "実装", "レビュー", "テスト", "資料作成", "打ち合わせ", "見積もり", "調査", "リリース", "移行",
+        "API", "画面", "バッチ", "DB", "請求", "通知", "認証", "検索", "集計", "カレンダー"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 階層付きのタスクを合成する（ルートを全体の約1割とし、残りは4階層を超えないよう既存のタスクにぶら下げる）。
+     * 期限は約2割を未設定、残りを今日の前後1年に散らす。
+     *
+     * @param size 件数
+     * @return 親が子より先に並んだタスク（DB の取得順と同じく task_sid 昇順）
+     */
+    public static List<TaskWithRollup> taskTree(int size) {
+        Random random = new Random(SEED);
+        LocalDate today = LocalDate.now(ZONE);
+        long now = System.currentTimeMillis();
+        int roots = Math.max(1, size / 10);
+        List<TaskWithRollup> tasks = new ArrayList<>(size);
+        int[] depth = new int[size];
+        for (int i = 0; i < size; i++) {
+            TaskWithRollup t = new TaskWithRollup();
+            t.setTaskSid(i + 1);
+            t.setUserSid(USER_SID);
+            if (i >= roots) {
+                int parent;
+                do {
+                    parent = random.nextInt(i);
+                } while (depth[parent] >= MAX_LEVELS - 1);
+                t.setParentTaskSid(parent + 1);
+                depth[i] = depth[parent] + 1;
+            }
+            t.setTitle(sentence(random, 2 + random.nextInt(3)));
+            t.setDescription(sentence(random, 8 + random.nextInt(24)));
+            t.setPriority(PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            t.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            if (random.nextInt(5) > 0) {
+                t.setDueDate(Date.valueOf(today.plusDays(random.nextInt(730) - 365)));
+            }
+            Timestamp created = new Timestamp(now - random.nextInt(365) * 86_400_000L - random.nextInt(86_400_000));
+            t.setCreatedAt(created);
+            t.setUpdatedAt(new Timestamp(created.getTime() + random.nextInt(86_400_000)));
+            t.setDescendantCount(0);
+            t.setDoneDescendantCount(0);
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    /**
+     * 箇条書きのAI応答テキストを合成する（記号の有無・前後の空白・空行・重複を混ぜる）
+     *
+     * @param items 項目数
+     * @return 改行区切りの応答テキスト
+     */
+    public static String bulletResponse(int items) {
+        Random random = new Random(SEED);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < items; i++) {
+            switch (i % 4) {
+                case 0 -> sb.append("- ");
+                case 1 -> sb.append("  * ");
+                case 2 -> sb.append("-\t");
+                default -> sb.append("");
+            }
+            // 1割ほどは前の項目と同じ内容（大文字小文字・空白違い）にする
+            if (i > 0 && random.nextInt(10) == 0) {
+                sb.append("  ").append(sentence(new Random(SEED + i - 1), 6).toLowerCase());
+            } else {
+                sb.append(sentence(new Random(SEED + i), 6));
+            }
+            sb.append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 7 == 0) sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 日本の祝日に近い件数（年16日）の合成祝日を返す HolidayService（外部APIもDBも使わない）。
+     * 実際のキャッシュと同じく年ごとに同じリストを返す（BusinessDayService はリストが変わった場合だけ索引を作り直すため）。
+     *
+     * @return キャッシュ済みの状態を模した HolidayService
+     */
+    public static HolidayService syntheticHolidayService() {
+        Map<Integer, List<PublicHoliday>> byYear = new ConcurrentHashMap<>();
+        return new HolidayService() {
+            @Override
+            public List<PublicHoliday> getHolidays(int year) {
+                return byYear.computeIfAbsent(year, BenchmarkFixtures::holidays);
+            }
+
+            @Override
+            public List<PublicHoliday> getCachedHolidays(int year) {
+                return byYear.computeIfAbsent(year, BenchmarkFixtures::holidays);
+            }
+        };
+    }
+
+    /**
+     * 合成祝日で営業日計算を行う BusinessDayService を作り、表示範囲の年の索引を作成済みにする
+     *
+     * @return BusinessDayService
+     */
+    public static BusinessDayService businessDayService() {
+        BusinessDayService service = new BusinessDayService(syntheticHolidayService());
+        int year = LocalDate.now(ZONE).getYear();
+        for (int y = year - 2; y <= year + 2; y++) {
+            service.getIndex(y);
+        }
+        return service;
+    }
+
+    /**
+     * 指定した行を返す TaskMapper（それ以外のメソッドは空の値を返す）
+     *
+     * @param rows 取得結果として返す行
+     * @return TaskMapper
+     */
+    public static TaskMapper taskMapperReturning(List<? extends TaskWithRollup> rows) {
+        return (TaskMapper) Proxy.newProxyInstance(TaskMapper.class.getClassLoader(), new Class<?>[] {TaskMapper.class},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) return method.invoke(rows, args);
+                    if (List.class.isAssignableFrom(method.getReturnType())) return rows;
+                    if (Map.class.isAssignableFrom(method.getReturnType())) return Map.of();
+                    if (method.getReturnType() == int.class) return 0;
+                    if (method.getReturnType() == boolean.class) return false;
+                    return null;
+                });
+    }
+
+    /**
+     * @Autowired / @Value のフィールドへ値を設定する
+     *
+     * @param target 対象
+     * @param fieldName フィールド名
+     * @param value 値
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException ex) {
+                // 親クラスを探す
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        throw new IllegalArgumentException("field not found: " + fieldName);
+    }
+
+    private static List<PublicHoliday> holidays(int year) {
+        List<PublicHoliday> list = new ArrayList<>();
+        int[][] fixed = {{1, 1}, {2, 11}, {2, 23}, {4, 29}, {5, 3}, {5, 4}, {5, 5}, {8, 11}, {11, 3}, {11, 23}};
+        for (int[] md : fixed) {
+            list.add(holiday(LocalDate.of(year, md[0], md[1])));
+        }
+        // ハッピーマンデーに相当する月曜の祝日
+        int[][] mondays = {{1, 2}, {7, 3}, {9, 3}, {10, 2}};
+        for (int[] mw : mondays) {
+            LocalDate first = LocalDate.of(year, mw[0], 1);
+            int shift = (DayOfWeek.MONDAY.getValue() - first.getDayOfWeek().getValue() + 7) % 7;
+            list.add(holiday(first.plusDays(shift + 7L * (mw[1] - 1))));
+        }
+        list.add(holiday(LocalDate.of(year, 3, 20)));
+        list.add(holiday(LocalDate.of(year, 9, 23)));
+        return list;
+    }
+
+    private static PublicHoliday holiday(LocalDate date) {
+        PublicHoliday h = new PublicHoliday();
+        h.setDate(date.toString());
+        h.setLocalName("祝日");
+        h.setName("Holiday");
+        h.setCountryCode("JP");
+        h.setFixed(true);
+        h.setGlobal(true);
+        return h;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(random.nextInt(4) == 0 ? "  " : " ");
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.aitaskmanager.controller.tasks;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.aitaskmanager.benchmark.BenchmarkFixtures;
+import com.aitaskmanager.repository.dto.tasks.TaskResponse;
+import com.aitaskmanager.service.tasks.TaskService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * タスク一覧の DTO 変換（TaskController.getTasks → toResponse）のベンチマーク。
+ * 認証フィルターが設定するリクエスト属性（X-User-Id）だけを持つリクエストを現在のスレッドに置き、
+ * 合成した行を返す TaskMapper を通して JSON 直列化前までを測る。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskResponseMappingBenchmark {
+
+    /** ユーザーが持つタスク数 */
+    @Param({"100", "1000", "5000"})
+    public int size;
+
+    private TaskController controller;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TaskService taskService = new TaskService();
+        BenchmarkFixtures.inject(taskService, "taskMapper", BenchmarkFixtures.taskMapperReturning(BenchmarkFixtures.taskTree(size)));
+        controller = new TaskController();
+        BenchmarkFixtures.inject(controller, "taskService", taskService);
+        BenchmarkFixtures.inject(controller, "businessDayService", BenchmarkFixtures.businessDayService());
+        // @State(Scope.Thread) のため、Setup と計測は同じスレッドで実行される
+        HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class},
+                (proxy, method, args) -> "getAttribute".equals(method.getName()) && "X-User-Id".equals(args[0])
+                        ? BenchmarkFixtures.USER_SID : null);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public List<TaskResponse> listTasks() {
+        return controller.getTasks(null);
+    }
+}
@@ -0,0 +1,72 @@
+package com.aitaskmanager.security;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.aitaskmanager.benchmark.BenchmarkFixtures;
+
+/**
+ * JWT の検証とクレーム取得（JwtTokenProvider）のベンチマーク。
+ * 認証フィルターは1リクエストでクレームを3回取得してから validateToken を呼ぶため、その組み合わせも測る。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider provider;
+    private String token;
+    private String tamperedToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        provider = new JwtTokenProvider();
+        // HS512 のため 64 バイト以上の鍵
+        BenchmarkFixtures.inject(provider, "jwtSecret", "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret");
+        BenchmarkFixtures.inject(provider, "accessTokenExpiration", TimeUnit.HOURS.toMillis(1));
+        BenchmarkFixtures.inject(provider, "refreshTokenExpiration", TimeUnit.DAYS.toMillis(7));
+        token = provider.generateAccessToken("user0001", 1001, 2, List.of("ROLE_USER"));
+        // 署名部の末尾を書き換えた不正なトークン
+        char last = token.charAt(token.length() - 1);
+        tamperedToken = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return provider.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTampered() {
+        return provider.validateToken(tamperedToken);
+    }
+
+    @Benchmark
+    public Integer userId() {
+        return provider.getUserIdFromToken(token);
+    }
+
+    @Benchmark
+    public boolean filterPerRequest(Blackhole bh) {
+        bh.consume(provider.getUserIdStringFromToken(token));
+        bh.consume(provider.getUserIdFromToken(token));
+        bh.consume(provider.getClaim(token, "plan_id"));
+        return provider.validateToken(token);
+    }
+}
@@ -0,0 +1,79 @@
+package com.aitaskmanager.service.holiday;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aitaskmanager.benchmark.BenchmarkFixtures;
+
+/**
+ * 営業日インデックスを使った営業日計算（BusinessDayService.countBetween / addWorkingDays）のベンチマーク。
+ * 今日の前後2年に散らした10万件の期限日について、今日からの営業日数と、期限日から前後30営業日の日付を求める。
+ * スコアは期限日1件あたり（@OperationsPerInvocation）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusinessDayIndexBenchmark {
+
+    /** 期限日の件数 */
+    private static final int DUE_DATES = 100_000;
+
+    private BusinessDayService businessDayService;
+    private LocalDate today;
+    private LocalDate[] dueDates;
+    private int[] offsets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        today = LocalDate.now(ZoneId.of("Asia/Tokyo"));
+        dueDates = new LocalDate[DUE_DATES];
+        offsets = new int[DUE_DATES];
+        for (int i = 0; i < DUE_DATES; i++) {
+            dueDates[i] = today.plusDays(random.nextInt(1461) - 730);
+            offsets[i] = random.nextInt(61) - 30;
+        }
+        businessDayService = BenchmarkFixtures.businessDayService();
+        // 前後2年の端から30営業日ずらすと範囲外の年に入るため、その年の索引も測定前に作っておく
+        businessDayService.getIndex(today.getYear() - 3);
+        businessDayService.getIndex(today.getYear() + 3);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DUE_DATES)
+    public long countBetween() {
+        long sum = 0;
+        for (LocalDate due : dueDates) {
+            sum += businessDayService.countBetween(today, due);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DUE_DATES)
+    public long addWorkingDays() {
+        long sum = 0;
+        for (int i = 0; i < DUE_DATES; i++) {
+            sum += businessDayService.addWorkingDays(dueDates[i], offsets[i]).toEpochDay();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,48 @@
+package com.aitaskmanager.service.login;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aitaskmanager.security.JwtTokenProvider;
+import com.aitaskmanager.benchmark.BenchmarkFixtures;
+
+/**
+ * リフレッシュトークンのハッシュ化（RefreshTokenService.hashToken）のベンチマーク。
+ * 保存と検証のたびに実トークン（HS512 署名の JWT、約300文字）を SHA-256 で16進文字列にする。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshTokenHashBenchmark {
+
+    private RefreshTokenService service;
+    private String refreshToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        BenchmarkFixtures.inject(provider, "jwtSecret", "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret");
+        BenchmarkFixtures.inject(provider, "refreshTokenExpiration", TimeUnit.DAYS.toMillis(7));
+        refreshToken = provider.generateRefreshToken("user0001", 1001, 2, java.util.List.of("ROLE_USER"));
+        service = new RefreshTokenService();
+    }
+
+    @Benchmark
+    public String hashToken() {
+        return service.hashToken(refreshToken);
+    }
+}
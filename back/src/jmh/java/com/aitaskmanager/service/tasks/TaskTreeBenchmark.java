@@ -0,0 +1,53 @@
+package com.aitaskmanager.service.tasks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aitaskmanager.benchmark.BenchmarkFixtures;
+import com.aitaskmanager.repository.dto.tasks.TaskTreeResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskWithRollup;
+
+/**
+ * 階層ツリーの組み立て（TaskService.buildTree）のベンチマーク。
+ * DB の代わりに合成した行を返す TaskMapper を使い、getTaskTree から組み立て・DTO変換・残り営業日数の計算までを測る。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskTreeBenchmark {
+
+    /** ユーザーが持つタスク数 */
+    @Param({"100", "1000", "5000"})
+    public int size;
+
+    private TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<TaskWithRollup> rows = BenchmarkFixtures.taskTree(size);
+        taskService = new TaskService();
+        BenchmarkFixtures.inject(taskService, "taskMapper", BenchmarkFixtures.taskMapperReturning(rows));
+        BenchmarkFixtures.inject(taskService, "businessDayService", BenchmarkFixtures.businessDayService());
+    }
+
+    @Benchmark
+    public List<TaskTreeResponse> fullTree() {
+        return taskService.getTaskTree(BenchmarkFixtures.USER_SID);
+    }
+}
@@ -0,0 +1,129 @@
+package com.aitaskmanager.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aitaskmanager.benchmark.BenchmarkFixtures;
+
+/**
+ * AI応答の後処理（箇条書きのパース・正規化・重複除外）のベンチマーク。
+ * AiTextUtils と、置き換える前の実装（split / replaceFirst / replaceAll による正規化と親との総当たり比較）を
+ * 同じ応答テキストで比べる。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AiTextUtilsBenchmark {
+
+    /** 応答の項目数 */
+    @Param({"50"})
+    public int items;
+
+    private String response;
+    private String parentTitle;
+    private String parentDescription;
+
+    /** 応答の1項目（タイトルと説明） */
+    private record Item(String title, String description) {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        response = BenchmarkFixtures.bulletResponse(items);
+        parentTitle = "請求 バッチ 移行";
+        parentDescription = "請求バッチを新しい DB へ移行し、集計と通知の動作を確認する";
+    }
+
+    @Benchmark
+    public List<Item> current() {
+        List<String> lines = AiTextUtils.parseBulletLines(response, items);
+        List<Item> parsed = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            parsed.add(new Item(line, line));
+        }
+        return AiTextUtils.dedupByNormalizedKey(parsed, Item::title, Item::description, parentTitle, parentDescription);
+    }
+
+    @Benchmark
+    public List<Item> legacy() {
+        List<String> lines = Legacy.parseToList(response, items);
+        List<Item> parsed = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            parsed.add(new Item(line, line));
+        }
+        return Legacy.filter(parsed, parentTitle, parentDescription);
+    }
+
+    @Benchmark
+    public String normalizeCurrent() {
+        return AiTextUtils.normalize("  -  請求 バッチ   移行の  動作確認  ");
+    }
+
+    @Benchmark
+    public String normalizeLegacy() {
+        return Legacy.normalize("  -  請求 バッチ   移行の  動作確認  ");
+    }
+
+    /**
+     * 置き換える前の実装（OpenAiDecomposeService.parseToList と OpenAiTaskService の正規化・除外）の写し。
+     * 比較のためだけに残す。
+     */
+    static final class Legacy {
+
+        private Legacy() {
+        }
+
+        static List<String> parseToList(String text, int limit) {
+            List<String> list = new ArrayList<>();
+            String[] lines = text.split("\r?\n");
+            for (String line : lines) {
+                String t = line.trim().replaceFirst("^[\\-\\*]\\s*", "");
+                if (!t.isBlank()) list.add(t);
+                if (list.size() >= limit) break;
+            }
+            return list;
+        }
+
+        static List<Item> filter(List<Item> results, String title, String description) {
+            String normParentDesc = normalize(description);
+            String normParentTitle = normalize(title);
+            List<Item> filtered = new ArrayList<>();
+            for (Item st : results) {
+                String nt = normalize(st.title());
+                String nd = normalize(st.description());
+                boolean dupWithDesc = !normParentDesc.isEmpty() && (nt.equalsIgnoreCase(normParentDesc) || nd.equalsIgnoreCase(normParentDesc));
+                boolean dupWithTitle = !normParentTitle.isEmpty() && (nt.equalsIgnoreCase(normParentTitle) || nd.equalsIgnoreCase(normParentTitle));
+                if (!dupWithDesc && !dupWithTitle) {
+                    filtered.add(st);
+                }
+            }
+            return filtered;
+        }
+
+        static String normalize(String s) {
+            if (s == null) return "";
+            String t = s.trim()
+                    .replaceFirst("^[\\-\\*]\\s*", "")
+                    .replaceFirst("^•\\s*", "")
+                    .replaceAll("\\s+", " ");
+            return t.toUpperCase();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.aitaskmanager.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LogUtil（ロガーをキャッシュし、INFO が無効なら何も組み立てない）と、
+ * 置き換える前の LogUtil（呼び出しのたびに LoggerFactory を引き、呼び出し側で "key=" + value を連結する）の比較。
+ * INFO 有効時はログのテキスト形式（log4j2-spring.xml の TEXT_PATTERN）でイベントを整形して捨てるアペンダーへ出力し、
+ * I/O を除いた呼び出し側スレッドのコスト（整形を含む）を測る。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogUtilBenchmark {
+
+    private static final String TEXT_PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%t] %c{1.} - %m%n%ex";
+
+    /** INFO を有効にするロガーの名前になるクラス */
+    static final class Enabled {
+    }
+
+    /** INFO が無効なまま（log4j2.xml の Root = WARN）のロガーの名前になるクラス */
+    static final class Disabled {
+    }
+
+    /** INFO が有効か（enabled）無効か（disabled） */
+    @Param({"enabled", "disabled"})
+    public String level;
+
+    private Class<?> target;
+    private Integer taskSid;
+    private Integer userSid;
+    private String username;
+    private DiscardingAppender appender;
+
+    @Setup
+    public void setUp() {
+        target = "enabled".equals(level) ? Enabled.class : Disabled.class;
+        taskSid = 123456;
+        userSid = 1001;
+        username = "user0001";
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        Configuration config = context.getConfiguration();
+        PatternLayout layout = PatternLayout.newBuilder().withPattern(TEXT_PATTERN).withConfiguration(config).build();
+        appender = new DiscardingAppender(layout);
+        appender.start();
+        config.addAppender(appender);
+        LoggerConfig loggerConfig = new LoggerConfig(Enabled.class.getName(), Level.INFO, false);
+        loggerConfig.addAppender(appender, null, null);
+        config.addLogger(Enabled.class.getName(), loggerConfig);
+        context.updateLoggers();
+    }
+
+    @TearDown
+    public void tearDown() {
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        context.getConfiguration().removeLogger(Enabled.class.getName());
+        context.updateLoggers();
+        appender.stop();
+    }
+
+    @Benchmark
+    public void service() {
+        LogUtil.service(target, "tasks.delete", "started", "taskSid", taskSid, "userSid", userSid);
+    }
+
+    @Benchmark
+    public void serviceLegacy() {
+        LegacyLogUtil.service(target, "tasks.delete", "taskSid=" + taskSid + " userSid=" + userSid, "started");
+    }
+
+    @Benchmark
+    public void controller() {
+        LogUtil.controller(target, "tasks.delete", userSid, username, "invoked", "id", taskSid);
+    }
+
+    @Benchmark
+    public void controllerLegacy() {
+        LegacyLogUtil.controller(target, "tasks.delete", userSid, username, "invoked id=" + taskSid);
+    }
+
+    /** イベントをレイアウトで整形し、結果を捨てるアペンダー */
+    static final class DiscardingAppender extends AbstractAppender {
+
+        private long bytes;
+
+        DiscardingAppender(PatternLayout layout) {
+            super("Discard", null, layout, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(LogEvent event) {
+            bytes += getLayout().toByteArray(event).length;
+        }
+    }
+
+    /**
+     * 置き換える前の LogUtil の写し。比較のためだけに残す。
+     */
+    static final class LegacyLogUtil {
+
+        private LegacyLogUtil() {
+        }
+
+        static void controller(Class<?> clazz, String domainDotAction, Integer userSid, String username, String suffix) {
+            Logger log = LoggerFactory.getLogger(clazz);
+            log.info("[Controller] {} userSid={} username={} {}", domainDotAction, userSid, username, suffix);
+        }
+
+        static void service(Class<?> clazz, String domainDotAction, String kvPairs, String suffix) {
+            Logger log = LoggerFactory.getLogger(clazz);
+            log.info("[Service] {} {} {}", domainDotAction, kvPairs, suffix);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.aitaskmanager.util;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * AIクォータの集計期間（QuotaPeriodUtils）のベンチマーク。
+ * サイクル開始日は購読開始日から1か月ずつ進めて求めるため、購読期間の長さごとに測る。
+ * 開始日は月末（31日）とし、短い月へのクランプが毎回起きる条件にする。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuotaPeriodUtilsBenchmark {
+
+    /** 購読開始からの月数 */
+    @Param({"1", "12", "60"})
+    public int monthsSubscribed;
+
+    private Timestamp startedAt;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        today = LocalDate.now();
+        // 指定月数前の月末。30日以下の月なら前月の31日にする（30日・28日の月の前月はいずれも31日まである）
+        LocalDate monthStart = today.minusMonths(monthsSubscribed).withDayOfMonth(1);
+        LocalDate started = monthStart.lengthOfMonth() == 31
+                ? monthStart.withDayOfMonth(31)
+                : monthStart.minusMonths(1).withDayOfMonth(31);
+        startedAt = Timestamp.valueOf(LocalDateTime.of(started, LocalTime.of(10, 30)));
+    }
+
+    /** 利用状況の表示と同じく、開始日時から現在のサイクルと次のリセット日を求める */
+    @Benchmark
+    public void currentAndNextCycle(Blackhole bh) {
+        LocalDate startedDate = QuotaPeriodUtils.toStartedDate(startedAt);
+        LocalDate cycleStart = QuotaPeriodUtils.currentCycleStart(startedDate, today);
+        bh.consume(cycleStart);
+        bh.consume(QuotaPeriodUtils.addOneMonthSameDayClamped(cycleStart));
+    }
+
+    @Benchmark
+    public LocalDate currentCycleStart() {
+        return QuotaPeriodUtils.currentCycleStart(QuotaPeriodUtils.toStartedDate(startedAt), today);
+    }
+}
@@ -0,0 +1,50 @@
+package com.aitaskmanager.util;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 期限日の文字列変換（TaskUtils.toSqlDate）のベンチマーク。
+ * 画面から送られる yyyy-MM-dd（先に yyyy/MM/dd で解析して失敗した例外から戻る経路）と、一覧の表示形式 yyyy/MM/dd を測る。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskUtilsBenchmark {
+
+    private String hyphen;
+    private String slash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDate due = LocalDate.now().plusDays(30);
+        hyphen = due.toString();
+        slash = hyphen.replace('-', '/');
+    }
+
+    @Benchmark
+    public Date hyphenFormat() {
+        return TaskUtils.toSqlDate(hyphen);
+    }
+
+    @Benchmark
+    public Date slashFormat() {
+        return TaskUtils.toSqlDate(slash);
+    }
+}
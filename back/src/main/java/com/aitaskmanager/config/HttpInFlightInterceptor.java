@@ -0,0 +1,54 @@
+package com.aitaskmanager.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ルートごとの処理中リクエスト数を記録するインターセプター。
+ * ルート（パスパターン）はハンドラ確定後にしか分からないため、フィルターではなくここで計測する。
+ */
+@Component
+public class HttpInFlightInterceptor implements HandlerInterceptor {
+
+    /** リクエスト属性のキー */
+    private static final String ATTR = HttpInFlightInterceptor.class.getName() + ".sample";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+        LongTaskTimer.Sample sample = LongTaskTimer.builder("app.http.server.requests.active")
+                .description("処理中の API リクエスト")
+                .tag("method", request.getMethod())
+                .tag("route", pattern.toString())
+                .register(meterRegistry)
+                .start();
+        request.setAttribute(ATTR, sample);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object sample = request.getAttribute(ATTR);
+        if (sample instanceof LongTaskTimer.Sample s) {
+            request.removeAttribute(ATTR);
+            s.stop();
+        }
+    }
+}
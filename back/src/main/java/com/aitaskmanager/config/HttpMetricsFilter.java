@@ -0,0 +1,213 @@
+package com.aitaskmanager.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * API リクエストごとの所要時間・エラー・ペイロードサイズを記録するフィルター。
+ * 認証処理を含めた時間を計るため、Spring Security より前で実行する。
+ * ルートはハンドラのパスパターン（例: /api/tasks/{id}）で集約する。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class HttpMetricsFilter extends OncePerRequestFilter {
+
+    /** ハンドラに到達しなかった（認証エラー等）リクエストのルート名 */
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    /** ハンドラが見つからなかったリクエストのルート名 */
+    private static final String NOT_FOUND_ROUTE = "NOT_FOUND";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !(uri.startsWith("/api/") || uri.startsWith("/webhook/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        CountingResponse counting = new CountingResponse(response);
+        Throwable failure = null;
+        try {
+            chain.doFilter(request, counting);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            // 未処理の例外はコンテナが 500 を返す
+            int status = (failure != null) ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+            record(request, status, failure, System.nanoTime() - start, counting.bytesWritten());
+        }
+    }
+
+    /**
+     * 1リクエスト分のメトリクスを記録する
+     */
+    private void record(HttpServletRequest request, int status, Throwable failure, long elapsedNanos, long responseBytes) {
+        String route = route(request, status);
+        Tags routeTags = Tags.of("method", request.getMethod(), "route", route);
+        Timer.builder("app.http.server.requests")
+                .description("API リクエストの所要時間")
+                .tags(routeTags)
+                .tag("status", Integer.toString(status))
+                .tag("outcome", outcome(status))
+                .tag("exception", failure != null ? failure.getClass().getSimpleName() : "none")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        long requestBytes = request.getContentLengthLong();
+        if (requestBytes >= 0) {
+            DistributionSummary.builder("app.http.server.request.size")
+                    .description("リクエストボディのサイズ")
+                    .baseUnit("bytes")
+                    .tags(routeTags)
+                    .register(meterRegistry)
+                    .record(requestBytes);
+        }
+        DistributionSummary.builder("app.http.server.response.size")
+                .description("レスポンスボディのサイズ")
+                .baseUnit("bytes")
+                .tags(routeTags)
+                .register(meterRegistry)
+                .record(responseBytes);
+    }
+
+    /**
+     * 集約に使うルート名を求める
+     */
+    static String route(HttpServletRequest request, int status) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) return pattern.toString();
+        return (status == HttpServletResponse.SC_NOT_FOUND) ? NOT_FOUND_ROUTE : UNKNOWN_ROUTE;
+    }
+
+    /**
+     * HTTP ステータスを結果の分類に変換する
+     */
+    private static String outcome(int status) {
+        if (status >= 500) return "SERVER_ERROR";
+        if (status >= 400) return "CLIENT_ERROR";
+        if (status >= 300) return "REDIRECTION";
+        return "SUCCESS";
+    }
+
+    /**
+     * 書き込まれたレスポンスボディのサイズを数えるラッパー。
+     * ストリームはバイト数、Writer は文字数で数える（Writer はエラー応答など小さな本文でのみ使われる）。
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private long count;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        long bytesWritten() {
+            return count;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        count++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        count += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                Writer delegate = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) throws IOException {
+                        delegate.write(cbuf, off, len);
+                        count += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            super.flushBuffer();
+        }
+    }
+}
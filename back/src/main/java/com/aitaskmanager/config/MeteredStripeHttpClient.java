@@ -0,0 +1,38 @@
+package com.aitaskmanager.config;
+
+import java.util.regex.Pattern;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.net.HttpURLConnectionClient;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+
+/**
+ * Stripe API への HTTP リクエストごとに所要時間を記録するクライアント。
+ * SDK のリトライは1試行ずつ記録され、操作名はパス中のオブジェクトIDを {id} に置き換えて集約する。
+ */
+class MeteredStripeHttpClient extends HttpURLConnectionClient {
+
+    /** オブジェクトID とみなすパス要素（sub_1Nx..., cs_test_a1B... など数字か大文字を含むもの） */
+    private static final Pattern ID_SEGMENT = Pattern.compile("/[A-Za-z]+_[A-Za-z0-9_]*[0-9A-Z][A-Za-z0-9_]*");
+
+    private final UpstreamMetrics metrics;
+
+    MeteredStripeHttpClient(UpstreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) throws ApiConnectionException {
+        String operation = request.method() + " " + ID_SEGMENT.matcher(request.url().getPath()).replaceAll("/{id}");
+        long start = System.nanoTime();
+        try {
+            StripeResponse response = super.request(request);
+            metrics.record(UpstreamMetrics.STRIPE, operation, System.nanoTime() - start, UpstreamMetrics.outcomeOf(response.code()));
+            return response;
+        } catch (ApiConnectionException ex) {
+            metrics.record(UpstreamMetrics.STRIPE, operation, System.nanoTime() - start, UpstreamMetrics.ERROR);
+            throw ex;
+        }
+    }
+}
@@ -24,11 +24,12 @@ public class MyBatisConfig {
      * SqlSessionFactoryのBean定義
      * 
      * @param dataSource データソース
+     * @param sqlMetricsInterceptor SQL 計測プラグイン
      * @return SqlSessionFactoryオブジェクト
      * @throws Exception 例外
      */
     @Bean
-    public SqlSessionFactory sqlSessionFactory(DataSource dataSource) throws Exception {
+    public SqlSessionFactory sqlSessionFactory(DataSource dataSource, SqlMetricsInterceptor sqlMetricsInterceptor) throws Exception {
         SqlSessionFactoryBean sessionFactory = new SqlSessionFactoryBean();
         sessionFactory.setDataSource(dataSource);
 
@@ -41,6 +42,7 @@ public class MyBatisConfig {
         all.addAll(Arrays.asList(custom));
         all.addAll(Arrays.asList(generator));
         sessionFactory.setMapperLocations(all.toArray(new Resource[0]));
+        sessionFactory.setPlugins(sqlMetricsInterceptor);
 
         return sessionFactory.getObject();
     }
@@ -0,0 +1,48 @@
+package com.aitaskmanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定期実行（@Scheduled）のスケジューラ設定クラス。
+ * Spring Boot の既定は1スレッドのため、時間のかかる夜間処理（サブスクリプション照合・集計列の修復など）の実行中に
+ * 他の定期処理が止まらないようスレッド数を増やし、Stripe受信箱のポーリングには専用のスケジューラを割り当てる。
+ */
+@Configuration
+public class SchedulingConfig {
+
+    /** Stripe受信箱ポーリング用スケジューラのBean名（@Scheduled の scheduler 属性で指定する） */
+    public static final String STRIPE_INBOX_SCHEDULER = "stripeWebhookInboxScheduler";
+
+    /**
+     * 既定のスケジューラ（@Scheduled で scheduler を指定しない処理が使う）
+     *
+     * @param poolSize スレッド数
+     * @return スケジューラ
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduling.poolSize:4}") int poolSize) {
+        return scheduler("scheduling-", poolSize);
+    }
+
+    /**
+     * Stripe受信箱のポーリング専用スケジューラ（応答済みのウェブフックの処理が他の定期処理に待たされないようにする）
+     *
+     * @return スケジューラ
+     */
+    @Bean(name = STRIPE_INBOX_SCHEDULER)
+    public ThreadPoolTaskScheduler stripeWebhookInboxScheduler() {
+        return scheduler("stripe-inbox-", 1);
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(String threadNamePrefix, int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
@@ -0,0 +1,259 @@
+package com.aitaskmanager.config;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * MyBatis の SQL 実行を計測するプラグイン。
+ * マップドステートメントごとに実行回数・所要時間・取得/更新件数をエンドポイント別に Micrometer へ記録し、
+ * 1リクエスト内で同じステートメントが閾値を超えて実行された場合は N+1 の疑いとして警告する。
+ * メーターは初回のみ生成してキャッシュし、2回目以降の記録ではオブジェクトを生成しない。
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+        @Signature(type = Executor.class, method = "query",
+                args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }),
+        @Signature(type = Executor.class, method = "update",
+                args = { MappedStatement.class, Object.class })
+})
+public class SqlMetricsInterceptor implements Interceptor {
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+
+    /** リクエスト属性のキー */
+    private static final String ATTR = SqlMetricsInterceptor.class.getName() + ".stats";
+
+    /** リクエスト外（定期実行・非同期ワーカー等）で実行された場合のエンドポイント名 */
+    private static final String NO_ENDPOINT = "none";
+
+    /** ハンドラが未確定の時点で実行された場合のエンドポイント名 */
+    private static final String UNMAPPED_ENDPOINT = "unmapped";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** 1リクエスト内で同じステートメントをこの回数を超えて実行したら N+1 として警告する */
+    @Value("${mybatis.metrics.nPlusOneThreshold:10}")
+    private int nPlusOneThreshold;
+
+    /** 所要時間のヒストグラムを公開するかどうか */
+    @Value("${mybatis.metrics.histogram:true}")
+    private boolean histogram;
+
+    /** ステートメントID → エンドポイント → メーター */
+    private final Map<String, Map<String, StatementMeters>> meters = new ConcurrentHashMap<>();
+
+    /** エンドポイント → リクエストあたりの SQL 実行数 */
+    private final Map<String, DistributionSummary> perRequest = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        RequestSqlStats stats = currentStats();
+        String endpoint = (stats != null) ? stats.endpoint() : NO_ENDPOINT;
+        long start = System.nanoTime();
+        boolean success = false;
+        long rows = 0;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            rows = rowCount(result);
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            StatementMeters m = meters(ms.getId(), endpoint);
+            (success ? m.success : m.failure).record(elapsed, TimeUnit.NANOSECONDS);
+            if (success) m.rows.record(rows);
+            if (stats != null && stats.increment(ms.getId()) == nPlusOneThreshold + 1) {
+                m.nPlusOne.increment();
+                log.warn("[SqlMetrics] N+1 の疑い: statement={} endpoint={} が1リクエスト内で {} 回を超えて実行されました",
+                        ms.getId(), endpoint, nPlusOneThreshold);
+            }
+        }
+    }
+
+    /**
+     * 実行結果から取得/更新件数を求める
+     */
+    private static long rowCount(Object result) {
+        if (result instanceof Collection<?> c) return c.size();
+        if (result instanceof Integer i) return i;
+        return result != null ? 1 : 0;
+    }
+
+    /**
+     * ステートメントとエンドポイントに対応するメーターを取得する（初回のみ生成）
+     */
+    private StatementMeters meters(String statementId, String endpoint) {
+        Map<String, StatementMeters> byEndpoint = meters.get(statementId);
+        if (byEndpoint == null) {
+            byEndpoint = meters.computeIfAbsent(statementId, k -> new ConcurrentHashMap<>());
+        }
+        StatementMeters m = byEndpoint.get(endpoint);
+        if (m == null) {
+            m = byEndpoint.computeIfAbsent(endpoint, e -> new StatementMeters(meterRegistry, shortName(statementId), e, histogram));
+        }
+        return m;
+    }
+
+    /**
+     * 現在のリクエストの集計を取得する（リクエスト外ではNULL）
+     */
+    private RequestSqlStats currentStats() {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (!(attrs instanceof ServletRequestAttributes sra)) {
+            return null;
+        }
+        RequestSqlStats stats = (RequestSqlStats) attrs.getAttribute(ATTR, RequestAttributes.SCOPE_REQUEST);
+        if (stats == null) {
+            RequestSqlStats created = new RequestSqlStats(sra.getRequest());
+            attrs.setAttribute(ATTR, created, RequestAttributes.SCOPE_REQUEST);
+            attrs.registerDestructionCallback(ATTR, () -> completed(created), RequestAttributes.SCOPE_REQUEST);
+            stats = created;
+        }
+        return stats;
+    }
+
+    /**
+     * リクエスト完了時にリクエストあたりの実行数を記録する
+     */
+    private void completed(RequestSqlStats stats) {
+        String endpoint = stats.endpoint();
+        perRequest.computeIfAbsent(endpoint, e -> DistributionSummary.builder("db.sql.per_request")
+                .description("1リクエストあたりの SQL 実行数")
+                .tag("endpoint", e)
+                .register(meterRegistry))
+                .record(stats.total);
+        if (log.isDebugEnabled()) {
+            log.debug("[SqlMetrics] endpoint={} statements={} byStatement={}", endpoint, stats.total, stats.describe());
+        }
+    }
+
+    /**
+     * ステートメントIDを「Mapper名.メソッド名」に短縮する
+     */
+    static String shortName(String statementId) {
+        int last = statementId.lastIndexOf('.');
+        if (last <= 0) return statementId;
+        int prev = statementId.lastIndexOf('.', last - 1);
+        return statementId.substring(prev + 1);
+    }
+
+    /**
+     * ステートメント×エンドポイントごとのメーター
+     */
+    private static final class StatementMeters {
+        final Timer success;
+        final Timer failure;
+        final DistributionSummary rows;
+        final Counter nPlusOne;
+
+        StatementMeters(MeterRegistry registry, String statement, String endpoint, boolean histogram) {
+            this.success = timer(registry, statement, endpoint, "success", histogram);
+            this.failure = timer(registry, statement, endpoint, "error", false);
+            this.rows = DistributionSummary.builder("db.sql.rows")
+                    .description("SQL の取得/更新件数")
+                    .tag("statement", statement)
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            this.nPlusOne = Counter.builder("db.sql.n_plus_one")
+                    .description("1リクエスト内で閾値を超えて同じ SQL を実行した回数")
+                    .tag("statement", statement)
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String statement, String endpoint, String outcome, boolean histogram) {
+            return Timer.builder("db.sql")
+                    .description("SQL の実行時間")
+                    .tag("statement", statement)
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram(histogram)
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 1リクエスト内の SQL 実行状況（リクエストスレッドからのみ更新する）
+     */
+    private static final class RequestSqlStats {
+        private final HttpServletRequest request;
+        private final Map<String, int[]> counts = new HashMap<>();
+        private String endpoint;
+        private int total;
+
+        RequestSqlStats(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        /**
+         * エンドポイント名（「メソッド パスパターン」）を取得する。ハンドラ確定後に一度だけ組み立てる。
+         */
+        String endpoint() {
+            String e = endpoint;
+            if (e != null) return e;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern == null) return UNMAPPED_ENDPOINT;
+            endpoint = e = request.getMethod() + " " + pattern;
+            return e;
+        }
+
+        /**
+         * ステートメントの実行回数を加算する
+         *
+         * @return 加算後のこのリクエスト内での実行回数
+         */
+        int increment(String statementId) {
+            total++;
+            int[] c = counts.get(statementId);
+            if (c == null) {
+                c = new int[1];
+                counts.put(statementId, c);
+            }
+            return ++c[0];
+        }
+
+        String describe() {
+            StringBuilder sb = new StringBuilder("{");
+            counts.forEach((k, v) -> {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(shortName(k)).append('=').append(v[0]);
+            });
+            return sb.append('}').toString();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.aitaskmanager.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+import com.stripe.net.ApiResource;
+import com.stripe.net.LiveStripeResponseGetter;
+
+/**
+ * 外部API（OpenAI・Stripe・祝日API）の呼び出し時間を記録するメトリクス。
+ * 自サービスの処理時間と分けて、上流ごとの遅延・失敗率を確認できるようにする。
+ */
+@Component
+public class UpstreamMetrics {
+
+    /** 上流名: OpenAI */
+    public static final String OPENAI = "openai";
+    /** 上流名: Stripe */
+    public static final String STRIPE = "stripe";
+    /** 上流名: 祝日API（Nager.Date） */
+    public static final String HOLIDAY = "holiday";
+
+    /** 結果: 成功（2xx） */
+    public static final String SUCCESS = "success";
+    /** 結果: 4xx 応答 */
+    public static final String CLIENT_ERROR = "client_error";
+    /** 結果: 5xx 応答 */
+    public static final String SERVER_ERROR = "server_error";
+    /** 結果: 通信失敗などの例外 */
+    public static final String ERROR = "error";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Stripe SDK の HTTP クライアントを計測付きのものに差し替える
+     */
+    @PostConstruct
+    void installStripeClient() {
+        ApiResource.setStripeResponseGetter(new LiveStripeResponseGetter(new MeteredStripeHttpClient(this)));
+    }
+
+    /**
+     * 外部API呼び出し1回分の所要時間を記録する
+     *
+     * @param upstream 上流名（openai / stripe / holiday）
+     * @param operation 操作名（例: "POST /v1/chat/completions"）
+     * @param elapsedNanos 所要時間（ナノ秒）
+     * @param outcome 結果（success / client_error / server_error / error）
+     */
+    public void record(String upstream, String operation, long elapsedNanos, String outcome) {
+        Timer.builder("app.upstream.requests")
+                .description("外部API呼び出しの所要時間")
+                .tag("upstream", upstream)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(5))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * HTTP ステータスコードを結果に変換する
+     *
+     * @param status HTTP ステータスコード
+     * @return 結果
+     */
+    public static String outcomeOf(int status) {
+        if (status >= 500) return SERVER_ERROR;
+        if (status >= 400) return CLIENT_ERROR;
+        return SUCCESS;
+    }
+}
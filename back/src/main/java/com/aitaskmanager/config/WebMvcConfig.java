@@ -0,0 +1,26 @@
+package com.aitaskmanager.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC の設定クラス
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private HttpInFlightInterceptor httpInFlightInterceptor;
+
+    /**
+     * インターセプターの登録
+     *
+     * @param registry InterceptorRegistryオブジェクト
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(httpInFlightInterceptor).addPathPatterns("/api/**", "/webhook/**");
+    }
+}
@@ -0,0 +1,67 @@
+package com.aitaskmanager.controller.admin;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.aitaskmanager.service.catalog.CatalogService;
+import com.aitaskmanager.service.catalog.CatalogSnapshot;
+import com.aitaskmanager.util.LogUtil;
+
+/**
+ * 運用向けの管理APIコントローラ（X-Admin-Token ヘッダで認可する）
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class CatalogAdminController {
+
+    @Autowired
+    private CatalogService catalogService;
+
+    /** 管理APIトークン（未設定の場合は管理APIを無効にする） */
+    @Value("${admin.apiToken:}")
+    private String adminApiToken;
+
+    /**
+     * プラン・クレジットパックのカタログを再読み込みするエンドポイント
+     *
+     * @param token 管理APIトークン
+     * @return 再読み込み後の版と件数
+     */
+    @PostMapping("/catalog/reload")
+    public Map<String, Object> reloadCatalog(@RequestHeader(name = "X-Admin-Token", required = false) String token) {
+        LogUtil.controller(CatalogAdminController.class, "admin.catalog.reload", null, null, "invoked");
+        requireAdmin(token);
+        CatalogSnapshot snapshot = catalogService.reload();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", snapshot.getVersion());
+        body.put("loadedAt", snapshot.getLoadedAt().toString());
+        body.put("plans", snapshot.getPlanCount());
+        body.put("creditPacks", snapshot.getPackCount());
+        return body;
+    }
+
+    /**
+     * 管理APIトークンを検証する（未設定は404、不一致は403）
+     *
+     * @param token リクエストのトークン
+     */
+    private void requireAdmin(String token) {
+        if (adminApiToken == null || adminApiToken.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (token == null || !MessageDigest.isEqual(adminApiToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "invalid admin token");
+        }
+    }
+}
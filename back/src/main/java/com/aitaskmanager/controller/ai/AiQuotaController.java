@@ -17,13 +17,13 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.beans.factory.annotation.Value;
 
 import com.aitaskmanager.repository.customMapper.CustomAiUsageMapper;
-import com.aitaskmanager.repository.customMapper.SubscriptionsCustomMapper;
 import com.aitaskmanager.security.AuthUtils;
-import com.aitaskmanager.repository.generator.SubscriptionPlansMapper;
-import com.aitaskmanager.repository.customMapper.UserMapper;
+import com.aitaskmanager.service.catalog.CatalogService;
+import com.aitaskmanager.service.loader.RequestDataLoader;
 import com.aitaskmanager.repository.model.SubscriptionPlans;
 import com.aitaskmanager.repository.model.Users;
 import com.aitaskmanager.util.LogUtil;
+import com.aitaskmanager.util.QuotaPeriodUtils;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -38,17 +38,14 @@ import lombok.extern.slf4j.Slf4j;
 public class AiQuotaController {
 
     @Autowired
-    private UserMapper userMapper;
+    private RequestDataLoader requestDataLoader;
 
     @Autowired
-    private SubscriptionPlansMapper subscriptionPlansMapper;
+    private CatalogService catalogService;
 
     @Autowired
     private CustomAiUsageMapper customAiUsageMapper;
 
-    @Autowired
-    private SubscriptionsCustomMapper subscriptionsCustomMapper;
-
     @Value("${spring.ai.openai.api-key:}")
     private String openaiApiKey;
 
@@ -73,7 +70,7 @@ public class AiQuotaController {
             // 認証情報からuser_id を取得
             String userId = AuthUtils.getUserId(auth);
 
-            Users user = (userId != null) ? userMapper.selectByUserId(userId) : null;
+            Users user = (userId != null) ? requestDataLoader.userByUserId(userId) : null;
             if (user == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error("user-not-found"));
             }
@@ -82,12 +79,12 @@ public class AiQuotaController {
             String planResolve = null;
             Integer planId = user.getPlanId();
             if (user.getPlanId() != null) planResolve = "db";
-            SubscriptionPlans plan = (planId != null) ? subscriptionPlansMapper.selectByPrimaryKey(planId) : null;
+            SubscriptionPlans plan = (planId != null) ? catalogService.findPlan(planId) : null;
             if (plan == null) {
                 // フォールバック: 利用可能なプラン一覧からデフォルト（先頭）を選択
                 try {
                     LogUtil.controller(AiQuotaController.class, "ai.quota", null, userId, "plan-fallback:select-all");
-                    var all = subscriptionPlansMapper.selectAll();
+                    var all = catalogService.listPlans();
                     if (all != null && !all.isEmpty()) {
                         plan = all.get(0);
                         planId = plan.getSubscriptionPlanSid();
@@ -108,15 +105,9 @@ public class AiQuotaController {
                 Integer periodYear = now.getYear();
                 Integer periodMonth = now.getMonthValue();
                 Long userSidLong = user.getUserSid();
-                java.sql.Timestamp startedAtTsAnchor = (userSidLong != null) ? subscriptionsCustomMapper.selectLatestStartedAt(userSidLong) : null;
+                java.sql.Timestamp startedAtTsAnchor = (userSidLong != null) ? requestDataLoader.latestStartedAt(userSidLong) : null;
                 if (startedAtTsAnchor != null) {
-                    LocalDate startedDate = startedAtTsAnchor.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                    LocalDate cursor = startedDate;
-                    while (true) {
-                        LocalDate next = addOneMonthSameDayClamped(cursor);
-                        if (next.isAfter(now)) break;
-                        cursor = next;
-                    }
+                    LocalDate cursor = QuotaPeriodUtils.currentCycleStart(QuotaPeriodUtils.toStartedDate(startedAtTsAnchor), now);
                     periodYear = cursor.getYear();
                     periodMonth = cursor.getMonthValue();
                 }
@@ -131,19 +122,10 @@ public class AiQuotaController {
             long daysUntilReset;
             try {
                 Long userSid = user.getUserSid();
-                java.sql.Timestamp startedAtTs = (userSid != null) ? subscriptionsCustomMapper.selectLatestStartedAt(userSid) : null;
+                java.sql.Timestamp startedAtTs = (userSid != null) ? requestDataLoader.latestStartedAt(userSid) : null;
                 if (startedAtTs != null) {
-                    LocalDate startedDate = startedAtTs.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                    // 現在サイクル開始日を求め、その翌サイクル開始日をリセット日とする
-                    LocalDate cursor = startedDate;
-                    while (true) {
-                        LocalDate next = addOneMonthSameDayClamped(cursor);
-                        if (next.isAfter(now)) { // next が次回サイクル開始
-                            resetDate = next;
-                            break;
-                        }
-                        cursor = next;
-                    }
+                    // 現在サイクル開始日の翌サイクル開始日をリセット日とする
+                    resetDate = QuotaPeriodUtils.nextCycleStart(QuotaPeriodUtils.toStartedDate(startedAtTs), now);
                 } else {
                     resetDate = now.withDayOfMonth(1).plusMonths(1);
                 }
@@ -168,7 +150,7 @@ public class AiQuotaController {
             body.put("daysUntilReset", Long.valueOf(daysUntilReset));
             // 画面表示用（ユーザの希望プラン: users.plan_id）。
             Integer displayPlanId = user.getPlanId();
-            SubscriptionPlans displayPlan = (displayPlanId != null) ? subscriptionPlansMapper.selectByPrimaryKey(displayPlanId) : null;
+            SubscriptionPlans displayPlan = (displayPlanId != null) ? catalogService.findPlan(displayPlanId) : null;
             body.put("displayPlanName", displayPlan != null ? displayPlan.getName() : (plan != null ? plan.getName() : ""));
             body.put("displayPlanId", displayPlanId != null ? displayPlanId : (plan != null ? plan.getSubscriptionPlanSid() : null));
             if (!aiConfigured) {
@@ -182,17 +164,6 @@ public class AiQuotaController {
         }
     }
 
-    /**
-     * 翌月同日を試み、存在しない場合は月末へクランプして1か月進める。
-     */
-    private LocalDate addOneMonthSameDayClamped(LocalDate base) {
-        LocalDate cand = base.plusMonths(1);
-        int dom = base.getDayOfMonth();
-        int endOfMonth = cand.lengthOfMonth();
-        int clampedDay = Math.min(dom, endOfMonth);
-        return LocalDate.of(cand.getYear(), cand.getMonth(), clampedDay);
-    }
-
     /**
      * エラーメッセージを含むマップを作成するユーティリティメソッド
      *
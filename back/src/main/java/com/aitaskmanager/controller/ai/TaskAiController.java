@@ -2,13 +2,16 @@ package com.aitaskmanager.controller.ai;
 
 import com.aitaskmanager.service.ai.OpenAiTaskService;
 import com.aitaskmanager.repository.dto.ai.TaskBreakdownDTO;
+import com.aitaskmanager.util.AiTextUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,9 +26,15 @@ public class TaskAiController {
     @Autowired
     private OpenAiTaskService openAiTaskService;
 
+    /** 一括細分化で受け付ける親タスクの最大件数 */
+    private static final int MAX_BATCH_ITEMS = 50;
+
     // 丁寧版の警告文
     private static final String AMBIGUOUS_WARNING = "入力された説明が抽象的なため、AIで子タスクを自動生成できませんでした。親タスクのみ作成しています。以下を追記すると分解が成功しやすくなります。\n- 目的（なぜやるのか）\n- 具体的な手順（何を、どう進めるのか）\n- 期待する成果物（何が得られれば完了か）\n- 制約（期限・条件・依存関係など）";
 
+    // 子提案0件時の警告文
+    private static final String NO_CHILDREN_WARNING = "AIによる子タスク提案がありませんでした。親タスクのみ作成しています。説明をもう少し具体的にすると分解が成功しやすくなります。";
+
     /**
      * タスク細分化エンドポイント
      *
@@ -53,11 +62,7 @@ public class TaskAiController {
         }
 
         // 簡易な曖昧判定（短すぎる/語数が少なすぎる場合）
-        String base = !description.isBlank() ? description : title;
-        int minChars = 20;
-        int minWords = 3;
-        String[] words = base.trim().split("\\s+");
-        if (base.length() < minChars && words.length < minWords) {
+        if (AiTextUtils.isAmbiguous(title, description)) {
             // 警告は付与するが、親タスク作成を阻害しないため早期returnはしない
             resp.warning = AMBIGUOUS_WARNING;
             // OpenAI呼び出しは意味がないので、以降の生成結果は空のまま警告付きで返す
@@ -73,9 +78,62 @@ public class TaskAiController {
         }
         // 子提案が0件の場合は親のみ作成の旨を警告として返す
         if (resp.children.isEmpty() && (resp.warning == null || resp.warning.isBlank())) {
-            resp.warning = "AIによる子タスク提案がありませんでした。親タスクのみ作成しています。説明をもう少し具体的にすると分解が成功しやすくなります。";
+            resp.warning = NO_CHILDREN_WARNING;
         }
         
         return ResponseEntity.ok(resp);
     }
+
+    /**
+     * 複数タスクの一括細分化エンドポイント
+     * 親タスクをまとめてOpenAIへ送り、結果を親タスクごとに返す（失敗は項目単位で error に設定）
+     *
+     * @param req 一括細分化リクエストDTO
+     * @return 一括細分化レスポンスDTO
+     */
+    @PostMapping("/breakdown:batch")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<TaskBreakdownDTO.BatchResponse> breakdownBatch(@RequestBody TaskBreakdownDTO.BatchRequest req) {
+        TaskBreakdownDTO.BatchResponse resp = new TaskBreakdownDTO.BatchResponse();
+        resp.results = new ArrayList<>();
+        List<TaskBreakdownDTO.Request> items = (req != null && req.items != null) ? req.items : List.of();
+        if (items.size() > MAX_BATCH_ITEMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "一度に細分化できるタスクは" + MAX_BATCH_ITEMS + "件までです");
+        }
+
+        // OpenAIが無効またはAPIキー未設定の場合は警告を返す
+        if (!openAiTaskService.isEnabled()) {
+            resp.warning = "AI連携が未設定です。管理者に連絡するか、OPENAI_API_KEY を設定してください。";
+            return ResponseEntity.ok(resp);
+        }
+
+        List<OpenAiTaskService.ParentTask> parents = new ArrayList<>();
+        for (TaskBreakdownDTO.Request r : items) {
+            String title = (r != null && r.title != null) ? r.title.trim() : "";
+            String description = (r != null && r.description != null) ? r.description.trim() : "";
+            parents.add(new OpenAiTaskService.ParentTask(title, description, r != null ? r.dueDate : null, r != null ? r.priority : null));
+        }
+
+        List<OpenAiTaskService.BatchResult> results = openAiTaskService.generateSubTasksBatch(parents);
+        for (int i = 0; i < results.size(); i++) {
+            OpenAiTaskService.BatchResult r = results.get(i);
+            TaskBreakdownDTO.BatchItem item = new TaskBreakdownDTO.BatchItem();
+            item.index = i;
+            item.children = new ArrayList<>();
+            for (OpenAiTaskService.SubTask s : r.children) {
+                TaskBreakdownDTO.SubTask st = new TaskBreakdownDTO.SubTask();
+                st.title = s.title;
+                st.description = s.description;
+                item.children.add(st);
+            }
+            item.error = r.error;
+            if (r.ambiguous) {
+                item.warning = AMBIGUOUS_WARNING;
+            } else if (r.error == null && item.children.isEmpty()) {
+                item.warning = NO_CHILDREN_WARNING;
+            }
+            resp.results.add(item);
+        }
+        return ResponseEntity.ok(resp);
+    }
 }
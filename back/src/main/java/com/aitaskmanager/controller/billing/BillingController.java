@@ -4,7 +4,8 @@ import com.aitaskmanager.service.billing.StripeBillingService;
 import com.aitaskmanager.repository.customMapper.UserMapper;
 import com.aitaskmanager.repository.customMapper.SubscriptionsCustomMapper;
 import com.aitaskmanager.repository.customMapper.CustomAiUsageMapper;
-import com.aitaskmanager.repository.generator.SubscriptionPlansMapper;
+import com.aitaskmanager.service.catalog.CatalogService;
+import com.aitaskmanager.service.loader.RequestDataLoader;
 import com.aitaskmanager.repository.model.SubscriptionPlans;
 import com.aitaskmanager.security.AuthUtils;
 import org.springframework.http.ResponseEntity;
@@ -46,7 +47,10 @@ public class BillingController {
     private CustomAiUsageMapper customAiUsageMapper;
 
     @Autowired
-    private SubscriptionPlansMapper subscriptionPlansMapper;
+    private CatalogService catalogService;
+
+    @Autowired
+    private RequestDataLoader requestDataLoader;
 
     @Value("${stripe.apiKey}")
     private String stripeApiKey;
@@ -136,18 +140,18 @@ public class BillingController {
         }
         try {
             // 1) ユーザーSID取得
-            var user = userMapper.selectByUserId(userId);
+            var user = requestDataLoader.userByUserId(userId);
             if (user == null || user.getUserSid() == null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse("invalid-user"));
             }
             int userSid = user.getUserSid().intValue();
 
             // 2) 現在のACTIVE契約があるか確認（最新）
-            Integer activePlanSid = subscriptionsCustomMapper.selectActivePlanSid(userSid);
+            Integer activePlanSid = requestDataLoader.activePlanSid((long) userSid);
 
             // 3) 未消化分をボーナスへロール
             if (activePlanSid != null) {
-                SubscriptionPlans plan = subscriptionPlansMapper.selectByPrimaryKey(activePlanSid);
+                SubscriptionPlans plan = catalogService.findPlan(activePlanSid);
                 Integer aiQuota = plan != null ? plan.getAiQuota() : null;
                 boolean isUnlimited = aiQuota == null || (aiQuota != null && aiQuota == 4);
                 // 当月の使用/ボーナスを取得（Unlimited/有料いずれも参照）
@@ -1,14 +1,30 @@
 package com.aitaskmanager.controller.holiday;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.aitaskmanager.repository.dto.holiday.PublicHoliday;
+import com.aitaskmanager.service.holiday.BusinessDayService;
 import com.aitaskmanager.service.holiday.HolidayService;
 import com.aitaskmanager.service.holiday.HolidayFetchException;
 import org.springframework.web.server.ResponseStatusException;
@@ -22,9 +38,24 @@ import com.aitaskmanager.util.LogUtil;
 @RequestMapping("/api/holidays")
 public class HolidayController {
 
+    /** 一括取得で指定できる年数の上限 */
+    private static final int MAX_RANGE_YEARS = 10;
+
+    /** 一括取得で指定できる国数の上限 */
+    private static final int MAX_RANGE_COUNTRIES = 5;
+
+    /** 国コード（ISO 3166-1 alpha-2） */
+    private static final Pattern COUNTRY_CODE = Pattern.compile("[A-Z]{2}");
+
+    /** 一括取得レスポンスのキャッシュ期間（サーバ側TTLと同じ12時間） */
+    private static final CacheControl RANGE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(12)).cachePrivate();
+
     @Autowired
     private HolidayService holidayService;
 
+    @Autowired
+    private BusinessDayService businessDayService;
+
     /**
      * 指定された年の祝日リストを取得するエンドポイント
      *
@@ -43,4 +74,154 @@ public class HolidayController {
             throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, e.getMessage());
         }
     }
+
+    /**
+     * 複数年・複数国の祝日をまとめて取得するエンドポイント
+     * レスポンスは 国コード → 年 → [{date, localName, name}] の形式で、ETag と Cache-Control を付与する。
+     *
+     * @param from 開始年（含む）
+     * @param to 終了年（含む）
+     * @param country 国コード（カンマ区切り、省略時は既定の国）
+     * @param request Webリクエスト（条件付きGET判定用）
+     * @return 祝日のマップ
+     */
+    @GetMapping("/range")
+    public ResponseEntity<Map<String, Map<Integer, List<Map<String, String>>>>> range(
+            @RequestParam(name = "from") Integer from,
+            @RequestParam(name = "to") Integer to,
+            @RequestParam(name = "country", required = false) String country,
+            WebRequest request) {
+        LogUtil.controller(HolidayController.class, "holidays.range", null, null, "invoked");
+        if (from == null || to == null || from < 1900 || to > 2100 || from > to) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "year range is invalid");
+        }
+        if (to - from + 1 > MAX_RANGE_YEARS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "year range is too large");
+        }
+        List<String> countries = parseCountries(country);
+        Map<String, Map<Integer, List<PublicHoliday>>> holidays;
+        try {
+            holidays = holidayService.getHolidaysRange(countries, from, to);
+        } catch (HolidayFetchException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, e.getMessage());
+        }
+
+        Map<String, Map<Integer, List<Map<String, String>>>> body = new LinkedHashMap<>();
+        StringBuilder digest = new StringBuilder();
+        for (Map.Entry<String, Map<Integer, List<PublicHoliday>>> c : holidays.entrySet()) {
+            Map<Integer, List<Map<String, String>>> byYear = new LinkedHashMap<>();
+            for (Map.Entry<Integer, List<PublicHoliday>> y : c.getValue().entrySet()) {
+                List<Map<String, String>> list = new ArrayList<>(y.getValue().size());
+                for (PublicHoliday h : y.getValue()) {
+                    Map<String, String> item = new LinkedHashMap<>();
+                    item.put("date", h.getDate());
+                    item.put("localName", h.getLocalName());
+                    item.put("name", h.getName());
+                    list.add(item);
+                    digest.append(c.getKey()).append('|').append(h.getDate()).append('|')
+                          .append(h.getLocalName()).append('|').append(h.getName()).append('\n');
+                }
+                byYear.put(y.getKey(), list);
+            }
+            body.put(c.getKey(), byYear);
+        }
+
+        String etag = "\"" + DigestUtils.md5DigestAsHex(digest.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(RANGE_CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(RANGE_CACHE_CONTROL).body(body);
+    }
+
+    /**
+     * 期間内の営業日数を取得するエンドポイント（土日・祝日を除く、from を含み to を含まない）
+     *
+     * @param from 開始日（YYYY-MM-DD）
+     * @param to 終了日（YYYY-MM-DD）
+     * @return 営業日数
+     */
+    @GetMapping("/business-days")
+    public Map<String, Object> businessDays(@RequestParam(name = "from") String from,
+                                            @RequestParam(name = "to") String to) {
+        LogUtil.controller(HolidayController.class, "holidays.business-days", null, null, "invoked");
+        LocalDate fromDate = parseDate(from);
+        LocalDate toDate = parseDate(to);
+        try {
+            Map<String, Object> body = new HashMap<>();
+            body.put("from", fromDate.toString());
+            body.put("to", toDate.toString());
+            body.put("businessDays", businessDayService.countBetween(fromDate, toDate));
+            return body;
+        } catch (HolidayFetchException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, e.getMessage());
+        }
+    }
+
+    /**
+     * 指定日から n 営業日後（負数なら前）の日付を取得するエンドポイント
+     *
+     * @param date 基準日（YYYY-MM-DD）
+     * @param days 営業日数
+     * @return 計算結果の日付
+     */
+    @GetMapping("/business-days/add")
+    public Map<String, Object> addBusinessDays(@RequestParam(name = "date") String date,
+                                               @RequestParam(name = "days") Integer days) {
+        LogUtil.controller(HolidayController.class, "holidays.business-days-add", null, null, "invoked");
+        LocalDate base = parseDate(date);
+        if (days == null || Math.abs(days) > 3660) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "days parameter is invalid");
+        }
+        try {
+            Map<String, Object> body = new HashMap<>();
+            body.put("date", base.toString());
+            body.put("days", days);
+            body.put("result", businessDayService.addWorkingDays(base, days).toString());
+            return body;
+        } catch (HolidayFetchException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, e.getMessage());
+        }
+    }
+
+    /**
+     * カンマ区切りの国コードを解析する（不正は400、省略時は既定の国）
+     *
+     * @param value 国コード文字列
+     * @return 国コードのリスト（重複除去・大文字化済み）
+     */
+    private List<String> parseCountries(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of(holidayService.getDefaultCountryCode());
+        }
+        Set<String> codes = new LinkedHashSet<>();
+        for (String part : value.split(",")) {
+            String code = part.trim().toUpperCase();
+            if (!COUNTRY_CODE.matcher(code).matches()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "country parameter is invalid");
+            }
+            codes.add(code);
+        }
+        if (codes.size() > MAX_RANGE_COUNTRIES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "too many countries");
+        }
+        return new ArrayList<>(codes);
+    }
+
+    /**
+     * YYYY-MM-DD 形式の日付を解析する（範囲外・不正は400）
+     *
+     * @param value 日付文字列
+     * @return LocalDate
+     */
+    private LocalDate parseDate(String value) {
+        try {
+            LocalDate d = LocalDate.parse(value);
+            if (d.getYear() < 1900 || d.getYear() > 2100) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "date parameter is invalid");
+            }
+            return d;
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "date parameter is invalid");
+        }
+    }
 }
@@ -26,6 +26,7 @@ import com.aitaskmanager.security.JwtTokenProvider;
 import com.aitaskmanager.repository.customMapper.UserMapper;
 import com.aitaskmanager.repository.model.Users;
 import com.aitaskmanager.service.login.RefreshTokenService;
+import com.aitaskmanager.service.loader.RequestDataLoader;
 import com.aitaskmanager.service.login.RegistrationService;
 import com.aitaskmanager.util.LogUtil;
 
@@ -51,6 +52,9 @@ public class AuthController {
     @Autowired
     private RegistrationService registrationService;
 
+    @Autowired
+    private RequestDataLoader requestDataLoader;
+
     /**
      * ログインエンドポイント
      * 
@@ -69,7 +73,7 @@ public class AuthController {
         String resolvedUserId = loginIdOrEmail;
         Users user = null;
         if (isEmail) {
-            user = userMapper.selectByEmail(loginIdOrEmail);
+            user = requestDataLoader.userByEmail(loginIdOrEmail);
             if (user == null) {
                 throw new BadCredentialsException("メールまたはパスワードが不正です");
             }
@@ -85,8 +89,8 @@ public class AuthController {
         );
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // ユーザー情報を user_id で再取得（email での一時取得では user_sid 等が欠ける可能性があるため）
-        user = userMapper.selectByUserId(resolvedUserId);
+        // ユーザー情報を user_id で取得（認証時・email 解決時に読み込んだ結果を再利用する）
+        user = requestDataLoader.userByUserId(resolvedUserId);
         if (user == null) {
             throw new BadCredentialsException("ユーザーが見つかりません");
         }
@@ -151,7 +155,7 @@ public class AuthController {
         try {
             if (request != null && request.getRefreshToken() != null) {
                 uidForLog = jwtTokenProvider.getUserIdFromToken(request.getRefreshToken());
-                userIdForLog = refreshTokenService.validateRefreshToken(request.getRefreshToken());
+                userIdForLog = jwtTokenProvider.getUserIdStringFromToken(request.getRefreshToken());
             }
         } catch (Exception ignored) { /* 検証は直後に本処理で実施 */ }
         LogUtil.controller(AuthController.class, "auth.refresh", uidForLog, userIdForLog, "invoked");
@@ -163,7 +167,7 @@ public class AuthController {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         var roles = jwtTokenProvider.extractRoles(authentication);
         // 現在のユーザーのプランIDを再取得してクレームに含める
-        Users current = userMapper.selectByUserId(userId);
+        Users current = requestDataLoader.userByUserId(userId);
         Integer planId = (current != null) ? current.getPlanId() : null;
         String newAccessToken = jwtTokenProvider.generateAccessToken(userId, uid, planId, roles);
         String newRefreshToken = jwtTokenProvider.generateRefreshToken(userId, uid, planId, roles);
@@ -0,0 +1,43 @@
+package com.aitaskmanager.controller.tasks;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aitaskmanager.repository.dto.tasks.TaskBulkRequest;
+import com.aitaskmanager.repository.dto.tasks.TaskBulkResponse;
+import com.aitaskmanager.service.tasks.TaskBulkService;
+import com.aitaskmanager.util.LogUtil;
+import com.aitaskmanager.util.RequestGuard;
+
+import jakarta.validation.Valid;
+
+/**
+ * タスクの一括操作APIエンドポイントを提供するコントローラー。
+ * パスが /api/tasks 配下のセグメントではなく /api/tasks:bulk のため、TaskController とは分けている。
+ */
+@RestController
+@RequestMapping("/api")
+public class TaskBulkController {
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    /**
+     * 複数タスクへの操作（ステータス・優先度・期限日の変更、削除）をまとめて適用するエンドポイント
+     *
+     * @param request 一括操作リクエスト
+     * @param authentication 認証情報
+     * @return タスクごとの結果と件数
+     */
+    @PostMapping("/tasks:bulk")
+    public ResponseEntity<TaskBulkResponse> bulk(@Valid @RequestBody TaskBulkRequest request, Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskBulkController.class, "tasks.bulk", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "operations", request.getOperations().size());
+        return ResponseEntity.ok(taskBulkService.apply(userSid, request));
+    }
+}
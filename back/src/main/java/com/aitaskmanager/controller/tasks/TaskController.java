@@ -1,29 +1,49 @@
 package com.aitaskmanager.controller.tasks;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
 import java.util.List;
-import java.util.TimeZone;
 import java.util.stream.Collectors;
-import java.text.SimpleDateFormat;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.aitaskmanager.repository.dto.tasks.TaskCalendarResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskCloneRequest;
+import com.aitaskmanager.repository.dto.tasks.TaskMoveRequest;
+import com.aitaskmanager.repository.dto.tasks.TaskPatchRequest;
 import com.aitaskmanager.repository.dto.tasks.TaskRequest;
 import com.aitaskmanager.repository.dto.tasks.TaskResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskSearchResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskStatusRequest;
+import com.aitaskmanager.repository.dto.tasks.TaskStatusResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskSummaryResponse;
 import com.aitaskmanager.repository.dto.tasks.TaskTreeResponse;
 import com.aitaskmanager.repository.model.Tasks;
+import com.aitaskmanager.service.holiday.BusinessDayService;
+import com.aitaskmanager.service.tasks.TaskCalendarService;
+import com.aitaskmanager.service.tasks.TaskSearchService;
 import com.aitaskmanager.service.tasks.TaskService;
+import com.aitaskmanager.service.tasks.TaskSummaryService;
 import com.aitaskmanager.util.LogUtil;
 import com.aitaskmanager.util.RequestGuard;
+import com.aitaskmanager.util.TaskUtils;
 
 import jakarta.validation.Valid;
 
@@ -33,10 +53,27 @@ import jakarta.validation.Valid;
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
+
+    /** 応答の日時はすべて東京タイムゾーンで返す */
+    private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+    private static final DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
     
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private BusinessDayService businessDayService;
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @Autowired
+    private TaskCalendarService taskCalendarService;
+
+    @Autowired
+    private TaskSummaryService taskSummaryService;
+
     /**
      * ユーザー名に基づいてタスクを取得するエンドポイント
      *
@@ -48,26 +85,8 @@ public class TaskController {
         Integer userSid = RequestGuard.requireUserSid();
         LogUtil.controller(TaskController.class, "tasks.list", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
         List<Tasks> tasks = taskService.getTasksByUserId(userSid);
-        // すべて東京タイムゾーンで返す
-        SimpleDateFormat dueSdf = new SimpleDateFormat("yyyy/MM/dd");
-        SimpleDateFormat dtSdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-        dueSdf.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
-        dtSdf.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
-        
-        return tasks.stream().map(t -> {
-            TaskResponse dto = new TaskResponse();
-            dto.setId(t.getTaskSid());
-            dto.setUserId(t.getUserSid());
-            dto.setParentTaskId(t.getParentTaskSid());
-            dto.setTitle(t.getTitle());
-            dto.setDescription(t.getDescription());
-            dto.setDueDate(t.getDueDate() != null ? dueSdf.format(t.getDueDate()) : null);
-            dto.setPriority(t.getPriority());
-            dto.setStatus(t.getStatus());
-            dto.setCreatedAt(dtSdf.format(t.getCreatedAt()));
-            dto.setUpdatedAt(dtSdf.format(t.getUpdatedAt()));
-            return dto;
-        }).collect(Collectors.toList());
+        LocalDate today = LocalDate.now(ZONE);
+        return tasks.stream().map(t -> toResponse(t, today)).collect(Collectors.toList());
     }
 
     /**
@@ -83,6 +102,101 @@ public class TaskController {
         return taskService.getTaskTree(userSid);
     }
 
+    /**
+     * タスクをタイトル・説明で検索するエンドポイント（スコア順、cursor で次ページを取得）
+     *
+     * @param q 検索語
+     * @param lang 言語の指定（auto: 検索語から判定 / ja: 日本語向けの部分一致 / simple: 全文検索とあいまい一致）
+     * @param limit 取得件数（1〜100）
+     * @param cursor 前ページの nextCursor（先頭ページは省略）
+     * @param authentication 認証情報
+     * @return 検索結果と次ページのカーソル
+     */
+    @GetMapping("/search")
+    public TaskSearchResponse searchTasks(@RequestParam(name = "q") String q,
+                                          @RequestParam(name = "lang", defaultValue = TaskSearchService.LANG_AUTO) String lang,
+                                          @RequestParam(name = "limit", defaultValue = "20") int limit,
+                                          @RequestParam(name = "cursor", required = false) String cursor,
+                                          Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.search", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        if (limit < 1 || limit > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit は1〜100で指定してください");
+        }
+        LocalDate today = LocalDate.now(ZONE);
+        return taskSearchService.search(userSid, q, lang, limit, cursor, t -> toResponse(t, today));
+    }
+
+    /**
+     * ダッシュボード用の件数（ステータス別・優先度別・期限切れ・今日/3日以内/今週が期限）を取得するエンドポイント
+     *
+     * @param authentication 認証情報
+     * @return 集計結果
+     */
+    @GetMapping("/summary")
+    public TaskSummaryResponse getSummary(Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.summary", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        return taskSummaryService.getSummary(userSid);
+    }
+
+    /**
+     * カレンダー表示用に、期間内の日ごとのタスクIDと件数（ステータス別・優先度別）を取得するエンドポイント
+     *
+     * @param from 期間の開始日（yyyy-MM-dd）
+     * @param to 期間の終了日（yyyy-MM-dd、この日を含む、最大62日間）
+     * @param authentication 認証情報
+     * @return 期限のある日のみの集計
+     */
+    @GetMapping("/calendar")
+    public TaskCalendarResponse getCalendar(@RequestParam(name = "from") String from,
+                                            @RequestParam(name = "to") String to,
+                                            Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.calendar", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        return taskCalendarService.getCalendar(userSid, from, to);
+    }
+
+    /**
+     * ルートタスク（親なし）のみを取得するエンドポイント（子は含めず、直下の子の件数と進捗のみ返す）
+     *
+     * @param limit 取得件数（1〜500）
+     * @param offset 読み飛ばす件数
+     * @param authentication 認証情報
+     * @return ルートタスクのリスト
+     */
+    @GetMapping("/roots")
+    public List<TaskTreeResponse> getRootTasks(@RequestParam(name = "limit", defaultValue = "100") int limit,
+                                               @RequestParam(name = "offset", defaultValue = "0") int offset,
+                                               Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.roots", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        if (limit < 1 || limit > 500 || offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit は1〜500、offset は0以上で指定してください");
+        }
+        return taskService.getRootTasks(userSid, limit, offset);
+    }
+
+    /**
+     * 指定タスクを起点とした部分ツリーを取得するエンドポイント（ノードの遅延展開用）
+     *
+     * @param id 起点のタスクID
+     * @param depth 起点から何階層下まで返すか（0で起点のみ、既定は1=直下の子まで）
+     * @param authentication 認証情報
+     * @return 起点のノード（下端のノードは children が空で childCount に子の件数）
+     */
+    @GetMapping("/{id}/subtree")
+    public TaskTreeResponse getSubtree(@PathVariable("id") int id,
+                                       @RequestParam(name = "depth", defaultValue = "1") int depth,
+                                       Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.subtree", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
+        if (depth < 0 || depth > TaskService.MAX_SUBTREE_DEPTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "depth は0〜" + TaskService.MAX_SUBTREE_DEPTH + "で指定してください");
+        }
+        return taskService.getSubtree(userSid, id, depth);
+    }
+
     /**
      * タスクを作成するエンドポイント
      * 
@@ -95,24 +209,7 @@ public class TaskController {
         Integer userSid = RequestGuard.requireUserSid();
         LogUtil.controller(TaskController.class, "tasks.create", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
         Tasks t = taskService.createTask(userSid, request);
-        // すべて東京タイムゾーンで返す（GETと同様のフォーマット）
-        SimpleDateFormat dueSdf = new SimpleDateFormat("yyyy/MM/dd");
-        SimpleDateFormat dtSdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-        dueSdf.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
-        dtSdf.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
-
-        TaskResponse dto = new TaskResponse();
-        dto.setId(t.getTaskSid());
-        dto.setUserId(t.getUserSid());
-        dto.setParentTaskId(t.getParentTaskSid());
-        dto.setTitle(t.getTitle());
-        dto.setDescription(t.getDescription());
-        dto.setDueDate(t.getDueDate() != null ? dueSdf.format(t.getDueDate()) : null);
-        dto.setPriority(t.getPriority());
-        dto.setStatus(t.getStatus());
-        dto.setCreatedAt(dtSdf.format(t.getCreatedAt()));
-        dto.setUpdatedAt(dtSdf.format(t.getUpdatedAt()));
-        return dto;
+        return toResponse(t);
     }
 
     /**
@@ -126,26 +223,73 @@ public class TaskController {
     @PutMapping("/{id}")
     public ResponseEntity<TaskResponse> updateTask(@PathVariable("id") int id, @Valid @RequestBody TaskRequest request, Authentication authentication) {
         Integer userSid = RequestGuard.requireUserSid();
-        LogUtil.controller(TaskController.class, "tasks.update id=" + id, userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        LogUtil.controller(TaskController.class, "tasks.update", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
         Tasks t = taskService.updateTask(id, request, userSid);
-        // DTOへマッピング（GETと同様のフォーマット）
-        SimpleDateFormat dueSdf = new SimpleDateFormat("yyyy/MM/dd");
-        SimpleDateFormat dtSdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-        dueSdf.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
-        dtSdf.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
+        return ResponseEntity.ok(toResponse(t));
+    }
 
-        TaskResponse dto = new TaskResponse();
-        dto.setId(t.getTaskSid());
-        dto.setUserId(t.getUserSid());
-        dto.setParentTaskId(t.getParentTaskSid());
-        dto.setTitle(t.getTitle());
-        dto.setDescription(t.getDescription());
-        dto.setDueDate(t.getDueDate() != null ? dueSdf.format(t.getDueDate()) : null);
-        dto.setPriority(t.getPriority());
-        dto.setStatus(t.getStatus());
-        dto.setCreatedAt(dtSdf.format(t.getCreatedAt()));
-        dto.setUpdatedAt(dtSdf.format(t.getUpdatedAt()));
-        return ResponseEntity.ok(dto);
+    /**
+     * タスクを部分更新するエンドポイント（送られた項目だけを更新する）
+     *
+     * @param id タスクID
+     * @param request 部分更新リクエスト
+     * @param authentication 認証情報
+     * @return 更新されたタスク
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<TaskResponse> patchTask(@PathVariable("id") int id, @Valid @RequestBody TaskPatchRequest request, Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.patch", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
+        Tasks t = taskService.patchTask(id, request, userSid);
+        return ResponseEntity.ok(toResponse(t));
+    }
+
+    /**
+     * タスクのステータスのみを更新するエンドポイント（完了チェックの切り替え用、応答も最小限）
+     *
+     * @param id タスクID
+     * @param request ステータス更新リクエスト
+     * @param authentication 認証情報
+     * @return 更新後のステータスと更新日時
+     */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<TaskStatusResponse> updateStatus(@PathVariable("id") int id, @Valid @RequestBody TaskStatusRequest request, Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.status", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
+        Tasks t = taskService.updateTaskStatus(id, request.getStatus(), userSid);
+        return ResponseEntity.ok(new TaskStatusResponse(t.getTaskSid(), t.getStatus(), formatDateTime(t.getUpdatedAt())));
+    }
+
+    /**
+     * タスクを配下ごと別の親の下（またはルート）へ移動するエンドポイント
+     *
+     * @param id 移動するタスクID
+     * @param request 移動先の親タスクID（nullでルートへ移動）
+     * @param authentication 認証情報
+     * @return 移動後のタスク
+     */
+    @PostMapping("/{id}/move")
+    public ResponseEntity<TaskResponse> moveTask(@PathVariable("id") int id, @RequestBody TaskMoveRequest request, Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.move", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
+        Integer parentId = request.getParent_task_id() != null ? request.getParent_task_id() : request.getParentTaskId();
+        Tasks t = taskService.moveTask(id, parentId, userSid);
+        return ResponseEntity.ok(toResponse(t));
+    }
+
+    /**
+     * タスクを配下ごと複製するエンドポイント（既存のサブツリーをテンプレートとして再利用する）
+     *
+     * @param id 複製元のタスクID
+     * @param request 複製先の親・期限日の基準日など
+     * @param authentication 認証情報
+     * @return 複製したタスクを起点とする部分ツリー
+     */
+    @PostMapping("/{id}/clone")
+    public TaskTreeResponse cloneTask(@PathVariable("id") int id, @Valid @RequestBody TaskCloneRequest request, Authentication authentication) {
+        Integer userSid = RequestGuard.requireUserSid();
+        LogUtil.controller(TaskController.class, "tasks.clone", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
+        return taskService.cloneTask(id, request, userSid);
     }
 
     /**
@@ -154,12 +298,12 @@ public class TaskController {
      * @param id タスクID
      * @param request タスク再細分化リクエスト
      * @param authentication 認証情報
-     * @return 再細分化されたタスクツリーのリスト
+     * @return 再細分化したタスクを起点とする部分ツリー（1件のリスト）
      */
     @PostMapping("/{id}/redecompose")
     public List<TaskTreeResponse> redecompose(@PathVariable("id") int id, @RequestBody TaskRequest request, Authentication authentication) {
         Integer userSid = RequestGuard.requireUserSid();
-        LogUtil.controller(TaskController.class, "tasks.redecompose id=" + id, userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        LogUtil.controller(TaskController.class, "tasks.redecompose", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
         return taskService.redecomposeTask(userSid, id, request);
     }
 
@@ -172,7 +316,7 @@ public class TaskController {
     @PostMapping("/{id}/decompose")
     public List<TaskTreeResponse> decompose(@PathVariable int id, @RequestBody TaskRequest request, Authentication authentication) {
         Integer userSid = RequestGuard.requireUserSid();
-        LogUtil.controller(TaskController.class, "tasks.decompose id=" + id, userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        LogUtil.controller(TaskController.class, "tasks.decompose", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
         return taskService.redecomposeTask(userSid, id, request);
     }
 
@@ -185,7 +329,7 @@ public class TaskController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable("id") int id, Authentication authentication) {
         Integer userSid = RequestGuard.requireUserSid();
-        LogUtil.controller(TaskController.class, "tasks.delete id=" + id, userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        LogUtil.controller(TaskController.class, "tasks.delete", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
         taskService.deleteTask(id, userSid);
         return ResponseEntity.noContent().build();
     }
@@ -196,9 +340,45 @@ public class TaskController {
     @DeleteMapping("/{id}/children")
     public ResponseEntity<Void> deleteChildren(@PathVariable("id") int id, Authentication authentication) {
         Integer userSid = RequestGuard.requireUserSid();
-        LogUtil.controller(TaskController.class, "tasks.delete-children id=" + id, userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked");
+        LogUtil.controller(TaskController.class, "tasks.delete-children", userSid, authentication != null ? com.aitaskmanager.security.AuthUtils.getUserId(authentication) : null, "invoked", "id", id);
         taskService.deleteChildrenOnly(id, userSid);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * タスクを応答DTOへ変換する（基準日は現在の東京の日付）
+     *
+     * @param t タスク
+     * @return 応答DTO
+     */
+    private TaskResponse toResponse(Tasks t) {
+        return toResponse(t, LocalDate.now(ZONE));
+    }
+
+    /**
+     * タスクを応答DTOへ変換する（一覧では基準日を1回だけ求めて渡す）
+     *
+     * @param t タスク
+     * @param today 残り営業日数の基準日
+     * @return 応答DTO
+     */
+    private TaskResponse toResponse(Tasks t, LocalDate today) {
+        TaskResponse dto = new TaskResponse();
+        dto.setId(t.getTaskSid());
+        dto.setUserId(t.getUserSid());
+        dto.setParentTaskId(t.getParentTaskSid());
+        dto.setTitle(t.getTitle());
+        dto.setDescription(t.getDescription());
+        dto.setDueDate(t.getDueDate() != null ? TaskUtils.toLocalDate(t.getDueDate()).format(DUE_DATE_FORMAT) : null);
+        dto.setPriority(t.getPriority());
+        dto.setStatus(t.getStatus());
+        dto.setCreatedAt(formatDateTime(t.getCreatedAt()));
+        dto.setUpdatedAt(formatDateTime(t.getUpdatedAt()));
+        dto.setBusinessDaysRemaining(businessDayService.remainingUntilOrNull(today, t.getDueDate()));
+        return dto;
+    }
+
+    private static String formatDateTime(Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZONE).format(DATE_TIME_FORMAT);
+    }
 }
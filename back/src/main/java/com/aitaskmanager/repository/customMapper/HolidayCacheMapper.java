@@ -0,0 +1,31 @@
+package com.aitaskmanager.repository.customMapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.aitaskmanager.repository.dto.holiday.HolidayCacheEntry;
+
+/**
+ * 祝日キャッシュ（holiday_cache）テーブルに対するカスタムマッパー
+ */
+@Mapper
+public interface HolidayCacheMapper {
+
+    /**
+     * 国コードと年で祝日キャッシュを取得する
+     *
+     * @param countryCode 国コード
+     * @param year 年
+     * @return 祝日キャッシュ（存在しない場合はNULL）
+     */
+    HolidayCacheEntry selectByCountryAndYear(@Param("countryCode") String countryCode,
+                                             @Param("year") int year);
+
+    /**
+     * 祝日キャッシュを登録または更新する
+     *
+     * @param entry 祝日キャッシュ
+     * @return 更新件数
+     */
+    int upsert(HolidayCacheEntry entry);
+}
@@ -10,15 +10,7 @@ import org.apache.ibatis.annotations.Param;
 public interface PaymentsCustomMapper {
 
     /**
-     * 支払いIDで支払い情報の存在を確認する
-     * 
-     * @param paymentId 支払いID
-     * @return 存在する場合は1、存在しない場合は0
-     */
-    int existsByPaymentId(@Param("paymentId") String paymentId);
-
-    /**
-     * 支払い情報を挿入する
+     * 支払い情報を挿入する（同じ支払いIDが既にある場合は何もしない）
      * 
      * @param userSid ユーザーSID
      * @param amount 金額
@@ -26,7 +18,7 @@ public interface PaymentsCustomMapper {
      * @param paymentMethod 支払い方法
      * @param paymentId 支払いID
      * @param status 支払いステータス
-     * @return 挿入された行数
+     * @return 挿入された行数（既に存在する場合は0）
      */
     int insertPayment(@Param("userSid") int userSid,
                       @Param("amount") double amount,
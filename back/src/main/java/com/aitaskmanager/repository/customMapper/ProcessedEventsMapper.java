@@ -0,0 +1,21 @@
+package com.aitaskmanager.repository.customMapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 処理済みStripeイベント（stripe_processed_events）に対するカスタムマッパー
+ */
+@Mapper
+public interface ProcessedEventsMapper {
+
+    /**
+     * イベントを処理済みとして登録する（既に登録済みの場合は何もしない）
+     * 呼び出し元のトランザクション内で実行し、処理が失敗した場合は登録も取り消されるようにする
+     *
+     * @param eventId StripeイベントID
+     * @param eventType イベント種別
+     * @return 登録できた場合は1、既に処理済みの場合は0
+     */
+    int claim(@Param("eventId") String eventId, @Param("eventType") String eventType);
+}
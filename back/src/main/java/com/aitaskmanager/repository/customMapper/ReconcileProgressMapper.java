@@ -0,0 +1,29 @@
+package com.aitaskmanager.repository.customMapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.aitaskmanager.repository.dto.subscription.ReconcileProgress;
+
+/**
+ * リコンシリエーション進捗（reconciliation_progress）に対するカスタムマッパー
+ */
+@Mapper
+public interface ReconcileProgressMapper {
+
+    /**
+     * ジョブの進捗を取得する
+     *
+     * @param jobName ジョブ名
+     * @return 進捗（無い場合はNULL）
+     */
+    ReconcileProgress selectByJobName(@Param("jobName") String jobName);
+
+    /**
+     * ジョブの進捗を登録・更新する
+     *
+     * @param progress 進捗
+     * @return 更新された行数
+     */
+    int upsert(ReconcileProgress progress);
+}
@@ -7,6 +7,9 @@ import java.util.Map;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import com.aitaskmanager.repository.dto.subscription.ReconcileTarget;
+import com.aitaskmanager.repository.dto.subscription.ReconcileUpdate;
+
 /**
  * Subscriptionsテーブルに対するカスタムマッパー
  */
@@ -76,6 +79,23 @@ public interface SubscriptionsCustomMapper {
      */
     List<Map<String, Object>> selectActiveWithStripeId();
 
+    /**
+     * リコンシリエーション用: Stripe購読IDを持つACTIVE契約を subscription_sid 順に取得する（キーセットページング）
+     *
+     * @param afterSid この subscription_sid より大きいものを対象とする
+     * @param limit 最大件数
+     * @return 対象契約のリスト
+     */
+    List<ReconcileTarget> selectActiveWithStripeIdAfter(@Param("afterSid") int afterSid, @Param("limit") int limit);
+
+    /**
+     * リコンシリエーション結果をまとめて反映する（UPDATE ... FROM (VALUES ...)）
+     *
+     * @param updates 更新内容のリスト（空でないこと）
+     * @return 更新件数
+     */
+    int batchReconcile(@Param("updates") List<ReconcileUpdate> updates);
+
     /**
      * ユーザーのACTIVEサブスクリプションをCANCELLEDへ更新する
      * 
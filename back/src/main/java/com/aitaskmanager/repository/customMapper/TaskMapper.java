@@ -5,6 +5,11 @@ import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import com.aitaskmanager.repository.dto.tasks.TaskCalendarRow;
+import com.aitaskmanager.repository.dto.tasks.TaskMoveCheck;
+import com.aitaskmanager.repository.dto.tasks.TaskSearchRow;
+import com.aitaskmanager.repository.dto.tasks.TaskSummaryRow;
+import com.aitaskmanager.repository.dto.tasks.TaskWithRollup;
 import com.aitaskmanager.repository.model.Tasks;
 
 /**
@@ -55,6 +60,14 @@ public interface TaskMapper {
      */
     int insert(Tasks task);
 
+    /**
+     * タスクを挿入し、作成された行を返す（再取得不要）
+     *
+     * @param task タスクオブジェクト
+     * @return 作成されたタスク（task_sid, created_at, updated_at を含む）
+     */
+    Tasks insertReturning(Tasks task);
+
     /**
      * タスクを更新する
      * 
@@ -63,6 +76,36 @@ public interface TaskMapper {
       */
     int update(Tasks task);
 
+    /**
+     * 本人のタスクを更新し、更新後の行を返す（親子関係は変更しない）
+     *
+     * @param task タスクオブジェクト（taskSid, userSid で対象を特定）
+     * @return 更新後のタスク（対象が存在しないか本人のものでない場合はNULL）
+     */
+    Tasks updateReturning(Tasks task);
+
+    /**
+     * null でない項目だけを更新し、更新後の行を返す
+     *
+     * @param task 更新内容（taskSid, userSid で対象を特定）
+     * @param clearDueDate 期限日を空にする場合はtrue
+     * @return 更新後のタスク（対象が存在しないか本人のものでない場合はNULL）
+     */
+    Tasks updatePartialReturning(@Param("task") Tasks task,
+                                 @Param("clearDueDate") boolean clearDueDate);
+
+    /**
+     * ステータスのみを更新する（値が変わらない場合は書き込まない）
+     *
+     * @param taskSid タスクSID
+     * @param userSid ユーザーSID
+     * @param status ステータス
+     * @return task_sid, parent_task_sid, status, updated_at のみを持つタスク（対象なし・変更なしの場合はNULL）
+     */
+    Tasks updateStatusReturning(@Param("taskSid") Integer taskSid,
+                                @Param("userSid") Integer userSid,
+                                @Param("status") String status);
+
     /**
      * 親タスクの細分化日時更新
      * 
@@ -100,4 +143,215 @@ public interface TaskMapper {
     int deleteByIds(@Param("userSid") Integer userSid,
                     @Param("taskSids") List<Integer> taskSids);
 
+    /**
+     * 本人のタスクのステータスを一括更新する（値が変わるものだけ書き込む）
+     *
+     * @param userSid ユーザーSID
+     * @param taskSids タスクSID群
+     * @param status ステータス
+     * @return 更新したタスク（task_sid, parent_task_sid のみ）
+     */
+    List<Tasks> bulkUpdateStatus(@Param("userSid") Integer userSid,
+                                @Param("taskSids") Integer[] taskSids,
+                                @Param("status") String status);
+
+    /**
+     * 本人のタスクの優先度を一括更新する（値が変わるものだけ書き込む）
+     *
+     * @param userSid ユーザーSID
+     * @param taskSids タスクSID群
+     * @param priority 優先度
+     * @return 更新したタスク（task_sid, parent_task_sid のみ）
+     */
+    List<Tasks> bulkUpdatePriority(@Param("userSid") Integer userSid,
+                                  @Param("taskSids") Integer[] taskSids,
+                                  @Param("priority") String priority);
+
+    /**
+     * 本人のタスクの期限日を一括更新する（値が変わるものだけ書き込む）
+     *
+     * @param userSid ユーザーSID
+     * @param taskSids タスクSID群
+     * @param dueDate 期限日（NULLで期限なし）
+     * @return 更新したタスク（task_sid, parent_task_sid のみ）
+     */
+    List<Tasks> bulkUpdateDueDate(@Param("userSid") Integer userSid,
+                                 @Param("taskSids") Integer[] taskSids,
+                                 @Param("dueDate") java.sql.Date dueDate);
+
+    /**
+     * 本人のタスクとその配下（子・孫以降）を1文で削除する
+     *
+     * @param userSid ユーザーSID
+     * @param taskSids タスクSID群
+     * @return 削除したタスク（配下を含む、task_sid, parent_task_sid のみ）
+     */
+    List<Tasks> bulkDeleteSubtrees(@Param("userSid") Integer userSid,
+                                  @Param("taskSids") Integer[] taskSids);
+
+    /**
+     * 指定したタスクSID群のうち、本人のタスクとして存在するものを取得する
+     *
+     * @param userSid ユーザーSID
+     * @param taskSids タスクSID群
+     * @return 存在するタスクSID
+     */
+    List<Integer> selectExistingIds(@Param("userSid") Integer userSid,
+                                    @Param("taskSids") Integer[] taskSids);
+
+    /**
+     * ユーザーのタスクを集計列（子孫数・完了数・未完了の子孫の最早期限）付きで取得する
+     *
+     * @param userSid ユーザーSID
+     * @return 集計列付きのタスクのリスト
+     */
+    List<TaskWithRollup> selectWithRollupByUserSid(@Param("userSid") Integer userSid);
+
+    /**
+     * 指定タスクを起点に depth 階層下までを集計列・直下の子の件数付きで取得する
+     *
+     * @param userSid ユーザーSID
+     * @param taskSid 起点のタスクSID
+     * @param depth 起点から何階層下まで取得するか（0で起点のみ）
+     * @return 起点と配下のタスク（浅い順、起点が存在しない場合は空）
+     */
+    List<TaskWithRollup> selectSubtreeWithRollup(@Param("userSid") Integer userSid,
+                                                 @Param("taskSid") Integer taskSid,
+                                                 @Param("depth") int depth);
+
+    /**
+     * ルートタスク（親なし）のみを集計列・直下の子の件数付きで取得する
+     *
+     * @param userSid ユーザーSID
+     * @param limit 取得件数
+     * @param offset 読み飛ばす件数
+     * @return ルートタスク（task_sid 順）
+     */
+    List<TaskWithRollup> selectRootsWithRollup(@Param("userSid") Integer userSid,
+                                               @Param("limit") int limit,
+                                               @Param("offset") int offset);
+
+    /**
+     * 指定タスクの集計列を直下の子から計算し直す（値が変わった行だけ書き込む）
+     *
+     * @param userSid ユーザーSID
+     * @param taskSids 計算し直すタスクSID群
+     * @return 値が変わったタスクの親タスクSID（ルートの場合はNULLを含む）
+     */
+    List<Integer> refreshRollups(@Param("userSid") Integer userSid,
+                                 @Param("taskSids") Integer[] taskSids);
+
+    /**
+     * タスクを持つユーザーのSIDを取得する（集計列の修復用）
+     *
+     * @return ユーザーSID（昇順）
+     */
+    List<Integer> selectUserSidsWithTasks();
+
+    /**
+     * 指定ユーザーの全タスクの集計列を子孫全体から計算し直す（ずれの修復用）
+     *
+     * @param userSid ユーザーSID
+     * @return 修復した行数
+     */
+    int repairAllRollups(@Param("userSid") Integer userSid);
+
+    /**
+     * 同一ユーザーの階層を変える操作（移動・複製・子の作成）と集計列を計算し直す書き込みを直列化するロックを取得する（トランザクション終了で解放）
+     *
+     * @param namespace ロックの名前空間
+     * @param userSid ユーザーSID
+     * @return 常に1（ロック取得の完了のみを示す）
+     */
+    int lockUserTaskTree(@Param("namespace") int namespace,
+                         @Param("userSid") Integer userSid);
+
+    /**
+     * タスク移動・複製の事前検証（存在・循環・移動後の深さ・件数）を1文で取得する
+     *
+     * @param userSid ユーザーSID
+     * @param taskSid 移動するタスクSID
+     * @param parentTaskSid 移動先の親タスクSID（NULLでルートへ移動）
+     * @return 検証結果
+     */
+    TaskMoveCheck selectMoveCheck(@Param("userSid") Integer userSid,
+                                  @Param("taskSid") Integer taskSid,
+                                  @Param("parentTaskSid") Integer parentTaskSid);
+
+    /**
+     * 親タスクを付け替え、更新後の行を返す
+     *
+     * @param userSid ユーザーSID
+     * @param taskSid 移動するタスクSID
+     * @param parentTaskSid 移動先の親タスクSID（NULLでルートへ移動）
+     * @return 更新後のタスク（対象が存在しない場合はNULL）
+     */
+    Tasks updateParentReturning(@Param("userSid") Integer userSid,
+                                @Param("taskSid") Integer taskSid,
+                                @Param("parentTaskSid") Integer parentTaskSid);
+
+    /**
+     * サブツリーを1文で複製する（SIDを振り直し、親子関係を新しいSIDで組み直す）
+     *
+     * @param userSid ユーザーSID
+     * @param taskSid 複製元の起点タスクSID
+     * @param parentTaskSid 複製先の親タスクSID（NULLでルートに複製）
+     * @param title 複製した起点のタイトル（NULLで元のタイトル）
+     * @param dueDateAnchor 期限日の基準日（NULLで期限日をそのまま複製）
+     * @param keepStatus ステータスを引き継ぐ場合はtrue（falseですべて TODO）
+     * @return 作成したタスク（task_sid, parent_task_sid のみ）
+     */
+    List<Tasks> cloneSubtree(@Param("userSid") Integer userSid,
+                             @Param("taskSid") Integer taskSid,
+                             @Param("parentTaskSid") Integer parentTaskSid,
+                             @Param("title") String title,
+                             @Param("dueDateAnchor") java.sql.Date dueDateAnchor,
+                             @Param("keepStatus") boolean keepStatus);
+
+    /**
+     * 本人のタスクをタイトル・説明で検索する（スコアの高い順、キーセット方式のページング）
+     *
+     * @param userSid ユーザーSID
+     * @param query 検索語（正規化済み）
+     * @param japanese 日本語向けの部分一致で検索する場合はtrue
+     * @param patterns 日本語向け検索で AND 条件にする ILIKE パターン（エスケープ済み）
+     * @param afterRank 前ページ最後の行のスコア（先頭ページはNULL）
+     * @param afterTaskSid 前ページ最後の行のタスクSID（先頭ページはNULL）
+     * @param limit 取得件数
+     * @return スコア付きのタスク
+     */
+    List<TaskSearchRow> searchTasks(@Param("userSid") Integer userSid,
+                                    @Param("query") String query,
+                                    @Param("japanese") boolean japanese,
+                                    @Param("patterns") List<String> patterns,
+                                    @Param("afterRank") Double afterRank,
+                                    @Param("afterTaskSid") Integer afterTaskSid,
+                                    @Param("limit") int limit);
+
+    /**
+     * 期限日が期間内のタスクを期限日・ステータス・優先度ごとに集計する（(user_sid, due_date) の索引で範囲検索する）
+     *
+     * @param userSid ユーザーSID
+     * @param from 期間の開始日
+     * @param to 期間の終了日（この日を含む）
+     * @return 期限日の昇順の集計行
+     */
+    List<TaskCalendarRow> selectCalendar(@Param("userSid") Integer userSid,
+                                         @Param("from") java.sql.Date from,
+                                         @Param("to") java.sql.Date to);
+
+    /**
+     * ダッシュボード用に、ステータス別・優先度別・全体の件数と期限の件数を1回の GROUPING SETS で集計する
+     *
+     * @param userSid ユーザーSID
+     * @param today 基準日
+     * @param soonEnd 「期限が近い」の最終日
+     * @param weekEnd 「今週」の最終日
+     * @return 集計行（ステータス別・優先度別・全体）
+     */
+    List<TaskSummaryRow> selectSummary(@Param("userSid") Integer userSid,
+                                       @Param("today") java.sql.Date today,
+                                       @Param("soonEnd") java.sql.Date soonEnd,
+                                       @Param("weekEnd") java.sql.Date weekEnd);
+
 }
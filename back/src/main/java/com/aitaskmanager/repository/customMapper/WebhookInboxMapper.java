@@ -0,0 +1,70 @@
+package com.aitaskmanager.repository.customMapper;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.aitaskmanager.repository.dto.billing.WebhookInboxEvent;
+
+/**
+ * Stripeウェブフック受信箱（stripe_webhook_inbox）に対するカスタムマッパー
+ */
+@Mapper
+public interface WebhookInboxMapper {
+
+    /**
+     * 受信イベントを登録する（同じイベントIDが既にある場合は何もしない）
+     *
+     * @param event 受信イベント
+     * @return 登録された行数（重複の場合は0）
+     */
+    int insertIfAbsent(WebhookInboxEvent event);
+
+    /**
+     * 処理対象のイベントを取得し PROCESSING に更新する。
+     * 順序保証キーごとに最も古い未完了イベントのみを対象とし、同じキーの後続イベントは先行イベントの完了まで取得しない。
+     *
+     * @param limit 最大件数
+     * @return 取得したイベントのリスト
+     */
+    List<WebhookInboxEvent> claimBatch(@Param("limit") int limit);
+
+    /**
+     * イベントを処理完了にする
+     *
+     * @param eventId イベントID
+     * @return 更新された行数
+     */
+    int markDone(@Param("eventId") String eventId);
+
+    /**
+     * イベントを再試行待ちに戻す
+     *
+     * @param eventId イベントID
+     * @param nextAttemptAt 次回処理可能日時
+     * @param lastError エラー内容
+     * @return 更新された行数
+     */
+    int markRetry(@Param("eventId") String eventId,
+                  @Param("nextAttemptAt") Date nextAttemptAt,
+                  @Param("lastError") String lastError);
+
+    /**
+     * イベントを処理不能（再試行上限超過）にする
+     *
+     * @param eventId イベントID
+     * @param lastError エラー内容
+     * @return 更新された行数
+     */
+    int markDead(@Param("eventId") String eventId, @Param("lastError") String lastError);
+
+    /**
+     * 一定時間以上 PROCESSING のまま残ったイベント（処理中の停止など）を PENDING に戻す
+     *
+     * @param lockedBefore この日時より前にロックされたものを対象とする
+     * @return 更新された行数
+     */
+    int releaseStale(@Param("lockedBefore") Date lockedBefore);
+}
@@ -36,4 +36,30 @@ public class TaskBreakdownDTO {
         /** サブタスクのリスト */
         public List<SubTask> children;
     }
+
+    /** 一括細分化リクエストDTO */
+    public static class BatchRequest {
+        /** 細分化する親タスクのリスト */
+        public List<Request> items;
+    }
+
+    /** 一括細分化の親タスク単位の結果DTO */
+    public static class BatchItem {
+        /** リクエスト内の位置（0始まり） */
+        public int index;
+        /** 警告メッセージ（あれば） */
+        public String warning;
+        /** エラーメッセージ（失敗時のみ） */
+        public String error;
+        /** サブタスクのリスト */
+        public List<SubTask> children;
+    }
+
+    /** 一括細分化レスポンスDTO */
+    public static class BatchResponse {
+        /** 全体の警告メッセージ（あれば） */
+        public String warning;
+        /** 親タスクごとの結果（リクエストと同順） */
+        public List<BatchItem> results;
+    }
 }
@@ -0,0 +1,34 @@
+package com.aitaskmanager.repository.dto.billing;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * Stripeウェブフック受信箱テーブル（stripe_webhook_inbox）の1行を表すDTO
+ */
+@Data
+public class WebhookInboxEvent {
+    /** StripeイベントID */
+    private String eventId;
+    /** イベント種別 */
+    private String eventType;
+    /** 順序保証キー（StripeカスタマーID、無い場合はイベントID） */
+    private String orderingKey;
+    /** イベント作成日時（Stripe側、UNIX秒） */
+    private Long eventCreated;
+    /** 受信したペイロード（署名検証済みの生JSON） */
+    private String payload;
+    /** 処理状態（PENDING / PROCESSING / DONE / DEAD） */
+    private String status;
+    /** 処理試行回数 */
+    private Integer attempts;
+    /** 次回処理可能日時 */
+    private Date nextAttemptAt;
+    /** 最後のエラー内容 */
+    private String lastError;
+    /** 受信日時 */
+    private Date receivedAt;
+    /** 処理完了日時 */
+    private Date processedAt;
+}
@@ -0,0 +1,20 @@
+package com.aitaskmanager.repository.dto.holiday;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * 祝日キャッシュテーブル（holiday_cache）の1行を表すDTO
+ */
+@Data
+public class HolidayCacheEntry {
+    /** 国コード */
+    private String countryCode;
+    /** 年 */
+    private Integer year;
+    /** 祝日リスト（Nager.Date API レスポンスのJSON） */
+    private String holidaysJson;
+    /** 外部APIから取得した日時 */
+    private Date fetchedAt;
+}
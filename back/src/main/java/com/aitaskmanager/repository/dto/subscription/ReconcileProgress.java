@@ -0,0 +1,28 @@
+package com.aitaskmanager.repository.dto.subscription;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * リコンシリエーションの進捗（reconciliation_progress）DTO
+ */
+@Data
+public class ReconcileProgress {
+    /** ジョブ名 */
+    private String jobName;
+    /** 処理済みの最後のサブスクリプションSID（キーセットページングの位置） */
+    private Integer lastSid;
+    /** 処理件数 */
+    private Integer processed;
+    /** 更新件数 */
+    private Integer updated;
+    /** 失敗件数 */
+    private Integer failed;
+    /** 実行開始日時 */
+    private Date startedAt;
+    /** 最終更新日時 */
+    private Date updatedAt;
+    /** 完了日時（実行中・中断時はNULL） */
+    private Date finishedAt;
+}
@@ -0,0 +1,16 @@
+package com.aitaskmanager.repository.dto.subscription;
+
+import lombok.Data;
+
+/**
+ * リコンシリエーション対象のACTIVE契約DTO
+ */
+@Data
+public class ReconcileTarget {
+    /** サブスクリプションSID */
+    private Integer subscriptionSid;
+    /** ユーザーSID */
+    private Integer userSid;
+    /** StripeサブスクリプションID */
+    private String stripeSubscriptionId;
+}
@@ -0,0 +1,22 @@
+package com.aitaskmanager.repository.dto.subscription;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * リコンシリエーション結果としてローカルに反映する更新内容DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconcileUpdate {
+    /** StripeサブスクリプションID */
+    private String stripeSubscriptionId;
+    /** CANCELLED にする場合はtrue（false の場合は expires_at のみ更新） */
+    private boolean cancel;
+    /** 設定する expires_at */
+    private Timestamp expiresAt;
+}
@@ -0,0 +1,27 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * タスク一括操作のタスクごとの結果
+ */
+@Data
+@AllArgsConstructor
+public class TaskBulkItemResult {
+    /** 更新した */
+    public static final String UPDATED = "UPDATED";
+    /** 値が同じため書き込まなかった */
+    public static final String UNCHANGED = "UNCHANGED";
+    /** 削除した（配下のタスクも削除される） */
+    public static final String DELETED = "DELETED";
+    /** 存在しないか本人のタスクでない */
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    /** タスクID */
+    private Integer id;
+    /** 操作の種類 */
+    private String op;
+    /** 結果 */
+    private String result;
+}
@@ -0,0 +1,26 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * タスク一括操作の1件分（同じ操作を複数のタスクへ適用する）
+ */
+@Data
+public class TaskBulkOperation {
+    /** 操作の種類: status / priority / due_date / delete */
+    @NotNull(message = "操作の種類は必須です")
+    @Pattern(regexp = "^(status|priority|due_date|delete)$", message = "操作の種類が不正です")
+    private String op;
+    /** 対象のタスクID */
+    @NotEmpty(message = "対象のタスクIDは必須です")
+    @Size(max = 1000, message = "一度に指定できるタスクは1000件までです")
+    private List<@NotNull Integer> ids;
+    /** 設定する値（status: TODO/DOING/DONE, priority: HIGH/NORMAL/LOW, due_date: yyyy-MM-dd または空文字、delete では不要） */
+    private String value;
+}
@@ -0,0 +1,20 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * タスク一括操作リクエストのDTO（操作は配列の順に1トランザクションで適用する）
+ */
+@Data
+public class TaskBulkRequest {
+    /** 操作の一覧 */
+    @NotEmpty(message = "操作は必須です")
+    @Size(max = 20, message = "一度に指定できる操作は20件までです")
+    @Valid
+    private List<TaskBulkOperation> operations;
+}
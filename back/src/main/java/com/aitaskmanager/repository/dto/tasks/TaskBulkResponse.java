@@ -0,0 +1,24 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * タスク一括操作レスポンス用DTO
+ */
+@Data
+public class TaskBulkResponse {
+    /** タスクごとの結果（操作順・指定順） */
+    private List<TaskBulkItemResult> results;
+    /** 更新したタスク数 */
+    private int updated;
+    /** 値が同じため書き込まなかったタスク数 */
+    private int unchanged;
+    /** 削除を指定して削除したタスク数 */
+    private int deleted;
+    /** 削除したタスクの配下として一緒に削除したタスク数 */
+    private int deletedDescendants;
+    /** 存在しないか本人のものでなかったタスク数 */
+    private int notFound;
+}
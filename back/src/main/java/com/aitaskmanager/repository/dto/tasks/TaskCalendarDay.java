@@ -0,0 +1,25 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * カレンダーの1日分の集計
+ */
+@Data
+public class TaskCalendarDay {
+    /** 日付（yyyy-MM-dd） */
+    private String date;
+    /** その日が期限のタスク数 */
+    private int total;
+    /** その日が期限のタスクID（昇順） */
+    private List<Integer> taskIds = new ArrayList<>();
+    /** ステータスごとの件数 */
+    private Map<String, Integer> byStatus = new LinkedHashMap<>();
+    /** 優先度ごとの件数 */
+    private Map<String, Integer> byPriority = new LinkedHashMap<>();
+}
@@ -0,0 +1,20 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * カレンダー集計レスポンス用DTO（期限のある日のみ、日付の昇順）
+ */
+@Data
+@AllArgsConstructor
+public class TaskCalendarResponse {
+    /** 期間の開始日（yyyy-MM-dd） */
+    private String from;
+    /** 期間の終了日（yyyy-MM-dd、この日を含む） */
+    private String to;
+    /** 日ごとの集計 */
+    private List<TaskCalendarDay> days;
+}
@@ -0,0 +1,20 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import lombok.Data;
+
+/**
+ * カレンダー集計の1行（期限日×ステータス×優先度ごとの件数とタスクSID）
+ */
+@Data
+public class TaskCalendarRow {
+    /** 期限日（yyyy-MM-dd） */
+    private String dueDate;
+    /** ステータス */
+    private String status;
+    /** 優先度 */
+    private String priority;
+    /** 件数 */
+    private int taskCount;
+    /** タスクSID（昇順） */
+    private Integer[] taskSids;
+}
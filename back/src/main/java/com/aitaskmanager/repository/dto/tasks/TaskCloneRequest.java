@@ -0,0 +1,27 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * タスク複製（サブツリーのディープコピー）リクエストのDTO。
+ * 既存のサブツリーをテンプレートとして使う場合は dueDateAnchor で期限日をずらして複製する。
+ */
+@Data
+public class TaskCloneRequest {
+    /** 複製先の親タスクID（snake_case、nullでルートに複製） */
+    private Integer parent_task_id;
+    /** 複製先の親タスクID（camelCase、nullでルートに複製） */
+    private Integer parentTaskId;
+    /** 複製した起点タスクのタイトル（null の場合は元のタイトル） */
+    private String title;
+    /**
+     * 期限日の基準日: yyyy-MM-dd 形式。
+     * 指定時は起点の期限日（なければ配下で最も早い期限日）がこの日になるよう、全タスクの期限日を同じ日数だけずらす。
+     * null の場合は期限日をそのまま複製する。
+     */
+    @Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "基準日は yyyy-MM-dd 形式で入力してください")
+    private String dueDateAnchor;
+    /** ステータスを引き継ぐか（既定は false で、すべて TODO として複製する） */
+    private Boolean keepStatus;
+}
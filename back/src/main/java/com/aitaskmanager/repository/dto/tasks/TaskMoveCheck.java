@@ -0,0 +1,24 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import lombok.Data;
+
+/**
+ * タスク移動・複製の事前検証結果（1回の再帰クエリでまとめて取得する）
+ */
+@Data
+public class TaskMoveCheck {
+    /** 移動するタスクが本人のものとして存在するか */
+    private boolean taskExists;
+    /** 移動するタスクの現在の親タスクSID */
+    private Integer currentParentSid;
+    /** 移動先の親が本人のものとして存在するか（ルートへの移動では false） */
+    private boolean targetExists;
+    /** 移動先の親が移動するタスク自身またはその配下か */
+    private boolean targetInSubtree;
+    /** 移動先の親のルートからの深さ（root=1、ルートへの移動では 0） */
+    private int targetDepth;
+    /** 移動するサブツリーの高さ（自身のみ=1） */
+    private int subtreeHeight;
+    /** 移動するサブツリーのタスク数（自身を含む） */
+    private int subtreeSize;
+}
@@ -0,0 +1,14 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import lombok.Data;
+
+/**
+ * タスク移動（親の付け替え）リクエストのDTO
+ */
+@Data
+public class TaskMoveRequest {
+    /** 移動先の親タスクID（snake_case、nullでルートへ移動） */
+    private Integer parent_task_id;
+    /** 移動先の親タスクID（camelCase、nullでルートへ移動） */
+    private Integer parentTaskId;
+}
@@ -0,0 +1,25 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * タスク部分更新（PATCH）リクエストのDTO
+ * 送られた（null でない）項目だけを更新する。
+ */
+@Data
+public class TaskPatchRequest {
+    /** タスクのタイトル（指定時は空不可） */
+    private String title;
+    /** タスクの説明（空文字で空にする） */
+    private String description;
+    /** タスクの期限日: yyyy-MM-dd 形式（空文字で期限なしにする） */
+    @Pattern(regexp = "^(\\d{4}-\\d{2}-\\d{2})?$", message = "期限日は yyyy/MM/dd 形式で入力してください")
+    private String due_date;
+    /** タスクの優先度 */
+    @Pattern(regexp = "^(HIGH|NORMAL|LOW)$", message = "優先度が不正です")
+    private String priority;
+    /** タスクのステータス */
+    @Pattern(regexp = "^(TODO|DOING|DONE)$", message = "ステータスが不正です")
+    private String status;
+}
@@ -27,4 +27,6 @@ public class TaskResponse {
     private String createdAt;
     /** 更新日時 */
     private String updatedAt;
+    /** 期日までの残り営業日数（期日なし/算出不可はnull、超過は負数） */
+    private Integer businessDaysRemaining;
 }
@@ -0,0 +1,18 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * タスク検索レスポンス用DTO（スコア順、キーセット方式のページング）
+ */
+@Data
+@AllArgsConstructor
+public class TaskSearchResponse {
+    /** 検索結果（スコアの高い順） */
+    private List<TaskResponse> items;
+    /** 次ページ取得用のカーソル（cursor に渡す、最終ページではNULL） */
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import com.aitaskmanager.repository.model.Tasks;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 検索結果の1行（スコア付きのタスク）
+ */
+@Getter
+@Setter
+public class TaskSearchRow extends Tasks {
+    /** 検索スコア（大きいほど上位、次ページのカーソルにも使う） */
+    private Double rank;
+}
@@ -0,0 +1,16 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * タスクのステータスのみを更新するリクエストのDTO（完了チェックの切り替え用）
+ */
+@Data
+public class TaskStatusRequest {
+    /** タスクのステータス */
+    @NotNull(message = "ステータスは必須です")
+    @Pattern(regexp = "^(TODO|DOING|DONE)$", message = "ステータスが不正です")
+    private String status;
+}
@@ -0,0 +1,18 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * タスクのステータス更新レスポンス用DTO（変更に関係する項目のみ）
+ */
+@Data
+@AllArgsConstructor
+public class TaskStatusResponse {
+    /** タスクID */
+    private Integer id;
+    /** ステータス */
+    private String status;
+    /** 更新日時 */
+    private String updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * ダッシュボード集計レスポンス用DTO
+ */
+@Data
+public class TaskSummaryResponse {
+    /** 集計の基準日（yyyy-MM-dd、東京時間） */
+    private String asOf;
+    /** タスク数 */
+    private int total;
+    /** 完了の件数 */
+    private int done;
+    /** 未完了の件数 */
+    private int notDone;
+    /** 期限切れ（未完了かつ期限日が基準日より前）の件数 */
+    private int overdue;
+    /** 基準日が期限の件数（完了を含む） */
+    private int dueToday;
+    /** 期限が近い（未完了かつ基準日〜3日後が期限）件数 */
+    private int dueSoon;
+    /** 今週が期限（未完了かつ基準日〜今週の土曜が期限）の件数 */
+    private int dueThisWeek;
+    /** ステータスごとの件数 */
+    private Map<String, Integer> byStatus = new LinkedHashMap<>();
+    /** 優先度ごとの件数 */
+    private Map<String, Integer> byPriority = new LinkedHashMap<>();
+}
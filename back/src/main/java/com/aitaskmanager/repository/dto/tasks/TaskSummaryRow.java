@@ -0,0 +1,28 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import lombok.Data;
+
+/**
+ * ダッシュボード集計の1行（GROUPING SETS の1グループ: ステータス別・優先度別・全体のいずれか）
+ */
+@Data
+public class TaskSummaryRow {
+    /** ステータス（ステータス別の行のみ） */
+    private String status;
+    /** 優先度（優先度別の行のみ） */
+    private String priority;
+    /** ステータスで集計していない行は1 */
+    private int groupingStatus;
+    /** 優先度で集計していない行は1 */
+    private int groupingPriority;
+    /** 件数 */
+    private int taskCount;
+    /** 期限切れ（未完了かつ期限日が今日より前）の件数 */
+    private int overdueCount;
+    /** 今日が期限の件数（完了を含む） */
+    private int dueTodayCount;
+    /** 期限が近い（未完了かつ今日〜3日後が期限）件数 */
+    private int dueSoonCount;
+    /** 今週が期限（未完了かつ今日〜今週の土曜が期限）の件数 */
+    private int dueThisWeekCount;
+}
@@ -31,6 +31,16 @@ public class TaskTreeResponse {
     private String updatedAt;
     /** タスク細分化日時 */
     private String decomposedAt;
+    /** 期日までの残り営業日数（期日なし/算出不可はnull、超過は負数） */
+    private Integer businessDaysRemaining;
+    /** 直下の子タスク数（children が取得範囲外で空の場合も実際の件数を返す） */
+    private int childCount;
+    /** 子孫タスク数（子・孫以降すべて） */
+    private int descendantCount;
+    /** 完了（DONE）の子孫タスク数 */
+    private int doneDescendantCount;
+    /** 未完了の子孫タスクのうち最も早い期限日 */
+    private String earliestChildDueDate; // yyyy/MM/dd
     /** 子タスクのリスト */
     private List<TaskTreeResponse> children = new ArrayList<>();
 }
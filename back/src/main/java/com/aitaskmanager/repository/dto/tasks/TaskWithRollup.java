@@ -0,0 +1,25 @@
+package com.aitaskmanager.repository.dto.tasks;
+
+import java.util.Date;
+
+import com.aitaskmanager.repository.model.Tasks;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 集計列付きのタスク（ツリー表示用）。
+ * 集計列は書き込みのたびに親方向へ更新され、参照時に子孫を走査せずに進捗を返せる。
+ */
+@Getter
+@Setter
+public class TaskWithRollup extends Tasks {
+    /** 子孫タスク数（子・孫以降すべて） */
+    private Integer descendantCount;
+    /** 完了（DONE）の子孫タスク数 */
+    private Integer doneDescendantCount;
+    /** 未完了の子孫タスクのうち最も早い期限日（なければNULL） */
+    private Date earliestChildDueDate;
+    /** 直下の子タスク数（部分ツリー・ルート一覧の取得時のみ設定） */
+    private Integer childCount;
+}
@@ -6,8 +6,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import com.aitaskmanager.repository.customMapper.UserMapper;
 import com.aitaskmanager.repository.model.Users;
+import com.aitaskmanager.service.loader.RequestDataLoader;
 
 /**
  * Spring Securityがログイン時に呼び出すユーザー情報取得クラス
@@ -16,7 +16,7 @@ import com.aitaskmanager.repository.model.Users;
 public class CustomUserDetailsService implements UserDetailsService {
     
     @Autowired
-    private UserMapper userMapper;
+    private RequestDataLoader requestDataLoader;
 
     /**
      * ユーザー名からユーザー情報を取得してUserDetailsに変換
@@ -26,7 +26,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String userId) throws UsernameNotFoundException {
-        Users user = userMapper.selectByUserId(userId);
+        Users user = requestDataLoader.userByUserId(userId);
         if (user == null) {
             throw new UsernameNotFoundException("ユーザーが見つかりません: " + userId);
         }
@@ -1,12 +1,18 @@
 package com.aitaskmanager.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
+import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -15,6 +21,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpMethod;
 import org.springframework.web.cors.CorsConfiguration;
@@ -30,6 +37,14 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    /**
+     * メトリクス（/actuator/prometheus）のスクレイプ用トークン。
+     * Prometheus の scrape_config で authorization: { credentials: <token> }（Bearer）として送る。
+     * 未設定の場合はアプリのポートからは取得できない。
+     */
+    @Value("${metrics.scrapeToken:}")
+    private String metricsScrapeToken;
+
     /**
      * セキュリティフィルターチェーンの設定
      * 
@@ -50,6 +65,9 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()  // 認証系エンドポイントは全許可
                 .requestMatchers(HttpMethod.POST, "/webhook/stripe").permitAll() // Stripe Webhook は認証不要
+                .requestMatchers("/api/admin/**").permitAll() // 管理APIはコントローラで X-Admin-Token を検証
+                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll() // 死活監視
+                .requestMatchers(HttpMethod.GET, "/actuator/prometheus").access(this::authorizeMetricsScrape) // スクレイプ用トークンで認可
                 .anyRequest().authenticated()
             )
             // 例外ハンドラ追加
@@ -63,6 +81,26 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * /actuator/prometheus への要求を認可する（Bearer のスクレイプ用トークンが一致する場合のみ）。
+     * 経路ごとのレイテンシや SQL のステートメント名を含むため、公開ポートでは認証なしで返さない。
+     *
+     * @param authentication 認証情報（使用しない）
+     * @param context リクエストのコンテキスト
+     * @return 認可結果
+     */
+    private AuthorizationDecision authorizeMetricsScrape(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        if (metricsScrapeToken == null || metricsScrapeToken.isBlank()) {
+            return new AuthorizationDecision(false);
+        }
+        String header = context.getRequest().getHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return new AuthorizationDecision(false);
+        }
+        byte[] given = header.substring(7).getBytes(StandardCharsets.UTF_8);
+        return new AuthorizationDecision(MessageDigest.isEqual(metricsScrapeToken.getBytes(StandardCharsets.UTF_8), given));
+    }
+
     /**
      * 401（未認証）エントリーポイントのBean定義
      * 
@@ -132,7 +170,7 @@ public class SecurityConfig {
             origins.add(prodFront);
         }
         configuration.setAllowedOrigins(origins); // フロントのURL（開発 + 本番）
-        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowCredentials(true);
         configuration.setAllowedHeaders(List.of("*"));
 
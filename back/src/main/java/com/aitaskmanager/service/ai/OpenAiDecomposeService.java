@@ -4,11 +4,15 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.context.ApplicationContext;
 import lombok.extern.slf4j.Slf4j;
 
+import com.aitaskmanager.config.UpstreamMetrics;
+import com.aitaskmanager.util.AiTextUtils;
+
 /**
  * Spring AI を利用してプロジェクト説明を具体的なタスクに分解するサービス
  */
@@ -18,6 +22,9 @@ public class OpenAiDecomposeService {
 
     private Object chatModel;
 
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+
     /**
      * コンストラクタ - Spring AI の ChatModel をリフレクションで解決を試みる
      * 
@@ -95,14 +102,7 @@ public class OpenAiDecomposeService {
      * @return 箇条書きのリスト
      */
     private List<String> parseToList(String text) {
-        List<String> list = new ArrayList<>();
-        String[] lines = text.split("\r?\n");
-        for (String line : lines) {
-            String t = line.trim().replaceFirst("^[\\-\\*]\\s*", "");
-            if (!t.isBlank()) list.add(t);
-            if (list.size() >= 10) break; // 上限の安全弁
-        }
-        return list;
+        return AiTextUtils.parseBulletLines(text, 10); // 上限の安全弁
     }
 
     /**
@@ -124,7 +124,15 @@ public class OpenAiDecomposeService {
             Object prompt = promptClass.getConstructor(userMessageClass).newInstance(userMessage);
 
             Method callMethod = chatModel.getClass().getMethod("call", promptClass);
-            Object chatResponse = callMethod.invoke(chatModel, prompt);
+            long startNs = System.nanoTime();
+            Object chatResponse;
+            try {
+                chatResponse = callMethod.invoke(chatModel, prompt);
+            } catch (Throwable t) {
+                upstreamMetrics.record(UpstreamMetrics.OPENAI, "ChatModel.call", System.nanoTime() - startNs, UpstreamMetrics.ERROR);
+                throw t;
+            }
+            upstreamMetrics.record(UpstreamMetrics.OPENAI, "ChatModel.call", System.nanoTime() - startNs, UpstreamMetrics.SUCCESS);
 
             // Navigate: resp.getResult().getOutput().getContent()
             Method getResult = chatResponse.getClass().getMethod("getResult");
@@ -1,7 +1,9 @@
 package com.aitaskmanager.service.ai;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.annotation.PreDestroy;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -12,11 +14,18 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import com.aitaskmanager.config.UpstreamMetrics;
+import com.aitaskmanager.util.AiTextUtils;
+
 /**
  * OpenAIを利用したタスク関連のサービスクラス
  */
@@ -33,10 +42,36 @@ public class OpenAiTaskService {
     @Value("${openai.model:gpt-4o-mini}")
     private String model;
 
+    /** Chat Completions API のベースURL（スタブサーバ等への差し替え用） */
+    @Value("${openai.baseUrl:https://api.openai.com}")
+    private String baseUrl;
+
+    /** 一括細分化: 1プロンプトに詰める親タスク説明の最大文字数（モデルのコンテキスト長に合わせる） */
+    @Value("${openai.batch.maxPromptChars:6000}")
+    private int batchMaxPromptChars;
+
+    /** 一括細分化: 1プロンプトに詰める親タスクの最大件数（出力トークン上限の安全弁） */
+    @Value("${openai.batch.maxItemsPerPrompt:5}")
+    private int batchMaxItemsPerPrompt;
+
+    /** 一括細分化: OpenAIへの同時リクエスト数の上限 */
+    @Value("${openai.batch.concurrency:4}")
+    private int batchConcurrency;
+
+    private static final String SYSTEM_MESSAGE = "You output strictly a single JSON object. All values must be in Japanese. Keys must be in English (children/title/description). No extra text.";
+
+    private static final String BATCH_SYSTEM_MESSAGE = "You output strictly a single JSON object. All values must be in Japanese. Keys must be in English (results/id/children/title/description). No extra text.";
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     private final HttpClient http = HttpClient.newHttpClient();
 
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+
+    /** 一括細分化用のワーカースレッド（初回利用時に生成） */
+    private volatile ExecutorService batchExecutor;
+
     public boolean isEnabled() {
         return enabled && apiKey != null && !apiKey.isBlank();
     }
@@ -57,14 +92,12 @@ public class OpenAiTaskService {
         if (base == null) base = "";
 
         // 開始ログ（入力の長さと語数）
-        int words = base.trim().isEmpty() ? 0 : base.trim().split("\\s+").length;
+        int words = AiTextUtils.countWords(base);
         log.info("[OpenAiTaskService] generateSubTasks start len={} words={} titleLen={} descLen={}", base.length(), words, (title != null ? title.length() : 0), (description != null ? description.length() : 0));
 
         // 曖昧スキップ（プレビューでは空リスト返却）
-        int minChars = 20;
-        int minWords = 3;
-        if (base.trim().isEmpty() || (base.length() < minChars && words < minWords)) {
-            log.info("[OpenAiTaskService] skip due to ambiguous input (len<{} && words<{})", minChars, minWords);
+        if (AiTextUtils.isAmbiguous(title, description)) {
+            log.info("[OpenAiTaskService] skip due to ambiguous input (len={} words={})", base.length(), words);
             log.info("[OpenAiTaskService] generateSubTasks end items=0 elapsedMs={}", (System.nanoTime() - startNs) / 1_000_000);
             return results;
         }
@@ -78,13 +111,149 @@ public class OpenAiTaskService {
             + "出力形式は厳密に次のみ。キーは英語 (children/title/description)、値は日本語: {\"children\":[{\"title\":\"...\",\"description\":\"...\"}]}";
 
         try {
+            String content = callChatCompletion(SYSTEM_MESSAGE, prompt);
+            if (content != null && !content.isBlank()) {
+                // contentがJSONのはずなのでパースを試みる
+                JsonNode json = tryParseJson(content);
+                if (json != null) {
+                    JsonNode children = json.path("children");
+                    if (children.isArray()) {
+                        results = filterChildren(children, title, description);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // 失敗時は空リストを返す
+            log.warn("[OpenAiTaskService] generateSubTasks failed: {}", e.toString());
+            log.info("[OpenAiTaskService] generateSubTasks end items=0 elapsedMs={}", (System.nanoTime() - startNs) / 1_000_000);
+            return results;
+        }
+        log.info("[OpenAiTaskService] generateSubTasks end items={} elapsedMs={}", results.size(), (System.nanoTime() - startNs) / 1_000_000);
+        return results;
+    }
+
+    /**
+     * 複数の親タスクから子タスク案をまとめて生成する。
+     * 親タスクはコンテキスト長の許す範囲で少数のプロンプトに詰め、並列数を制限して OpenAI へ送信する。
+     * 結果は入力と同じ順序で返し、失敗は親タスク単位で {@link BatchResult#error} に記録する。
+     *
+     * @param parents 親タスクのリスト
+     * @return 親タスクごとの生成結果（入力と同順）
+     */
+    public List<BatchResult> generateSubTasksBatch(List<ParentTask> parents) {
+        long startNs = System.nanoTime();
+        int n = parents != null ? parents.size() : 0;
+        BatchResult[] results = new BatchResult[n];
+
+        // 曖昧な入力はOpenAIへ送らず空結果とする（単体版と同じ判定）
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ParentTask p = parents.get(i);
+            if (p == null || AiTextUtils.isAmbiguous(p.title, p.description)) {
+                results[i] = new BatchResult(new ArrayList<>(), true, null);
+            } else {
+                targets.add(i);
+            }
+        }
+
+        // コンテキスト長（文字数）と件数の上限に収まるようにチャンク化
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int currentChars = 0;
+        int maxItems = Math.max(1, batchMaxItemsPerPrompt);
+        for (Integer idx : targets) {
+            int chars = promptCharsOf(parents.get(idx));
+            if (!current.isEmpty() && (current.size() >= maxItems || currentChars + chars > batchMaxPromptChars)) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentChars = 0;
+            }
+            current.add(idx);
+            currentChars += chars;
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        log.info("[OpenAiTaskService] generateSubTasksBatch start parents={} targets={} prompts={}", n, targets.size(), chunks.size());
+
+        // チャンク単位で並列実行（同時実行数は executor のスレッド数で制限）
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (List<Integer> chunk : chunks) {
+            futures.add(CompletableFuture.runAsync(() -> runBatchChunk(parents, chunk, results), batchExecutor()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        log.info("[OpenAiTaskService] generateSubTasksBatch end parents={} prompts={} elapsedMs={}", n, chunks.size(), (System.nanoTime() - startNs) / 1_000_000);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 1プロンプト分の親タスク群を OpenAI へ送り、結果を親タスクの位置へ書き戻す
+     *
+     * @param parents 親タスクのリスト（全体）
+     * @param chunk このプロンプトに含める親タスクの添字
+     * @param results 結果の書き込み先（添字は parents と対応）
+     */
+    private void runBatchChunk(List<ParentTask> parents, List<Integer> chunk, BatchResult[] results) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("あなたはタスク分解のアシスタントです。以下の複数の親タスクそれぞれについて、タスクが達成できるように細かい子タスク案を JSON で返してください（タスクが達成できるようにできるだけ細かくして返してください）。\n");
+        for (Integer idx : chunk) {
+            ParentTask p = parents.get(idx);
+            prompt.append("---\n")
+                .append("id: ").append(idx).append("\n")
+                .append("親タイトル: ").append(safe(p.title)).append("\n")
+                .append("説明: ").append(safe(p.description)).append("\n");
+            if (p.dueDate != null) prompt.append("期日: ").append(p.dueDate).append("\n");
+            if (p.priority != null) prompt.append("優先度: ").append(p.priority).append("\n");
+        }
+        prompt.append("---\n")
+            .append("必須条件: タイトルと説明の値は必ず日本語で出力するようにしてください。id は入力の値をそのまま返してください。\n")
+            .append("出力形式は厳密に次のみ。キーは英語 (results/id/children/title/description)、値は日本語: {\"results\":[{\"id\":0,\"children\":[{\"title\":\"...\",\"description\":\"...\"}]}]}");
+
+        try {
+            String content = callChatCompletion(BATCH_SYSTEM_MESSAGE, prompt.toString());
+            JsonNode json = (content != null && !content.isBlank()) ? tryParseJson(content) : null;
+            JsonNode items = json != null ? json.path("results") : null;
+            if (items == null || !items.isArray()) {
+                throw new IllegalStateException("unexpected response format");
+            }
+            for (JsonNode item : items) {
+                int idx = item.path("id").asInt(-1);
+                if (!chunk.contains(idx) || results[idx] != null) continue;
+                ParentTask p = parents.get(idx);
+                JsonNode children = item.path("children");
+                results[idx] = new BatchResult(children.isArray() ? filterChildren(children, p.title, p.description) : new ArrayList<>(), false, null);
+            }
+            // 応答に含まれなかった親タスクは個別に失敗扱い
+            for (Integer idx : chunk) {
+                if (results[idx] == null) {
+                    results[idx] = new BatchResult(new ArrayList<>(), false, "AIの応答に結果が含まれていませんでした");
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[OpenAiTaskService] batch chunk failed ids={} cause={}", chunk, e.toString());
+            for (Integer idx : chunk) {
+                if (results[idx] == null) {
+                    results[idx] = new BatchResult(new ArrayList<>(), false, "AIによる子タスク生成に失敗しました");
+                }
+            }
+        }
+    }
+
+    /**
+     * Chat Completions API を呼び出し、最初の choice の content を返す
+     *
+     * @param systemMessage system メッセージ
+     * @param prompt user メッセージ
+     * @return 応答の content
+     * @throws Exception 通信失敗または 2xx 以外の応答の場合
+     */
+    private String callChatCompletion(String systemMessage, String prompt) throws Exception {
         // Chat Completions API に対して system + user の2メッセージ構成、JSON強制の response_format を指定
         var rootBody = mapper.createObjectNode();
         rootBody.put("model", model);
         var messages = rootBody.putArray("messages");
         messages.add(mapper.createObjectNode()
             .put("role", "system")
-            .put("content", "You output strictly a single JSON object. All values must be in Japanese. Keys must be in English (children/title/description). No extra text."));
+            .put("content", systemMessage));
         messages.add(mapper.createObjectNode()
             .put("role", "user")
             .put("content", prompt));
@@ -95,64 +264,89 @@ public class OpenAiTaskService {
         rootBody.set("response_format", responseFormat);
         String body = rootBody.toString();
 
-            HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("https://api.openai.com/v1/chat/completions"))
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                    .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
-                    .build();
-
-            HttpResponse<String> resp = http.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-            if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                JsonNode root = mapper.readTree(resp.body());
-                String content = root.path("choices").path(0).path("message").path("content").asText("");
-                if (content != null && !content.isBlank()) {
-                    // contentがJSONのはずなのでパースを試みる
-                    JsonNode json = tryParseJson(content);
-                    if (json != null) {
-                        JsonNode children = json.path("children");
-                        if (children.isArray()) {
-                            for (JsonNode c : children) {
-                                String ct = c.path("title").asText("");
-                                String cd = c.path("description").asText("");
-                                if (!ct.isBlank()) {
-                                    results.add(new SubTask(ct, cd));
-                                }
-                            }
-                            // 正規化して親説明/タイトルと同一のものを除外
-                            String normParentDesc = normalize(description);
-                            String normParentTitle = normalize(title);
-                            List<SubTask> filtered = new ArrayList<>();
-                            for (SubTask st : results) {
-                                String nt = normalize(st.title);
-                                String nd = normalize(st.description);
-                                boolean dupWithDesc = !normParentDesc.isEmpty() && (nt.equalsIgnoreCase(normParentDesc) || nd.equalsIgnoreCase(normParentDesc));
-                                boolean dupWithTitle = !normParentTitle.isEmpty() && (nt.equalsIgnoreCase(normParentTitle) || nd.equalsIgnoreCase(normParentTitle));
-                                if (!dupWithDesc && !dupWithTitle) {
-                                    filtered.add(st);
-                                }
-                            }
-                            results = filtered;
-                            // 最大件数の上限（大きめに許容）
-                            int maxItems = 50;
-                            if (results.size() > maxItems) {
-                                results = results.subList(0, maxItems);
-                            }
-                        }
-                    }
+        HttpRequest req = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/v1/chat/completions"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+
+        long startNs = System.nanoTime();
+        HttpResponse<String> resp;
+        try {
+            resp = http.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            upstreamMetrics.record(UpstreamMetrics.OPENAI, "POST /v1/chat/completions", System.nanoTime() - startNs, UpstreamMetrics.ERROR);
+            throw e;
+        }
+        upstreamMetrics.record(UpstreamMetrics.OPENAI, "POST /v1/chat/completions", System.nanoTime() - startNs, UpstreamMetrics.outcomeOf(resp.statusCode()));
+        if (resp.statusCode() < 200 || resp.statusCode() >= 300) {
+            // ステータスとエラーメッセージをログに出す
+            log.warn("[OpenAiTaskService] OpenAI chat completion failed status={} body={}", resp.statusCode(), resp.body());
+            throw new IllegalStateException("OpenAI chat completion failed status=" + resp.statusCode());
+        }
+        JsonNode root = mapper.readTree(resp.body());
+        return root.path("choices").path(0).path("message").path("content").asText("");
+    }
+
+    /**
+     * 生成された子タスク案から空タイトルと親タイトル/説明と同一のものを除外し、上限件数で切り詰める
+     *
+     * @param children OpenAI 応答の children 配列
+     * @param title 親タスクのタイトル
+     * @param description 親タスクの説明
+     * @return フィルタ後の子タスクのリスト
+     */
+    private List<SubTask> filterChildren(JsonNode children, String title, String description) {
+        List<SubTask> results = new ArrayList<>();
+        for (JsonNode c : children) {
+            String ct = c.path("title").asText("");
+            String cd = c.path("description").asText("");
+            if (!ct.isBlank()) {
+                results.add(new SubTask(ct, cd));
+            }
+        }
+        // 正規化キーで親説明/タイトルと同一のもの、および子同士の重複を除外
+        List<SubTask> filtered = AiTextUtils.dedupByNormalizedKey(results, st -> st.title, st -> st.description, title, description);
+        // 最大件数の上限（大きめに許容）
+        int maxItems = 50;
+        if (filtered.size() > maxItems) {
+            filtered = filtered.subList(0, maxItems);
+        }
+        return filtered;
+    }
+
+    /**
+     * プロンプトに占める親タスク1件分のおおよその文字数
+     */
+    private int promptCharsOf(ParentTask p) {
+        return safe(p.title).length() + safe(p.description).length() + 64;
+    }
+
+    /**
+     * 一括細分化用の executor を取得する（初回のみ生成）
+     */
+    private ExecutorService batchExecutor() {
+        ExecutorService ex = batchExecutor;
+        if (ex == null) {
+            synchronized (this) {
+                ex = batchExecutor;
+                if (ex == null) {
+                    ex = Executors.newFixedThreadPool(Math.max(1, batchConcurrency));
+                    batchExecutor = ex;
                 }
-            } else {
-                // ステータスとエラーメッセージをログに出す
-                log.warn("[OpenAiTaskService] OpenAI chat completion failed status={} body={}", resp.statusCode(), resp.body());
             }
-        } catch (Exception e) {
-            // 失敗時は空リストを返す
-            log.warn("[OpenAiTaskService] generateSubTasks failed: {}", e.toString());
-            log.info("[OpenAiTaskService] generateSubTasks end items=0 elapsedMs={}", (System.nanoTime() - startNs) / 1_000_000);
-            return results;
         }
-        log.info("[OpenAiTaskService] generateSubTasks end items={} elapsedMs={}", results.size(), (System.nanoTime() - startNs) / 1_000_000);
-        return results;
+        return ex;
+    }
+
+    /**
+     * アプリケーション終了時に executor を停止する
+     */
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService ex = batchExecutor;
+        if (ex != null) ex.shutdownNow();
     }
 
     /**
@@ -181,15 +375,36 @@ public class OpenAiTaskService {
     }
 
     /**
-     * 重複判定のための簡易正規化
+     * 一括細分化の入力（親タスク）を表す内部クラス
+     */
+    public static class ParentTask {
+        public final String title;
+        public final String description;
+        public final String dueDate;
+        public final String priority;
+        public ParentTask(String title, String description, String dueDate, String priority) {
+            this.title = title;
+            this.description = description;
+            this.dueDate = dueDate;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * 一括細分化の親タスク単位の結果を表す内部クラス
      */
-    private String normalize(String s) {
-        if (s == null) return "";
-        String t = s.trim()
-                .replaceFirst("^[\\-\\*]\\s*", "")
-                .replaceFirst("^•\\s*", "")
-                .replaceAll("\\s+", " ");
-        return t.toUpperCase();
+    public static class BatchResult {
+        /** 生成された子タスク案 */
+        public final List<SubTask> children;
+        /** 入力が曖昧なため生成をスキップした場合はtrue */
+        public final boolean ambiguous;
+        /** 失敗時のエラーメッセージ（成功時はnull） */
+        public final String error;
+        public BatchResult(List<SubTask> children, boolean ambiguous, String error) {
+            this.children = children;
+            this.ambiguous = ambiguous;
+            this.error = error;
+        }
     }
 
     /**
@@ -1,6 +1,6 @@
 package com.aitaskmanager.service.billing;
 
-import com.aitaskmanager.repository.customMapper.CreditPacksCustomMapper;
+import com.aitaskmanager.service.catalog.CatalogService;
 import com.aitaskmanager.repository.model.CreditPacks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -14,13 +14,13 @@ import java.util.List;
 public class CreditPacksService {
 
     @Autowired
-    private CreditPacksCustomMapper creditPacksCustomMapper;
+    private CatalogService catalogService;
 
     /**
      * 有効なクレジットパックの一覧を並び順付きで取得
      * @return 有効なクレジットパックのリスト
      */
     public List<CreditPacks> listEnabled() {
-        return creditPacksCustomMapper.selectEnabledOrderBySort();
+        return catalogService.listEnabledPacks();
     }
 }
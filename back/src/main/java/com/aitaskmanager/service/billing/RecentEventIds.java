@@ -0,0 +1,46 @@
+package com.aitaskmanager.service.billing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 直近に処理したイベントIDを保持する固定サイズの LRU セット（スレッドセーフ）
+ */
+class RecentEventIds {
+
+    private final Map<String, Boolean> ids;
+
+    /**
+     * コンストラクタ
+     *
+     * @param capacity 保持する最大件数
+     */
+    RecentEventIds(int capacity) {
+        int max = Math.max(1, capacity);
+        this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /**
+     * 保持しているか判定する（参照順を更新する）
+     *
+     * @param id イベントID
+     * @return 保持している場合はtrue
+     */
+    synchronized boolean contains(String id) {
+        return ids.get(id) != null;
+    }
+
+    /**
+     * 追加する（上限を超えた場合は最も古く参照されたものを破棄する）
+     *
+     * @param id イベントID
+     */
+    synchronized void add(String id) {
+        ids.put(id, Boolean.TRUE);
+    }
+}
@@ -11,8 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import com.aitaskmanager.repository.generator.SubscriptionPlansMapper;
-import com.aitaskmanager.repository.customMapper.CreditPacksCustomMapper;
+import com.aitaskmanager.service.catalog.CatalogService;
 import com.aitaskmanager.repository.model.CreditPacks;
 import com.aitaskmanager.repository.customMapper.UserMapper;
 import com.aitaskmanager.repository.model.SubscriptionPlans;
@@ -31,14 +30,11 @@ public class StripeBillingService {
     private String stripeApiKey;
 
     @Autowired
-    private SubscriptionPlansMapper subscriptionPlansMapper;
+    private CatalogService catalogService;
 
     @Autowired
     private UserMapper userMapper;
 
-    @Autowired
-    private CreditPacksCustomMapper creditPacksCustomMapper;
-
     @Value("${stripe.successUrl}")
     private String successUrl;
 
@@ -52,7 +48,7 @@ public class StripeBillingService {
      * @return Stripe Price IDのOptional
      */
     private Optional<String> findStripePriceIdByPlanId(int planId) {
-        SubscriptionPlans plan = subscriptionPlansMapper.selectByPrimaryKey(planId);
+        SubscriptionPlans plan = catalogService.findPlan(planId);
         if (plan == null) return Optional.empty();
         String priceId = plan.getStripePriceId();
         if (priceId == null || priceId.isBlank()) return Optional.empty();
@@ -71,7 +67,7 @@ public class StripeBillingService {
         Stripe.apiKey = stripeApiKey;
 
         // ダウングレード禁止のバリデーション（無料プランは例外として許可）
-        SubscriptionPlans newPlan = subscriptionPlansMapper.selectByPrimaryKey(planId);
+        SubscriptionPlans newPlan = catalogService.findPlan(planId);
         if (newPlan == null) {
             throw new IllegalArgumentException("指定のプランが存在しません: planId=" + planId);
         }
@@ -82,7 +78,7 @@ public class StripeBillingService {
         Integer currentPlanId = (user != null) ? user.getPlanId() : null;
         Integer currentQuota = null;
         if (currentPlanId != null) {
-            SubscriptionPlans currentPlan = subscriptionPlansMapper.selectByPrimaryKey(currentPlanId);
+            SubscriptionPlans currentPlan = catalogService.findPlan(currentPlanId);
             currentQuota = (currentPlan != null) ? currentPlan.getAiQuota() : null; // null=無制限
         }
 
@@ -189,7 +185,7 @@ public class StripeBillingService {
         Stripe.apiKey = stripeApiKey;
 
         // Price ID -> クレジット数の解決（DBのcredit_packsから）
-        CreditPacks pack = creditPacksCustomMapper.selectByStripePriceId(priceId);
+        CreditPacks pack = catalogService.findPackByStripePriceId(priceId);
         if (pack == null || pack.getEnabled() == null || !pack.getEnabled()) {
             throw new IllegalArgumentException("対応する有効なクレジットパックが見つかりません (priceId=" + priceId + ")");
         }
@@ -0,0 +1,263 @@
+package com.aitaskmanager.service.billing;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aitaskmanager.config.SchedulingConfig;
+import com.aitaskmanager.repository.customMapper.WebhookInboxMapper;
+import com.aitaskmanager.repository.dto.billing.WebhookInboxEvent;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.stripe.model.Event;
+import com.stripe.net.ApiResource;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Stripeウェブフックの受信箱（stripe_webhook_inbox）を管理するサービス。
+ * 受信時は署名検証済みのイベントを保存するだけで応答し、実際の処理はワーカーが非同期に行う。
+ * 同じカスタマーのイベントは作成順に1件ずつ処理し、失敗時は指数バックオフで再試行する。
+ */
+@Service
+public class StripeWebhookInboxService {
+    private static final Logger log = LoggerFactory.getLogger(StripeWebhookInboxService.class);
+
+    /** エラー内容の保存上限（文字数） */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private WebhookInboxMapper webhookInboxMapper;
+
+    @Autowired
+    private StripeWebhookService stripeWebhookService;
+
+    /** 1回の取得で処理するイベント数の上限 */
+    @Value("${stripe.webhook.inbox.batchSize:50}")
+    private int batchSize;
+
+    /** 並列に処理するワーカー数 */
+    @Value("${stripe.webhook.inbox.workers:4}")
+    private int workers;
+
+    /** 再試行の上限回数（超えたものは DEAD とする） */
+    @Value("${stripe.webhook.inbox.maxAttempts:8}")
+    private int maxAttempts;
+
+    /** 再試行間隔の初期値（ミリ秒、試行ごとに倍増） */
+    @Value("${stripe.webhook.inbox.backoffBaseMs:2000}")
+    private long backoffBaseMs;
+
+    /** 再試行間隔の上限（ミリ秒） */
+    @Value("${stripe.webhook.inbox.backoffMaxMs:600000}")
+    private long backoffMaxMs;
+
+    /** PROCESSING のまま放置されたイベントを PENDING に戻すまでの時間（ミリ秒） */
+    @Value("${stripe.webhook.inbox.staleLockMs:300000}")
+    private long staleLockMs;
+
+    /** ワーカースレッド（初回利用時に生成） */
+    private volatile ExecutorService workerExecutor;
+
+    /** 最後に滞留イベントを解放した時刻 */
+    private volatile long lastReleaseAt;
+
+    /**
+     * 署名検証済みのイベントを受信箱に登録する（同じイベントIDの再送は無視する）
+     *
+     * @param event Stripeイベント
+     * @param payload 受信した生ペイロード
+     * @return 新規に登録した場合はtrue、既に受信済みの場合はfalse
+     */
+    public boolean enqueue(Event event, String payload) {
+        WebhookInboxEvent row = new WebhookInboxEvent();
+        row.setEventId(event.getId());
+        row.setEventType(event.getType());
+        row.setEventCreated(event.getCreated());
+        row.setPayload(payload);
+        String customerId = extractCustomerId(event);
+        row.setOrderingKey(customerId != null ? customerId : event.getId());
+        return webhookInboxMapper.insertIfAbsent(row) > 0;
+    }
+
+    /**
+     * 受信箱のイベントを処理する（定期実行、専用スケジューラで他の定期処理とは別スレッド）
+     * 取得件数が上限に達している間は続けて取得し、滞留分を一度に処理する。
+     */
+    @Scheduled(fixedDelayString = "${stripe.webhook.inbox.pollIntervalMs:1000}", scheduler = SchedulingConfig.STRIPE_INBOX_SCHEDULER)
+    public void drain() {
+        try {
+            releaseStaleIfDue();
+            while (true) {
+                List<WebhookInboxEvent> batch = webhookInboxMapper.claimBatch(batchSize);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                processBatch(batch);
+                if (batch.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception ex) {
+            log.error("[StripeWebhookInbox] 受信箱の処理中にエラー: {}", ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * 取得したイベントをワーカーで並列に処理する。
+     * claimBatch は順序保証キーごとに1件しか返さないため、同じカスタマーのイベントが並行して処理されることはない。
+     *
+     * @param batch 取得したイベント
+     */
+    private void processBatch(List<WebhookInboxEvent> batch) {
+        long start = System.currentTimeMillis();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(batch.size());
+        for (WebhookInboxEvent row : batch) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (!process(row)) failed.incrementAndGet();
+            }, workerExecutor()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        log.info("[StripeWebhookInbox] バッチ処理完了: 件数={} 失敗={} took={}ms", batch.size(), failed.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 1件のイベントを処理し、結果を受信箱に反映する
+     *
+     * @param row 受信箱のイベント
+     * @return 成功した場合はtrue
+     */
+    private boolean process(WebhookInboxEvent row) {
+        try {
+            Event event = ApiResource.GSON.fromJson(row.getPayload(), Event.class);
+            stripeWebhookService.dispatch(event);
+            webhookInboxMapper.markDone(row.getEventId());
+            return true;
+        } catch (Exception ex) {
+            int attempts = row.getAttempts() != null ? row.getAttempts() : 1;
+            String error = truncate(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            try {
+                if (attempts >= maxAttempts) {
+                    webhookInboxMapper.markDead(row.getEventId(), error);
+                    log.error("[StripeWebhookInbox] 再試行上限に達したため DEAD にしました: eventId={} type={} attempts={} error={}",
+                            row.getEventId(), row.getEventType(), attempts, error, ex);
+                } else {
+                    long delay = backoffMillis(attempts);
+                    webhookInboxMapper.markRetry(row.getEventId(), new Date(System.currentTimeMillis() + delay), error);
+                    log.warn("[StripeWebhookInbox] 処理失敗のため再試行します: eventId={} type={} attempts={} retryIn={}ms error={}",
+                            row.getEventId(), row.getEventType(), attempts, delay, error);
+                }
+            } catch (Exception mex) {
+                // 状態更新に失敗した場合は staleLockMs 経過後に再取得される
+                log.error("[StripeWebhookInbox] 失敗状態の記録に失敗: eventId={} error={}", row.getEventId(), mex.getMessage());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 試行回数に応じた再試行までの待機時間（指数バックオフ）
+     *
+     * @param attempts これまでの試行回数（1始まり）
+     * @return 待機時間（ミリ秒）
+     */
+    private long backoffMillis(int attempts) {
+        int shift = Math.min(attempts - 1, 20);
+        return Math.min(backoffBaseMs << shift, backoffMaxMs);
+    }
+
+    /**
+     * 一定間隔で、処理中のまま停止したイベントを PENDING に戻す
+     */
+    private void releaseStaleIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastReleaseAt < staleLockMs) {
+            return;
+        }
+        lastReleaseAt = now;
+        int released = webhookInboxMapper.releaseStale(new Date(now - staleLockMs));
+        if (released > 0) {
+            log.warn("[StripeWebhookInbox] 滞留していたイベントを再処理対象に戻しました: 件数={}", released);
+        }
+    }
+
+    /**
+     * イベントのデータオブジェクトから Stripe カスタマーIDを取り出す
+     *
+     * @param event Stripeイベント
+     * @return カスタマーID（無い場合はNULL）
+     */
+    private String extractCustomerId(Event event) {
+        try {
+            String rawJson = event.getDataObjectDeserializer().getRawJson();
+            if (rawJson == null || rawJson.isBlank()) {
+                return null;
+            }
+            JsonObject obj = JsonParser.parseString(rawJson).getAsJsonObject();
+            JsonElement customer = obj.get("customer");
+            if (customer != null && customer.isJsonPrimitive()) {
+                return customer.getAsString();
+            }
+            // customer が展開済みオブジェクトの場合
+            if (customer != null && customer.isJsonObject() && customer.getAsJsonObject().has("id")) {
+                return customer.getAsJsonObject().get("id").getAsString();
+            }
+            return null;
+        } catch (Exception ex) {
+            log.warn("[StripeWebhookInbox] customer の取得に失敗: eventId={} error={}", event.getId(), ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * エラー内容を保存上限に切り詰める
+     */
+    private static String truncate(String s) {
+        if (s == null || s.length() <= MAX_ERROR_LENGTH) return s;
+        return s.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * ワーカー用の executor を取得する（初回のみ生成）
+     */
+    private ExecutorService workerExecutor() {
+        ExecutorService ex = workerExecutor;
+        if (ex == null) {
+            synchronized (this) {
+                ex = workerExecutor;
+                if (ex == null) {
+                    AtomicInteger seq = new AtomicInteger();
+                    ex = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+                        Thread t = new Thread(r, "stripe-webhook-worker-" + seq.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    workerExecutor = ex;
+                }
+            }
+        }
+        return ex;
+    }
+
+    /**
+     * 終了時にワーカーを停止する
+     */
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService ex = workerExecutor;
+        if (ex != null) ex.shutdown();
+    }
+}
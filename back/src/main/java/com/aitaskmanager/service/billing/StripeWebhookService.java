@@ -4,11 +4,25 @@ import com.aitaskmanager.repository.customMapper.PaymentsCustomMapper;
 import com.aitaskmanager.repository.customMapper.SubscriptionsCustomMapper;
 import com.aitaskmanager.repository.customMapper.UserMapper;
 import com.aitaskmanager.repository.customMapper.CustomAiUsageMapper;
-import com.aitaskmanager.repository.generator.SubscriptionPlansMapper;
+import com.aitaskmanager.repository.customMapper.ProcessedEventsMapper;
+import com.aitaskmanager.service.catalog.CatalogService;
+import com.stripe.model.Event;
+import com.stripe.model.StripeObject;
+import com.stripe.model.Subscription;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.ApiResource;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -19,6 +33,7 @@ import java.time.ZoneId;
  */
 @Service
 public class StripeWebhookService {
+    private static final Logger log = LoggerFactory.getLogger(StripeWebhookService.class);
 
     @Autowired
     private  PaymentsCustomMapper paymentsMapper;
@@ -27,7 +42,7 @@ public class StripeWebhookService {
     private SubscriptionsCustomMapper subscriptionsMapper;
 
     @Autowired
-    private SubscriptionPlansMapper subscriptionPlansMapper;
+    private CatalogService catalogService;
 
     @Autowired
     private CustomAiUsageMapper customAiUsageMapper;
@@ -35,6 +50,232 @@ public class StripeWebhookService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private ProcessedEventsMapper processedEventsMapper;
+
+    /** 失敗しても全体を中断しない補助的な書き込み用（既存のトランザクション内ではセーブポイントになる） */
+    private final TransactionTemplate nestedTransaction;
+
+    /** 直近に処理したイベントID（Stripe の短時間の再送で DB を参照しないためのキャッシュ） */
+    private final RecentEventIds recentlyProcessed;
+
+    /**
+     * コンストラクタ
+     *
+     * @param recentCacheSize 直近処理済みイベントIDの保持件数
+     * @param transactionManager トランザクションマネージャ
+     */
+    public StripeWebhookService(@Value("${stripe.webhook.recentCacheSize:10000}") int recentCacheSize,
+                                PlatformTransactionManager transactionManager) {
+        this.recentlyProcessed = new RecentEventIds(recentCacheSize);
+        this.nestedTransaction = new TransactionTemplate(transactionManager);
+        this.nestedTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    /**
+     * 署名検証済みのイベントを種別ごとのハンドラへ振り分ける
+     * イベントIDごとに1回だけ処理する（メモリの直近処理済みキャッシュ → 処理済みテーブルの順に判定）。
+     * 処理に失敗した場合は例外をそのまま送出する（呼び出し元で再試行する）
+     *
+     * @param event Stripeイベント
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void dispatch(Event event) {
+        String type = event.getType();
+        String eventId = event.getId();
+        if (recentlyProcessed.contains(eventId)) {
+            log.info("[StripeWebhook] 処理済みイベントのためスキップ（メモリ）: {} id={}", type, eventId);
+            return;
+        }
+        // 処理済みテーブルへの登録で処理権を取得する（処理が失敗した場合はロールバックで取り消される）
+        if (processedEventsMapper.claim(eventId, type) == 0) {
+            log.info("[StripeWebhook] 処理済みイベントのためスキップ: {} id={}", type, eventId);
+            recentlyProcessed.add(eventId);
+            return;
+        }
+        switch (type) {
+            case "checkout.session.completed" -> handleCheckoutCompleted(event);
+            case "customer.subscription.updated" -> handleSubscriptionUpdated(event);
+            case "customer.subscription.deleted" -> handleSubscriptionDeleted(event);
+            default -> {
+                // 必要に応じて他イベントもハンドリング
+                log.info("[StripeWebhook] 未対応イベントのためスキップ: {} id={}", type, eventId);
+            }
+        }
+        // コミット後にのみ処理済みとして記憶する
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentlyProcessed.add(eventId);
+            }
+        });
+        log.info("[StripeWebhook] ハンドラ処理完了: eventId={}", eventId);
+    }
+
+    /**
+     * checkout.session.completed を処理する（プラン購入 / クレジットパック購入）
+     *
+     * @param event Stripeイベント
+     */
+    private void handleCheckoutCompleted(Event event) {
+        Session session = deserialize(event, Session.class);
+        if (session == null) {
+            log.warn("[StripeWebhook] Session オブジェクトが取得できず、処理をスキップしました。");
+            return;
+        }
+        String userIdStr = session.getMetadata() != null ? session.getMetadata().get("userId") : null;
+        String planIdStr = session.getMetadata() != null ? session.getMetadata().get("planId") : null;
+        String purchaseType = session.getMetadata() != null ? session.getMetadata().get("type") : null; // 'credit_pack' or null
+        String creditAmountStr = session.getMetadata() != null ? session.getMetadata().get("amount") : null; // e.g., '10'
+        log.info("[StripeWebhook] checkout.session.completed メタ情報: userId={} planId={} type={} amount={} sessionId={} amount_total={} currency={} payment_status={}",
+                userIdStr, planIdStr, purchaseType, creditAmountStr, session.getId(), session.getAmountTotal(), session.getCurrency(), session.getPaymentStatus());
+
+        if (userIdStr == null) {
+            log.warn("[StripeWebhook] メタデータに userId がありません。metadata={}", session.getMetadata());
+            return;
+        }
+        Integer userSid = resolveUserSid(userIdStr);
+        if (userSid == null) {
+            return;
+        }
+        // クレジットパックの場合
+        if (purchaseType != null && purchaseType.equalsIgnoreCase("credit_pack")) {
+            if (creditAmountStr == null) {
+                log.warn("[StripeWebhook] credit_pack の amount がメタデータにありません。metadata={}", session.getMetadata());
+                return;
+            }
+            int creditAmount;
+            try {
+                creditAmount = Integer.parseInt(creditAmountStr);
+            } catch (NumberFormatException nfe) {
+                log.warn("[StripeWebhook] credit_pack の amount が数値ではありません。値='{}'. スキップします。", creditAmountStr);
+                return;
+            }
+            log.debug("[StripeWebhook] クレジットパック永続化へ委譲: userSid={} amount={} sessionId={}", userSid, creditAmount, session.getId());
+            persistCreditPack(userSid, creditAmount, session);
+            log.info("[StripeWebhook] クレジットパック永続化完了: sessionId={} userSid={} amount={}", session.getId(), userSid, creditAmount);
+        } else {
+            if (planIdStr == null) {
+                log.warn("[StripeWebhook] メタデータに planId がありません（通常のプラン購入として処理不可）。metadata={}", session.getMetadata());
+                return;
+            }
+            int planSid;
+            try {
+                planSid = Integer.parseInt(planIdStr);
+            } catch (NumberFormatException nfe) {
+                log.warn("[StripeWebhook] planId が数値ではありません。値='{}'. このイベントはスキップします。", planIdStr);
+                return;
+            }
+            log.debug("[StripeWebhook] プラン購入永続化へ委譲: userSid={} planSid={} sessionId={}", userSid, planSid, session.getId());
+            persistCheckoutCompleted(userSid, planSid, session);
+            log.info("[StripeWebhook] プラン購入永続化完了: sessionId={} userSid={} planSid={}", session.getId(), userSid, planSid);
+        }
+    }
+
+    /**
+     * customer.subscription.updated を処理する
+     *
+     * @param event Stripeイベント
+     */
+    private void handleSubscriptionUpdated(Event event) {
+        Subscription sub = deserialize(event, Subscription.class);
+        if (sub == null) {
+            return;
+        }
+        String stripeSubId = sub.getId();
+        Boolean cancelAtPeriodEnd = sub.getCancelAtPeriodEnd();
+        Long currentPeriodEnd = sub.getCurrentPeriodEnd();
+        String status = sub.getStatus();
+        log.info("[StripeWebhook] customer.subscription.updated: id={} status={} cancelAtPeriodEnd={} currentPeriodEnd={}", stripeSubId, status, cancelAtPeriodEnd, currentPeriodEnd);
+        if (Boolean.TRUE.equals(cancelAtPeriodEnd) && currentPeriodEnd != null) {
+            Timestamp expiresAt = new Timestamp(currentPeriodEnd * 1000L);
+            // cancel_at_period_end=true → expires_at更新（statusはACTIVEのまま）
+            updateExpiresAtByStripeId(stripeSubId, expiresAt);
+        }
+        if ("canceled".equalsIgnoreCase(status)) {
+            Long canceledAt = sub.getCanceledAt();
+            Timestamp canceledTs = (canceledAt != null) ? new Timestamp(canceledAt * 1000L) : (currentPeriodEnd != null ? new Timestamp(currentPeriodEnd * 1000L) : null);
+            cancelByStripeId(stripeSubId, canceledTs);
+        }
+    }
+
+    /**
+     * customer.subscription.deleted を処理する
+     *
+     * @param event Stripeイベント
+     */
+    private void handleSubscriptionDeleted(Event event) {
+        Subscription sub = deserialize(event, Subscription.class);
+        if (sub == null) {
+            return;
+        }
+        String stripeSubId = sub.getId();
+        Long endedAt = sub.getEndedAt();
+        Long currentPeriodEnd = sub.getCurrentPeriodEnd();
+        Timestamp cancelTs = (endedAt != null) ? new Timestamp(endedAt * 1000L) : (currentPeriodEnd != null ? new Timestamp(currentPeriodEnd * 1000L) : null);
+        log.info("[StripeWebhook] customer.subscription.deleted: id={} endedAt={} currentPeriodEnd={}", stripeSubId, endedAt, currentPeriodEnd);
+        cancelByStripeId(stripeSubId, cancelTs);
+    }
+
+    /**
+     * イベントのデータオブジェクトを取得する（API バージョン不一致で取得できない場合は rawJson から再構築する）
+     *
+     * @param event Stripeイベント
+     * @param type 取得する型
+     * @return データオブジェクト（取得できない場合はNULL）
+     */
+    private <T extends StripeObject> T deserialize(Event event, Class<T> type) {
+        var deser = event.getDataObjectDeserializer();
+        StripeObject obj = deser.getObject().orElse(null);
+        if (type.isInstance(obj)) {
+            return type.cast(obj);
+        }
+        String rawJson = deser.getRawJson();
+        log.warn("[StripeWebhook] {}のデシリアライズ結果がnullです。rawJson有無={} rawJson={}", type.getSimpleName(), rawJson != null, rawJson);
+        if (rawJson == null || rawJson.isBlank()) {
+            return null;
+        }
+        try {
+            T fallback = ApiResource.GSON.fromJson(rawJson, type);
+            log.info("[StripeWebhook] フォールバックで{}を再構築しました", type.getSimpleName());
+            return fallback;
+        } catch (Exception jex) {
+            log.error("[StripeWebhook] rawJsonからの{}再構築に失敗: {}", type.getSimpleName(), jex.getMessage(), jex);
+            return null;
+        }
+    }
+
+    /**
+     * メタデータの userId から user_sid を解決する（数値でない場合は user_id として検索する）
+     *
+     * @param userIdStr メタデータの userId
+     * @return user_sid（解決できない場合はNULL）
+     */
+    private Integer resolveUserSid(String userIdStr) {
+        try {
+            return Integer.parseInt(userIdStr);
+        } catch (NumberFormatException nfe) {
+            // フォールバック: user_id 文字列から user_sid を取得
+        }
+        var user = userMapper.selectByUserId(userIdStr);
+        if (user == null) {
+            log.warn("[StripeWebhook] userId='{}' に該当するユーザーが見つかりません。イベントをスキップします。", userIdStr);
+            return null;
+        }
+        Long userSidLong = user.getUserSid();
+        if (userSidLong == null) {
+            log.warn("[StripeWebhook] userId='{}' の user_sid がNULLです。イベントをスキップします。", userIdStr);
+            return null;
+        }
+        if (userSidLong > Integer.MAX_VALUE) {
+            log.warn("[StripeWebhook] user_sid がintの範囲外です ({}). イベントをスキップします。", userSidLong);
+            return null;
+        }
+        int userSid = userSidLong.intValue();
+        log.info("[StripeWebhook] フォールバックにより userSid を解決: userId='{}' -> userSid={}", userIdStr, userSid);
+        return userSid;
+    }
+
     /**
      * チェックアウト完了イベントを永続化する
      * 
@@ -51,18 +292,18 @@ public class StripeWebhookService {
             paymentId = session.getId();
             System.out.println("[StripeWebhookService] fallback paymentId to sessionId=" + paymentId);
         }
-        int exists = paymentsMapper.existsByPaymentId(paymentId);
-        System.out.println("[StripeWebhookService] payments existsByPaymentId(" + paymentId + ")=" + exists);
-        if (exists == 0) {
-            double amount = (session.getAmountTotal() != null ? session.getAmountTotal() / 100.0 : 0.0);
-            String currency = session.getCurrency();
-            String method = "stripe_checkout";
-            String status = session.getPaymentStatus();
-            System.out.println("[StripeWebhookService] inserting payment userSid=" + userSid + ", amount=" + amount + ", currency=" + currency + ", method=" + method + ", status=" + status + ", paymentId=" + paymentId);
-            paymentsMapper.insertPayment(userSid, amount, currency, method, paymentId, status);
+        double amount = (session.getAmountTotal() != null ? session.getAmountTotal() / 100.0 : 0.0);
+        String currency = session.getCurrency();
+        String method = "stripe_checkout";
+        String status = session.getPaymentStatus();
+        System.out.println("[StripeWebhookService] inserting payment userSid=" + userSid + ", amount=" + amount + ", currency=" + currency + ", method=" + method + ", status=" + status + ", paymentId=" + paymentId);
+        // 支払いIDの一意制約で重複を判定（同じ決済を二重に反映しない）
+        if (paymentsMapper.insertPayment(userSid, amount, currency, method, paymentId, status) == 0) {
+            System.out.println("[StripeWebhookService] payment already recorded, skip paymentId=" + paymentId);
+            return;
         }
 
-        var plan = subscriptionPlansMapper.selectByPrimaryKey(planSid);
+        var plan = catalogService.findPlan(planSid);
         boolean isUnlimited = plan != null && plan.getAiQuota() == null;
         // 無制限プランでも NULL に統一し、期間終了は Stripe サブスクリプションの状態で判断する。
         Timestamp expiresAt = null;
@@ -70,17 +311,16 @@ public class StripeWebhookService {
         System.out.println("[StripeWebhookService] inserting subscription userSid=" + userSid + ", planSid=" + planSid + ", isUnlimited=" + isUnlimited + ", expiresAt=" + expiresAt + ", stripeSubscriptionId=" + stripeSubscriptionId);
         subscriptionsMapper.insertSubscription(userSid, planSid, expiresAt, stripeSubscriptionId);
         
-        // ユーザテーブルの plan_id を更新（SIDベースで確実に更新）
-        try {
-            userMapper.updatePlanIdBySid(userSid, planSid);
-        } catch (Exception e) {
-            System.err.println("[StripeWebhookService] updatePlanIdBySid failed: " + e.getMessage());
-        }
-        
+        // ユーザテーブルの plan_id を更新（SIDベースで確実に更新）。
+        // dispatch のトランザクション内のため失敗は握りつぶさず送出し、受信箱の再試行に任せる
+        // （PostgreSQL では失敗した文があるとトランザクション全体が中断され、コミットできないため）
+        userMapper.updatePlanIdBySid(userSid, planSid);
+
         // 当月のai_usage行を初期化（存在しない場合は作成）。ボーナス0でUPSERTを使って行を用意。
+        // 失敗は致命ではないため、セーブポイント内で実行して失敗時はその文だけ取り消す
         LocalDate now = LocalDate.now(ZoneId.of("Asia/Tokyo"));
         try {
-            customAiUsageMapper.upsertAddBonus(userSid, now.getYear(), now.getMonthValue(), 0);
+            nestedTransaction.executeWithoutResult(st -> customAiUsageMapper.upsertAddBonus(userSid, now.getYear(), now.getMonthValue(), 0));
             System.out.println("[StripeWebhookService] ai_usage ensured for userSid=" + userSid + " year=" + now.getYear() + " month=" + now.getMonthValue());
         } catch (Exception e) {
             // ai_usageの初期化失敗は致命ではないためログのみ
@@ -102,15 +342,15 @@ public class StripeWebhookService {
             paymentId = session.getId();
             System.out.println("[StripeWebhookService] fallback paymentId to sessionId=" + paymentId);
         }
-        int exists = paymentsMapper.existsByPaymentId(paymentId);
-        System.out.println("[StripeWebhookService] payments existsByPaymentId(" + paymentId + ")=" + exists);
-        if (exists == 0) {
-            double amount = (session.getAmountTotal() != null ? session.getAmountTotal() / 100.0 : 0.0);
-            String currency = session.getCurrency();
-            String method = "stripe_checkout";
-            String status = session.getPaymentStatus();
-            System.out.println("[StripeWebhookService] inserting payment(userSid=" + userSid + ", amount=" + amount + ", currency=" + currency + ", method=" + method + ", status=" + status + ", paymentId=" + paymentId + ")");
-            paymentsMapper.insertPayment(userSid, amount, currency, method, paymentId, status);
+        double amount = (session.getAmountTotal() != null ? session.getAmountTotal() / 100.0 : 0.0);
+        String currency = session.getCurrency();
+        String method = "stripe_checkout";
+        String status = session.getPaymentStatus();
+        System.out.println("[StripeWebhookService] inserting payment(userSid=" + userSid + ", amount=" + amount + ", currency=" + currency + ", method=" + method + ", status=" + status + ", paymentId=" + paymentId + ")");
+        // 支払いIDの一意制約で重複を判定（ボーナスを二重に加算しない）
+        if (paymentsMapper.insertPayment(userSid, amount, currency, method, paymentId, status) == 0) {
+            System.out.println("[StripeWebhookService] payment already recorded, skip paymentId=" + paymentId);
+            return;
         }
 
         // 当月にボーナス回数を加算
@@ -0,0 +1,108 @@
+package com.aitaskmanager.service.catalog;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.aitaskmanager.repository.generator.CreditPacksMapper;
+import com.aitaskmanager.repository.generator.SubscriptionPlansMapper;
+import com.aitaskmanager.repository.model.CreditPacks;
+import com.aitaskmanager.repository.model.SubscriptionPlans;
+
+/**
+ * プラン・クレジットパックのカタログをメモリに保持するサービス。
+ * 参照は DB を使わずスナップショットから返し、定期実行または管理APIから再読み込みする。
+ */
+@Service
+public class CatalogService {
+    private static final Logger log = LoggerFactory.getLogger(CatalogService.class);
+
+    @Autowired
+    private SubscriptionPlansMapper subscriptionPlansMapper;
+
+    @Autowired
+    private CreditPacksMapper creditPacksMapper;
+
+    /** 現在のスナップショット（未読み込みの場合はNULL） */
+    private volatile CatalogSnapshot snapshot;
+
+    /**
+     * 現在のスナップショットを取得する（初回のみ DB から読み込む）
+     *
+     * @return カタログのスナップショット
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot s = snapshot;
+        return s != null ? s : reload();
+    }
+
+    /**
+     * プランSIDでプランを取得する
+     *
+     * @param planSid プランSID（null可）
+     * @return プラン（存在しない場合はNULL）
+     */
+    public SubscriptionPlans findPlan(Integer planSid) {
+        return snapshot().findPlan(planSid);
+    }
+
+    /**
+     * @return 全プラン（DB の取得順）
+     */
+    public List<SubscriptionPlans> listPlans() {
+        return snapshot().getPlans();
+    }
+
+    /**
+     * @return 有効なクレジットパック（並び順）
+     */
+    public List<CreditPacks> listEnabledPacks() {
+        return snapshot().getEnabledPacks();
+    }
+
+    /**
+     * Stripe Price ID でクレジットパックを取得する（無効なものも返す）
+     *
+     * @param stripePriceId Stripe Price ID
+     * @return クレジットパック（存在しない場合はNULL）
+     */
+    public CreditPacks findPackByStripePriceId(String stripePriceId) {
+        return snapshot().findPackByStripePriceId(stripePriceId);
+    }
+
+    /**
+     * DB からカタログを読み込み直す。内容が変わっていない場合は現在のスナップショットをそのまま使う。
+     *
+     * @return 読み込み後のスナップショット
+     */
+    public synchronized CatalogSnapshot reload() {
+        List<SubscriptionPlans> plans = subscriptionPlansMapper.selectAll();
+        List<CreditPacks> packs = creditPacksMapper.selectAll();
+        CatalogSnapshot current = snapshot;
+        if (current != null && current.getFingerprint().equals(CatalogSnapshot.fingerprint(plans, packs))) {
+            log.debug("Catalog unchanged: version={}", current.getVersion());
+            return current;
+        }
+        CatalogSnapshot next = new CatalogSnapshot(current != null ? current.getVersion() + 1 : 1, plans, packs);
+        snapshot = next;
+        log.info("Catalog loaded: {}", next);
+        return next;
+    }
+
+    /**
+     * 定期的にカタログを読み込み直す
+     */
+    @Scheduled(fixedDelayString = "${catalog.refreshIntervalMs:300000}", initialDelayString = "${catalog.refreshIntervalMs:300000}")
+    public void refreshPeriodically() {
+        try {
+            reload();
+        } catch (Exception ex) {
+            // 失敗時は現在のスナップショットを使い続ける
+            log.warn("Catalog reload failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.aitaskmanager.service.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.DigestUtils;
+
+import com.aitaskmanager.repository.model.CreditPacks;
+import com.aitaskmanager.repository.model.SubscriptionPlans;
+
+/**
+ * プラン・クレジットパックのカタログのスナップショット（不変）。
+ * 再読み込み時は新しいスナップショットに丸ごと差し替えるため、参照側は同じ版を一貫して読める。
+ * 保持するモデルは共有されるため、呼び出し側で変更しないこと。
+ */
+public final class CatalogSnapshot {
+
+    /** 版（内容が変わった再読み込みごとに 1 増える） */
+    private final long version;
+    /** 読み込み日時 */
+    private final Instant loadedAt;
+    /** 内容の指紋（変更検知用） */
+    private final String fingerprint;
+    /** 全プラン（DB の取得順） */
+    private final List<SubscriptionPlans> plans;
+    /** プランSID → プラン */
+    private final Map<Integer, SubscriptionPlans> plansById;
+    /** 有効なクレジットパック（sort_order, credit_pack_sid 順） */
+    private final List<CreditPacks> enabledPacks;
+    /** Stripe Price ID → クレジットパック（無効なものも含む） */
+    private final Map<String, CreditPacks> packsByPriceId;
+
+    /**
+     * コンストラクタ
+     *
+     * @param version 版
+     * @param plans 全プラン
+     * @param packs 全クレジットパック
+     */
+    CatalogSnapshot(long version, List<SubscriptionPlans> plans, List<CreditPacks> packs) {
+        this.version = version;
+        this.loadedAt = Instant.now();
+        this.plans = List.copyOf(plans);
+        Map<Integer, SubscriptionPlans> byId = new LinkedHashMap<>();
+        for (SubscriptionPlans p : plans) {
+            if (p.getSubscriptionPlanSid() != null) byId.put(p.getSubscriptionPlanSid(), p);
+        }
+        this.plansById = Map.copyOf(byId);
+        this.enabledPacks = packs.stream()
+                .filter(p -> Boolean.TRUE.equals(p.getEnabled()))
+                .sorted(Comparator.comparing(CreditPacks::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(CreditPacks::getCreditPackSid, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        Map<String, CreditPacks> byPrice = new LinkedHashMap<>();
+        for (CreditPacks p : packs) {
+            if (p.getStripePriceId() != null) byPrice.put(p.getStripePriceId(), p);
+        }
+        this.packsByPriceId = Map.copyOf(byPrice);
+        this.fingerprint = fingerprint(plans, packs);
+    }
+
+    /**
+     * 同じ内容で版だけが異なるスナップショットか判定するための指紋を計算する
+     */
+    static String fingerprint(List<SubscriptionPlans> plans, List<CreditPacks> packs) {
+        StringBuilder sb = new StringBuilder();
+        for (SubscriptionPlans p : plans) {
+            sb.append("P|").append(p.getSubscriptionPlanSid()).append('|').append(p.getName()).append('|')
+              .append(p.getPriceMonthly()).append('|').append(p.getAiQuota()).append('|').append(p.getStripePriceId()).append('|')
+              .append(p.getDescription()).append('|').append(p.getIsActive()).append('\n');
+        }
+        for (CreditPacks c : packs) {
+            sb.append("C|").append(c.getCreditPackSid()).append('|').append(c.getCode()).append('|').append(c.getName()).append('|')
+              .append(c.getDescription()).append('|').append(c.getAmount()).append('|').append(c.getDisplayPrice()).append('|')
+              .append(c.getStripePriceId()).append('|').append(c.getEnabled()).append('|').append(c.getSortOrder()).append('\n');
+        }
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return 版
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 読み込み日時
+     */
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return 内容の指紋
+     */
+    String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return 全プラン（DB の取得順）
+     */
+    public List<SubscriptionPlans> getPlans() {
+        return plans;
+    }
+
+    /**
+     * プランSIDでプランを取得する
+     *
+     * @param planSid プランSID（null可）
+     * @return プラン（存在しない場合はNULL）
+     */
+    public SubscriptionPlans findPlan(Integer planSid) {
+        return planSid != null ? plansById.get(planSid) : null;
+    }
+
+    /**
+     * @return 有効なクレジットパック（並び順）
+     */
+    public List<CreditPacks> getEnabledPacks() {
+        return enabledPacks;
+    }
+
+    /**
+     * Stripe Price ID でクレジットパックを取得する（無効なものも返す）
+     *
+     * @param stripePriceId Stripe Price ID
+     * @return クレジットパック（存在しない場合はNULL）
+     */
+    public CreditPacks findPackByStripePriceId(String stripePriceId) {
+        return stripePriceId != null ? packsByPriceId.get(stripePriceId) : null;
+    }
+
+    /**
+     * @return プラン数
+     */
+    public int getPlanCount() {
+        return plans.size();
+    }
+
+    /**
+     * @return クレジットパック数（無効なものも含む）
+     */
+    public int getPackCount() {
+        return packsByPriceId.size();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogSnapshot{version=" + version + ", plans=" + plans.size() + ", packs=" + packsByPriceId.size()
+                + ", fingerprint=" + fingerprint + "}";
+    }
+}
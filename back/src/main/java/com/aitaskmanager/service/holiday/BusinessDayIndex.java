@@ -0,0 +1,100 @@
+package com.aitaskmanager.service.holiday;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * 1年分の営業日インデックス（不変）。
+ * 営業日（土日・祝日以外）を BitSet で持ち、累積和と「k番目の営業日」表により
+ * 営業日数のカウントと営業日の加算を O(1) で求める。
+ */
+public final class BusinessDayIndex {
+
+    /** 対象年 */
+    private final int year;
+    /** 年の日数 */
+    private final int length;
+    /** 営業日のビット（添字は dayOfYear - 1） */
+    private final BitSet workingDays;
+    /** prefix[d] = 0..d-1 日目までの営業日数（長さ length + 1） */
+    private final int[] prefix;
+    /** nth[k] = k番目（0始まり）の営業日の添字 */
+    private final int[] nth;
+
+    /**
+     * コンストラクタ
+     *
+     * @param year 対象年
+     * @param holidays 祝日（他年の日付は無視する）
+     */
+    public BusinessDayIndex(int year, Collection<LocalDate> holidays) {
+        this.year = year;
+        LocalDate jan1 = LocalDate.of(year, 1, 1);
+        this.length = jan1.lengthOfYear();
+        this.workingDays = new BitSet(length);
+        DayOfWeek dow = jan1.getDayOfWeek();
+        for (int d = 0; d < length; d++) {
+            if (dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY) {
+                workingDays.set(d);
+            }
+            dow = dow.plus(1);
+        }
+        for (LocalDate h : holidays) {
+            if (h.getYear() == year) workingDays.clear(h.getDayOfYear() - 1);
+        }
+        this.prefix = new int[length + 1];
+        this.nth = new int[workingDays.cardinality()];
+        int k = 0;
+        for (int d = 0; d < length; d++) {
+            boolean working = workingDays.get(d);
+            prefix[d + 1] = prefix[d] + (working ? 1 : 0);
+            if (working) nth[k++] = d;
+        }
+    }
+
+    /**
+     * @return 対象年
+     */
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * @return 年間の営業日数
+     */
+    public int getWorkingDayCount() {
+        return nth.length;
+    }
+
+    /**
+     * 指定日が営業日か判定する
+     *
+     * @param date 対象日（対象年内）
+     * @return 営業日の場合はtrue
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return workingDays.get(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * 年初から指定日の前日までの営業日数
+     *
+     * @param dayOfYear 1始まりの通日（length + 1 で年末までの合計）
+     * @return 営業日数
+     */
+    int countBefore(int dayOfYear) {
+        return prefix[dayOfYear - 1];
+    }
+
+    /**
+     * k番目（0始まり）の営業日を返す
+     *
+     * @param k 年内の営業日の順番
+     * @return 営業日
+     */
+    LocalDate nthWorkingDay(int k) {
+        return LocalDate.ofYearDay(year, nth[k] + 1);
+    }
+}
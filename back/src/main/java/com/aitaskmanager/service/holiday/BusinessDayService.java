@@ -0,0 +1,214 @@
+package com.aitaskmanager.service.holiday;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import com.aitaskmanager.repository.dto.holiday.PublicHoliday;
+import com.aitaskmanager.util.TaskUtils;
+
+/**
+ * 祝日データから年ごとの営業日インデックスを構築し、営業日計算を提供するサービス。
+ * インデックスは元の祝日リストが差し替わった（再取得された）ときのみ再構築する。
+ */
+@Service
+public class BusinessDayService {
+    private static final Logger log = LogManager.getLogger(BusinessDayService.class);
+
+    /** 祝日取得に失敗した年を再試行しない期間（ミリ秒） */
+    private static final long FAILURE_BACKOFF_MS = 60_000L;
+
+    /** タスク表示で残り営業日数を計算する範囲（基準日の前後の年数）。範囲外は null とする */
+    private static final int DISPLAY_RANGE_YEARS = 2;
+
+    private final HolidayService holidayService;
+
+    /** 構築済みインデックスと、その元になった祝日リスト */
+    private static class IndexEntry {
+        final List<PublicHoliday> source;
+        final BusinessDayIndex index;
+        IndexEntry(List<PublicHoliday> source, BusinessDayIndex index) {
+            this.source = source;
+            this.index = index;
+        }
+    }
+    private final Map<Integer, IndexEntry> indexes = new ConcurrentHashMap<>();
+
+    /** 祝日取得に失敗した年と再試行可能になる時刻 */
+    private final Map<Integer, Instant> failedUntil = new ConcurrentHashMap<>();
+
+    /** キャッシュに祝日が無かった年と再確認する時刻（タスク表示のたびに DB を引かない） */
+    private final Map<Integer, Instant> missingUntil = new ConcurrentHashMap<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param holidayService 祝日サービス
+     */
+    public BusinessDayService(HolidayService holidayService) {
+        this.holidayService = holidayService;
+    }
+
+    /**
+     * 指定年の営業日インデックスを取得する
+     *
+     * @param year 対象年
+     * @return 営業日インデックス
+     * @throws HolidayFetchException 祝日取得に失敗した場合
+     */
+    public BusinessDayIndex getIndex(int year) {
+        Instant until = failedUntil.get(year);
+        if (until != null && Instant.now().isBefore(until)) {
+            throw new HolidayFetchException("外部祝日API取得失敗");
+        }
+        List<PublicHoliday> holidays;
+        try {
+            holidays = holidayService.getHolidays(year);
+            failedUntil.remove(year);
+        } catch (HolidayFetchException ex) {
+            failedUntil.put(year, Instant.now().plusMillis(FAILURE_BACKOFF_MS));
+            throw ex;
+        }
+        return indexOf(year, holidays);
+    }
+
+    /**
+     * キャッシュ済みの祝日のみから営業日インデックスを取得する（API は呼ばない）
+     *
+     * @param year 対象年
+     * @return 営業日インデックス（祝日がキャッシュに無い場合はNULL）
+     */
+    private BusinessDayIndex getCachedIndex(int year) {
+        Instant until = missingUntil.get(year);
+        if (until != null && Instant.now().isBefore(until)) return null;
+        List<PublicHoliday> holidays = holidayService.getCachedHolidays(year);
+        if (holidays == null) {
+            missingUntil.put(year, Instant.now().plusMillis(FAILURE_BACKOFF_MS));
+            return null;
+        }
+        missingUntil.remove(year);
+        return indexOf(year, holidays);
+    }
+
+    /**
+     * 祝日リストに対応するインデックスを返す（元のリストが変わった場合のみ再構築する）
+     */
+    private BusinessDayIndex indexOf(int year, List<PublicHoliday> holidays) {
+        IndexEntry entry = indexes.get(year);
+        if (entry != null && entry.source == holidays) {
+            return entry.index;
+        }
+        List<LocalDate> dates = new ArrayList<>(holidays.size());
+        for (PublicHoliday h : holidays) {
+            try {
+                dates.add(LocalDate.parse(h.getDate()));
+            } catch (Exception ex) {
+                log.warn("BusinessDay skip invalid holiday date year={} date={}", year, h.getDate());
+            }
+        }
+        BusinessDayIndex index = new BusinessDayIndex(year, dates);
+        indexes.put(year, new IndexEntry(holidays, index));
+        log.debug("BusinessDay index built year={} workingDays={}", year, index.getWorkingDayCount());
+        return index;
+    }
+
+    /**
+     * [from, to) の営業日数を数える（to が from より前の場合は負数）
+     *
+     * @param from 開始日（含む）
+     * @param to 終了日（含まない）
+     * @return 営業日数
+     */
+    public int countBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) return -countBetween(to, from);
+        int total = 0;
+        for (int y = from.getYear(); y <= to.getYear(); y++) {
+            BusinessDayIndex index = getIndex(y);
+            int start = (y == from.getYear()) ? index.countBefore(from.getDayOfYear()) : 0;
+            int end = (y == to.getYear()) ? index.countBefore(to.getDayOfYear()) : index.getWorkingDayCount();
+            total += end - start;
+        }
+        return total;
+    }
+
+    /**
+     * 期日までの残り営業日数（今日の翌日から期日当日までを数える。期日超過は負数）
+     *
+     * @param today 基準日
+     * @param dueDate 期日
+     * @return 残り営業日数
+     */
+    public int remainingUntil(LocalDate today, LocalDate dueDate) {
+        return countBetween(today.plusDays(1), dueDate.plusDays(1));
+    }
+
+    /**
+     * タスク表示用の残り営業日数。一覧・ツリー・検索でタスクごとに呼ばれるため、外部APIは呼ばず
+     * キャッシュ済みの祝日のみで計算する（取得はプリフェッチに任せる）。
+     * 期日なし、期日が基準日の前後2年を超える、または祝日がキャッシュに無い場合は null を返す。
+     *
+     * @param today 基準日
+     * @param dueDate 期日（null可）
+     * @return 残り営業日数（算出できない場合はnull）
+     */
+    public Integer remainingUntilOrNull(LocalDate today, Date dueDate) {
+        LocalDate due = TaskUtils.toLocalDate(dueDate);
+        if (due == null) return null;
+        if (due.isBefore(today.minusYears(DISPLAY_RANGE_YEARS)) || due.isAfter(today.plusYears(DISPLAY_RANGE_YEARS))) {
+            return null;
+        }
+        LocalDate from = today.plusDays(1);
+        LocalDate to = due.plusDays(1);
+        int sign = 1;
+        if (to.isBefore(from)) {
+            LocalDate tmp = from;
+            from = to;
+            to = tmp;
+            sign = -1;
+        }
+        int total = 0;
+        for (int y = from.getYear(); y <= to.getYear(); y++) {
+            BusinessDayIndex index = getCachedIndex(y);
+            if (index == null) return null;
+            int start = (y == from.getYear()) ? index.countBefore(from.getDayOfYear()) : 0;
+            int end = (y == to.getYear()) ? index.countBefore(to.getDayOfYear()) : index.getWorkingDayCount();
+            total += end - start;
+        }
+        return sign * total;
+    }
+
+    /**
+     * 指定日から n 営業日後（負数なら前）の日付を求める。
+     * 指定日自身は数えない（n=0 の場合は指定日をそのまま返す）。
+     *
+     * @param date 基準日
+     * @param days 営業日数
+     * @return 計算結果の日付
+     */
+    public LocalDate addWorkingDays(LocalDate date, int days) {
+        if (days == 0) return date;
+        int year = date.getYear();
+        BusinessDayIndex index = getIndex(year);
+        // 年内での目標の順番（0始まり）
+        int k = (days > 0)
+            ? index.countBefore(date.getDayOfYear() + 1) + days - 1
+            : index.countBefore(date.getDayOfYear()) + days;
+        while (k >= index.getWorkingDayCount()) {
+            k -= index.getWorkingDayCount();
+            index = getIndex(++year);
+        }
+        while (k < 0) {
+            index = getIndex(--year);
+            k += index.getWorkingDayCount();
+        }
+        return index.nthWorkingDay(k);
+    }
+}
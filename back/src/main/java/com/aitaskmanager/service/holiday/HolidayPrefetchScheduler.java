@@ -5,13 +5,15 @@ import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.aitaskmanager.repository.dto.holiday.PublicHoliday;
 
 /**
- * 年末に翌年分の祝日をプリフェッチしキャッシュを温めるスケジューラ。
+ * 起動時と年末に祝日をプリフェッチしキャッシュを温めるスケジューラ。
  */
 @Component
 public class HolidayPrefetchScheduler {
@@ -28,6 +30,16 @@ public class HolidayPrefetchScheduler {
         this.holidayService = holidayService;
     }
 
+    /**
+     * 起動完了時に前後2年分を DB からメモリへ読み込む（不足分はバックグラウンドで取得）。
+     * タスク表示の残り営業日数はキャッシュ済みの祝日のみで計算するため、その範囲をここで用意する。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int year = LocalDate.now().getYear();
+        holidayService.warmUp(year - 2, year - 1, year, year + 1, year + 2);
+    }
+
     /**
      * 毎日 03:10 に実行。12月のみ翌年分を forceRefresh。
      * Cron: 秒 分 時 日 月 曜日
@@ -42,6 +54,8 @@ public class HolidayPrefetchScheduler {
             log.info("[HolidayPrefetch] Prefetching holidays for {}", nextYear);
             List<PublicHoliday> list = holidayService.forceRefresh(nextYear);
             log.info("[HolidayPrefetch] Prefetched {} holidays for {}", list.size(), nextYear);
+            // 年が変わっても前後2年分がそろうよう、翌々々年分も用意しておく
+            holidayService.warmUp(year + 3);
         }
     }
 }
@@ -3,38 +3,107 @@ package com.aitaskmanager.service.holiday;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import com.aitaskmanager.config.UpstreamMetrics;
+import com.aitaskmanager.repository.customMapper.HolidayCacheMapper;
+import com.aitaskmanager.repository.dto.holiday.HolidayCacheEntry;
 import com.aitaskmanager.repository.dto.holiday.PublicHoliday;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
 
 /**
  * Nager.Date API から祝日を取得しキャッシュするサービス。
+ * 取得結果は DB（holiday_cache）に永続化し、再起動後も外部APIを待たずに返せるようにする。
+ * TTL 切れのエントリは古い値を返しつつバックグラウンドで再取得する（stale-while-revalidate）。
  */
 @Service
 public class HolidayService {
     private static final Logger log = LogManager.getLogger(HolidayService.class);
 
-    private static final String ENDPOINT = "https://date.nager.at/api/v3/PublicHolidays/%d/JP";
+    /** Nager.Date API のパス（年, 国コード） */
+    private static final String PATH = "/api/v3/PublicHolidays/%d/%s";
+    /** メトリクス集約用のパス表記 */
+    private static final String PATH_TEMPLATE = "/api/v3/PublicHolidays/{year}/{country}";
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private HolidayCacheMapper holidayCacheMapper;
+
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+
+    /** 祝日APIのベースURL（テスト時はローカルのスタブサーバを指定） */
+    @Value("${holiday.api.baseUrl:https://date.nager.at}")
+    private String baseUrl;
+
+    /** 既定の国コード */
+    @Value("${holiday.api.countryCode:JP}")
+    private String countryCode;
+
+    /** 複数年・複数国の一括取得時の外部API同時呼び出し数の上限 */
+    @Value("${holiday.api.fetchConcurrency:4}")
+    private int fetchConcurrency;
+
+    /** キャッシュキー（国コード, 年） */
+    private record HolidayKey(String country, int year) {
+        @Override
+        public String toString() {
+            return country + "/" + year;
+        }
+    }
 
     /** キャッシュエントリ */
     private static class CacheEntry {
         final List<PublicHoliday> holidays;
         final Instant fetchedAt;
-        CacheEntry(List<PublicHoliday> holidays) {
+        CacheEntry(List<PublicHoliday> holidays, Instant fetchedAt) {
             this.holidays = holidays;
-            this.fetchedAt = Instant.now();
+            this.fetchedAt = fetchedAt;
+        }
+        boolean isFresh() {
+            return Instant.now().isBefore(fetchedAt.plus(TTL));
         }
     }
-    private final Map<Integer, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Map<HolidayKey, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    /** (国, 年) ごとの取得中リクエスト（同一キーの同時取得を1本にまとめる） */
+    private final Map<HolidayKey, CompletableFuture<List<PublicHoliday>>> inFlight = new ConcurrentHashMap<>();
+
+    /** バックグラウンド再取得を登録済みのキー（同じキーを重複して積まない） */
+    private final Set<HolidayKey> pendingRefresh = ConcurrentHashMap.newKeySet();
+
+    /** 一括取得時の外部API呼び出し用スレッド（初回利用時に生成） */
+    private volatile ExecutorService fetchExecutor;
+
+    /** バックグラウンド再取得用のスレッド */
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "holiday-refresh");
+        t.setDaemon(true);
+        return t;
+    });
 
     // TTL 設定（12時間）
     private static final Duration TTL = Duration.ofHours(12);
@@ -48,60 +117,309 @@ public class HolidayService {
     }
 
     /**
-     * 指定された年の祝日リストを取得する
-     * キャッシュが有効な場合はキャッシュを返し、無効な場合は API から再取得する
-     * 
+     * 指定された年の祝日リスト（既定の国）を取得する
+     *
      * @param year 取得する祝日の年
      * @return 祝日のリスト
      * @throws HolidayFetchException 祝日取得に失敗した場合
      */
     public List<PublicHoliday> getHolidays(int year) {
-        // キャッシュ有効性判定
-        CacheEntry entry = cache.get(year);
-        if (entry != null && Instant.now().isBefore(entry.fetchedAt.plus(TTL))) {
-            log.debug("Holiday cache hit year={} size={}", year, entry.holidays.size());
-            return entry.holidays;
+        return getHolidays(countryCode, year);
+    }
+
+    /**
+     * @return 既定の国コード
+     */
+    public String getDefaultCountryCode() {
+        return countryCode;
+    }
+
+    /**
+     * 複数国・複数年の祝日をまとめて取得する。
+     * キャッシュに無い (国, 年) は並列数を制限して外部APIから取得する。
+     *
+     * @param countries 国コードのリスト
+     * @param fromYear 開始年（含む）
+     * @param toYear 終了年（含む）
+     * @return 国コード → 年 → 祝日リスト
+     * @throws HolidayFetchException いずれかの取得に失敗した場合
+     */
+    public Map<String, Map<Integer, List<PublicHoliday>>> getHolidaysRange(List<String> countries, int fromYear, int toYear) {
+        Map<String, Map<Integer, List<PublicHoliday>>> result = new LinkedHashMap<>();
+        Map<HolidayKey, CompletableFuture<List<PublicHoliday>>> misses = new LinkedHashMap<>();
+        for (String country : countries) {
+            Map<Integer, List<PublicHoliday>> byYear = new TreeMap<>();
+            result.put(country, byYear);
+            for (int year = fromYear; year <= toYear; year++) {
+                HolidayKey key = new HolidayKey(country, year);
+                List<PublicHoliday> cached = getCachedOrRevalidate(key);
+                if (cached != null) {
+                    byYear.put(year, cached);
+                } else {
+                    misses.put(key, CompletableFuture.supplyAsync(() -> fetchOnce(key).join(), fetchExecutor()));
+                }
+            }
         }
-        // API取得
-        try {
-            long start = System.currentTimeMillis();
-            String url = String.format(ENDPOINT, year);
-            PublicHoliday[] arr = restTemplate.getForObject(url, PublicHoliday[].class);
-            List<PublicHoliday> list = arr == null ? Collections.emptyList() : List.of(arr);
-            cache.put(year, new CacheEntry(list));
-            log.info("Holiday fetch year={} size={} took={}ms", year, list.size(), System.currentTimeMillis()-start);
-            return list;
-        } catch (Exception ex) {
-            // 失敗時: 古いキャッシュがあればそれを返す、なければ空
-            if (entry != null) {
-                log.warn("Holiday fetch failed year={} using stale cache size={} cause={}", year, entry.holidays.size(), ex.getMessage());
-                return entry.holidays;
+        if (!misses.isEmpty()) {
+            log.info("Holiday range fetch misses={} keys={}", misses.size(), misses.keySet());
+        }
+        for (Map.Entry<HolidayKey, CompletableFuture<List<PublicHoliday>>> e : misses.entrySet()) {
+            HolidayKey key = e.getKey();
+            try {
+                result.get(key.country()).put(key.year(), e.getValue().join());
+            } catch (CompletionException ex) {
+                Throwable cause = rootCause(ex);
+                log.error("Holiday fetch failed key={} no cache cause={}", key, cause.getMessage());
+                throw new HolidayFetchException("外部祝日API取得失敗", cause);
             }
-            log.error("Holiday fetch failed year={} no cache cause={}", year, ex.getMessage());
-            throw new HolidayFetchException("外部祝日API取得失敗", ex);
         }
+        return result;
+    }
+
+    /**
+     * 指定された国・年の祝日リストを取得する
+     * メモリ → DB の順に参照し、TTL 切れの場合は古い値を返してバックグラウンドで再取得する。
+     * どこにも無い場合のみ API から同期取得する（同一キーの同時取得は1回にまとめる）。
+     *
+     * @param country 国コード
+     * @param year 取得する祝日の年
+     * @return 祝日のリスト
+     * @throws HolidayFetchException 祝日取得に失敗した場合
+     */
+    public List<PublicHoliday> getHolidays(String country, int year) {
+        HolidayKey key = new HolidayKey(country, year);
+        List<PublicHoliday> cached = getCachedOrRevalidate(key);
+        if (cached != null) {
+            return cached;
+        }
+        // API取得（キャッシュなし）
+        try {
+            return fetchOnce(key).join();
+        } catch (CompletionException ex) {
+            Throwable cause = rootCause(ex);
+            log.error("Holiday fetch failed key={} no cache cause={}", key, cause.getMessage());
+            throw new HolidayFetchException("外部祝日API取得失敗", cause);
+        }
+    }
+
+    /**
+     * 既定の国の祝日をキャッシュ（メモリ → DB）からのみ取得する。API は同期では呼ばない。
+     * TTL 切れの場合は古い値を返してバックグラウンドで再取得し、どこにも無い年はプリフェッチに任せる。
+     *
+     * @param year 対象年
+     * @return 祝日のリスト（キャッシュに無い場合はNULL）
+     */
+    public List<PublicHoliday> getCachedHolidays(int year) {
+        return getCachedOrRevalidate(new HolidayKey(countryCode, year));
+    }
+
+    /**
+     * メモリ → DB の順にキャッシュを参照する。TTL 切れの場合は古い値を返しバックグラウンドで再取得する。
+     *
+     * @param key キャッシュキー
+     * @return 祝日のリスト（キャッシュが無い場合はNULL）
+     */
+    private List<PublicHoliday> getCachedOrRevalidate(HolidayKey key) {
+        // キャッシュ有効性判定
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            entry = loadFromStore(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isFresh()) {
+            log.debug("Holiday cache hit key={} size={}", key, entry.holidays.size());
+        } else {
+            log.debug("Holiday cache stale key={} size={} revalidating", key, entry.holidays.size());
+            refreshInBackground(key);
+        }
+        return entry.holidays;
     }
 
     /**
      * TTL を待たずに再取得（プリフェッチ用）
-     * 
+     *
      * @param year 取得する祝日の年
      * @return 祝日のリスト
      */
     public List<PublicHoliday> forceRefresh(int year) {
+        HolidayKey key = new HolidayKey(countryCode, year);
         try {
-            long start = System.currentTimeMillis();
-            String url = String.format(ENDPOINT, year);
-            PublicHoliday[] arr = restTemplate.getForObject(url, PublicHoliday[].class);
-            List<PublicHoliday> list = arr == null ? Collections.emptyList() : List.of(arr);
-            cache.put(year, new CacheEntry(list));
-            log.info("Holiday forceRefresh year={} size={} took={}ms", year, list.size(), System.currentTimeMillis()-start);
-            return list;
-        } catch (Exception ex) {
+            return fetchOnce(key).join();
+        } catch (CompletionException ex) {
             // 失敗時は現状キャッシュを保持
-            CacheEntry entry = cache.get(year);
-            log.warn("Holiday forceRefresh failed year={} returning cached size={} cause={}", year, entry != null ? entry.holidays.size() : 0, ex.getMessage());
+            CacheEntry entry = cache.get(key);
+            Throwable cause = rootCause(ex);
+            log.warn("Holiday forceRefresh failed key={} returning cached size={} cause={}", key, entry != null ? entry.holidays.size() : 0, cause.getMessage());
             return entry != null ? entry.holidays : Collections.emptyList();
         }
     }
+
+    /**
+     * 起動時のウォームアップ。DB の内容をメモリへ読み込み、無い/古い年はバックグラウンドで取得する。
+     *
+     * @param years 対象年
+     */
+    public void warmUp(int... years) {
+        for (int year : years) {
+            HolidayKey key = new HolidayKey(countryCode, year);
+            CacheEntry entry = loadFromStore(key);
+            if (entry == null || !entry.isFresh()) {
+                refreshInBackground(key);
+            }
+            log.info("Holiday warm-up key={} stored={} fresh={}", key, entry != null, entry != null && entry.isFresh());
+        }
+    }
+
+    /**
+     * 取得中でなければバックグラウンドで再取得する
+     *
+     * @param key キャッシュキー
+     */
+    private void refreshInBackground(HolidayKey key) {
+        // 登録時点で重複を除く（inFlight は実行開始後にしか入らないため、連続した古い読み取りで多重に積まれる）
+        if (!pendingRefresh.add(key)) return;
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    // 待っている間に他の経路で取得済みなら再取得しない
+                    CacheEntry entry = cache.get(key);
+                    if (entry != null && entry.isFresh()) return;
+                    fetchOnce(key).join();
+                } catch (CompletionException ex) {
+                    log.warn("Holiday background refresh failed key={} cause={}", key, rootCause(ex).getMessage());
+                } finally {
+                    pendingRefresh.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pendingRefresh.remove(key);
+            log.warn("Holiday background refresh rejected key={}", key);
+        }
+    }
+
+    /**
+     * 同一キーの取得を1本にまとめて API から取得する（single-flight）
+     *
+     * @param key キャッシュキー
+     * @return 取得結果の Future
+     */
+    private CompletableFuture<List<PublicHoliday>> fetchOnce(HolidayKey key) {
+        CompletableFuture<List<PublicHoliday>> mine = new CompletableFuture<>();
+        CompletableFuture<List<PublicHoliday>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            log.debug("Holiday fetch joined in-flight request key={}", key);
+            return running;
+        }
+        try {
+            mine.complete(fetchAndStore(key));
+        } catch (Exception ex) {
+            mine.completeExceptionally(ex);
+        } finally {
+            inFlight.remove(key, mine);
+        }
+        return mine;
+    }
+
+    /**
+     * API から取得し、メモリと DB に保存する
+     *
+     * @param key キャッシュキー
+     * @return 祝日のリスト
+     */
+    private List<PublicHoliday> fetchAndStore(HolidayKey key) {
+        String url = baseUrl + String.format(PATH, key.year(), key.country());
+        long startNs = System.nanoTime();
+        PublicHoliday[] arr;
+        try {
+            arr = restTemplate.getForObject(url, PublicHoliday[].class);
+        } catch (RestClientResponseException ex) {
+            upstreamMetrics.record(UpstreamMetrics.HOLIDAY, "GET " + PATH_TEMPLATE, System.nanoTime() - startNs, UpstreamMetrics.outcomeOf(ex.getStatusCode().value()));
+            throw ex;
+        } catch (RuntimeException ex) {
+            upstreamMetrics.record(UpstreamMetrics.HOLIDAY, "GET " + PATH_TEMPLATE, System.nanoTime() - startNs, UpstreamMetrics.ERROR);
+            throw ex;
+        }
+        upstreamMetrics.record(UpstreamMetrics.HOLIDAY, "GET " + PATH_TEMPLATE, System.nanoTime() - startNs, UpstreamMetrics.SUCCESS);
+        List<PublicHoliday> list = arr == null ? Collections.emptyList() : List.of(arr);
+        Instant fetchedAt = Instant.now();
+        cache.put(key, new CacheEntry(list, fetchedAt));
+        log.info("Holiday fetch key={} size={} took={}ms", key, list.size(), (System.nanoTime() - startNs) / 1_000_000);
+        try {
+            HolidayCacheEntry row = new HolidayCacheEntry();
+            row.setCountryCode(key.country());
+            row.setYear(key.year());
+            row.setHolidaysJson(objectMapper.writeValueAsString(list));
+            row.setFetchedAt(Date.from(fetchedAt));
+            holidayCacheMapper.upsert(row);
+        } catch (Exception ex) {
+            // 永続化失敗はメモリキャッシュで継続
+            log.warn("Holiday store write failed key={} cause={}", key, ex.getMessage());
+        }
+        return list;
+    }
+
+    /**
+     * DB から読み込みメモリキャッシュへ載せる
+     *
+     * @param key キャッシュキー
+     * @return キャッシュエントリ（無い場合はNULL）
+     */
+    private CacheEntry loadFromStore(HolidayKey key) {
+        try {
+            HolidayCacheEntry row = holidayCacheMapper.selectByCountryAndYear(key.country(), key.year());
+            if (row == null || row.getHolidaysJson() == null || row.getFetchedAt() == null) return null;
+            List<PublicHoliday> list = List.of(objectMapper.readValue(row.getHolidaysJson(), PublicHoliday[].class));
+            CacheEntry entry = new CacheEntry(list, row.getFetchedAt().toInstant());
+            // 並行して API 取得済みの新しい値があればそちらを優先
+            CacheEntry current = cache.putIfAbsent(key, entry);
+            return current != null ? current : entry;
+        } catch (Exception ex) {
+            log.warn("Holiday store read failed key={} cause={}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 一括取得用の executor を取得する（初回のみ生成）
+     */
+    private ExecutorService fetchExecutor() {
+        ExecutorService ex = fetchExecutor;
+        if (ex == null) {
+            synchronized (this) {
+                ex = fetchExecutor;
+                if (ex == null) {
+                    ex = Executors.newFixedThreadPool(Math.max(1, fetchConcurrency), r -> {
+                        Thread t = new Thread(r, "holiday-fetch");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    fetchExecutor = ex;
+                }
+            }
+        }
+        return ex;
+    }
+
+    /**
+     * CompletionException を剥がして元の例外を返す
+     */
+    private static Throwable rootCause(CompletionException ex) {
+        Throwable cause = ex;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * アプリケーション終了時にバックグラウンドスレッドを停止する
+     */
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+        ExecutorService ex = fetchExecutor;
+        if (ex != null) ex.shutdownNow();
+    }
 }
@@ -0,0 +1,156 @@
+package com.aitaskmanager.service.loader;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.aitaskmanager.repository.customMapper.SubscriptionsCustomMapper;
+import com.aitaskmanager.repository.customMapper.UserMapper;
+import com.aitaskmanager.repository.model.SubscriptionPlans;
+import com.aitaskmanager.repository.model.Users;
+import com.aitaskmanager.service.catalog.CatalogService;
+
+/**
+ * リクエスト単位で参照結果をメモ化するローダー。
+ * 同じリクエスト内での同一エンティティの参照は DB を1回だけ読む（見つからなかった結果も記憶する）。
+ * リクエスト外（定期実行・非同期ワーカー等）から呼ばれた場合はメモ化せずに毎回読む。
+ * 返すオブジェクトはリクエスト内で共有されるため、呼び出し側で変更しないこと。
+ */
+@Component
+public class RequestDataLoader {
+
+    /** リクエスト属性のキー */
+    private static final String ATTR = RequestDataLoader.class.getName() + ".cache";
+
+    /** 「存在しない」を表す値 */
+    private static final Object NOT_FOUND = new Object();
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private SubscriptionsCustomMapper subscriptionsCustomMapper;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    /**
+     * user_id でユーザーを取得する
+     *
+     * @param userId ユーザーID（null可）
+     * @return ユーザー（存在しない場合はNULL）
+     */
+    public Users userByUserId(String userId) {
+        if (userId == null) return null;
+        return load("user:id:" + userId, () -> userMapper.selectByUserId(userId));
+    }
+
+    /**
+     * メールアドレスでユーザーを取得する（取得結果は user_id でも参照できるようにする）
+     *
+     * @param email メールアドレス（null可、大文字小文字は区別しない）
+     * @return ユーザー（存在しない場合はNULL）
+     */
+    public Users userByEmail(String email) {
+        if (email == null) return null;
+        Users user = load("user:email:" + email.toLowerCase(Locale.ROOT), () -> userMapper.selectByEmail(email));
+        if (user != null && user.getUserId() != null) {
+            prime("user:id:" + user.getUserId(), user);
+        }
+        return user;
+    }
+
+    /**
+     * ユーザーの最新のアクティブ契約の開始日を取得する
+     *
+     * @param userSid ユーザーSID（null可）
+     * @return 最新の started_at（存在しない場合はNULL）
+     */
+    public Timestamp latestStartedAt(Long userSid) {
+        if (userSid == null) return null;
+        return load("sub:startedAt:" + userSid, () -> subscriptionsCustomMapper.selectLatestStartedAt(userSid));
+    }
+
+    /**
+     * 現在アクティブなサブスクリプションの plan_sid を取得する
+     *
+     * @param userSid ユーザーSID（null可）
+     * @return plan_sid（存在しない場合はNULL）
+     */
+    public Integer activePlanSid(Long userSid) {
+        if (userSid == null) return null;
+        return load("sub:activePlan:" + userSid, () -> subscriptionsCustomMapper.selectActivePlanSid(userSid));
+    }
+
+    /**
+     * プランを取得する（カタログから取得するため DB は読まない）
+     *
+     * @param planSid プランSID（null可）
+     * @return プラン（存在しない場合はNULL）
+     */
+    public SubscriptionPlans plan(Integer planSid) {
+        return catalogService.findPlan(planSid);
+    }
+
+    /**
+     * このリクエストでメモ化した結果をすべて破棄する（同じリクエスト内で更新した後に使う）
+     */
+    public void clear() {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs != null) {
+            attrs.removeAttribute(ATTR, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * キャッシュにあればそれを、無ければ読み込んで記憶した値を返す
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T load(String key, Supplier<T> loader) {
+        Map<String, Object> cache = cache();
+        if (cache == null) {
+            return loader.get();
+        }
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return cached == NOT_FOUND ? null : (T) cached;
+        }
+        T loaded = loader.get();
+        cache.put(key, loaded != null ? loaded : NOT_FOUND);
+        return loaded;
+    }
+
+    /**
+     * 別のキーで取得済みの値を登録する
+     */
+    private void prime(String key, Object value) {
+        Map<String, Object> cache = cache();
+        if (cache != null) {
+            cache.putIfAbsent(key, value);
+        }
+    }
+
+    /**
+     * 現在のリクエストのキャッシュを取得する（リクエスト外ではNULL）
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> cache() {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs == null) {
+            return null;
+        }
+        Map<String, Object> cache = (Map<String, Object>) attrs.getAttribute(ATTR, RequestAttributes.SCOPE_REQUEST);
+        if (cache == null) {
+            cache = new HashMap<>();
+            attrs.setAttribute(ATTR, cache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return cache;
+    }
+}
@@ -11,10 +11,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.aitaskmanager.repository.customMapper.RefreshTokenMapper;
-import com.aitaskmanager.repository.customMapper.UserMapper;
 import com.aitaskmanager.repository.model.RefreshTokens;
 import com.aitaskmanager.repository.model.Users;
 import com.aitaskmanager.security.JwtTokenProvider;
+import com.aitaskmanager.service.loader.RequestDataLoader;
 import com.aitaskmanager.util.LogUtil;
 
 /**
@@ -27,7 +27,7 @@ public class RefreshTokenService {
     private JwtTokenProvider jwtTokenProvider;
 
     @Autowired
-    private UserMapper userMapper;
+    private RequestDataLoader requestDataLoader;
     
     @Autowired
     private RefreshTokenMapper refreshTokenMapper;
@@ -41,8 +41,8 @@ public class RefreshTokenService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void saveRefreshToken(String userId, String token, Date expiresAt) {
-        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.save", "userId=" + userId, "started");
-        Users user = (userId != null) ? userMapper.selectByUserId(userId) : null;
+        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.save", "started", "userId", userId);
+        Users user = (userId != null) ? requestDataLoader.userByUserId(userId) : null;
 
         if (user == null) {
             throw new UsernameNotFoundException("ユーザーが見つかりません");
@@ -59,7 +59,7 @@ public class RefreshTokenService {
         refreshToken.setExpiresAt(expiresAt);
 
         refreshTokenMapper.insert(refreshToken);
-        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.save", "uid=" + uid, "completed");
+        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.save", "completed", "uid", uid);
     }
 
     /**
@@ -69,7 +69,7 @@ public class RefreshTokenService {
      * @return ユーザー名
      */
     public String validateRefreshToken(String refreshToken) {
-        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.validate", "tokenPresent=" + (refreshToken != null), "started");
+        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.validate", "started", "tokenPresent", (refreshToken != null));
         // 1. JWTとして有効か確認
         if (!jwtTokenProvider.validateToken(refreshToken)) {
             throw new BadCredentialsException("リフレッシュトークンが不正または期限切れです");
@@ -77,7 +77,7 @@ public class RefreshTokenService {
 
         // subject は user_id（文字列）
         String userId = jwtTokenProvider.getUserIdStringFromToken(refreshToken);
-        Users user = (userId != null) ? userMapper.selectByUserId(userId) : null;
+        Users user = (userId != null) ? requestDataLoader.userByUserId(userId) : null;
 
         if (user == null) {
             throw new UsernameNotFoundException("トークンに紐づくユーザーが存在しません");
@@ -101,7 +101,7 @@ public class RefreshTokenService {
             throw new BadCredentialsException("リフレッシュトークンが期限切れです");
         }
 
-        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.validate", "userId=" + userId + " uid=" + uid, "completed");
+        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.validate", "completed", "userId", userId, "uid", uid);
         return userId;
     }
 
@@ -112,8 +112,8 @@ public class RefreshTokenService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void deleteRefreshToken(String userId) {
-        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.delete", "userId=" + userId, "started");
-        Users user = (userId != null) ? userMapper.selectByUserId(userId) : null;
+        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.delete", "started", "userId", userId);
+        Users user = (userId != null) ? requestDataLoader.userByUserId(userId) : null;
 
         if (user == null) {
             throw new UsernameNotFoundException("ログアウト処理に失敗しました。ユーザーが存在しません。userId=" + userId);
@@ -121,16 +121,16 @@ public class RefreshTokenService {
 
         Integer uid = (user.getUserSid() != null) ? Math.toIntExact(user.getUserSid()) : null;
         refreshTokenMapper.deleteByUserSid(uid);
-        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.delete", "uid=" + uid, "completed");
+        LogUtil.service(RefreshTokenService.class, "auth.refresh-token.delete", "completed", "uid", uid);
     }
 
     /**
-     * トークンハッシュ（SHA-256）を生成する
+     * トークンハッシュ（SHA-256）を生成する（ベンチマークから呼ぶためパッケージプライベート）
      * 
      * @param token 平文トークン
      * @return 16進文字列ハッシュ
      */
-    private String hashToken(String token) {
+    String hashToken(String token) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hashed = digest.digest(token.getBytes());
@@ -42,7 +42,7 @@ public class RegistrationService {
      */
     @Transactional(rollbackFor = Exception.class)
     public LoginResponse register(RegisterRequest request) {
-        LogUtil.service(RegistrationService.class, "auth.register", "userId=" + (request != null ? request.getUserId() : null), "started");
+        LogUtil.service(RegistrationService.class, "auth.register", "started", "userId", (request != null ? request.getUserId() : null));
         // 基本バリデーション（userId/username/email/password）
         if (request.getUserId() == null || request.getUserId().isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ユーザーIDは必須です");
@@ -99,7 +99,7 @@ public class RegistrationService {
         java.util.Date refreshTokenExpireAt = jwtTokenProvider.getRefreshTokenExpiryDate();
         refreshTokenService.saveRefreshToken(request.getUserId(), refreshToken, refreshTokenExpireAt);
 
-        LogUtil.service(RegistrationService.class, "auth.register", "uid=" + uid, "completed");
+        LogUtil.service(RegistrationService.class, "auth.register", "completed", "uid", uid);
         return new LoginResponse(accessToken, refreshToken, uid);
     }
 }
@@ -1,9 +1,18 @@
 package com.aitaskmanager.service.subscription;
 
+import com.aitaskmanager.repository.customMapper.ReconcileProgressMapper;
 import com.aitaskmanager.repository.customMapper.SubscriptionsCustomMapper;
-import com.stripe.Stripe;
+import com.aitaskmanager.repository.dto.subscription.ReconcileProgress;
+import com.aitaskmanager.repository.dto.subscription.ReconcileTarget;
+import com.aitaskmanager.repository.dto.subscription.ReconcileUpdate;
 import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.stripe.model.StripeObject;
 import com.stripe.model.Subscription;
+import com.stripe.net.ApiResource;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.EventListParams;
+import com.stripe.param.SubscriptionListParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,22 +21,89 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * サブスクリプションのリコンシリエーションを行うサービス
+ * ACTIVE 契約をキーセットページングで読み進め、トークンバケットでレート制限しながら Stripe から並列取得し、
+ * 差分をページごとにまとめて反映する。進捗はページごとに保存し、中断した実行は次回その続きから再開する。
+ * stripe.reconcile.mode=list の場合は一覧APIと差分イベントで照合し、API 呼び出し数を約1/100にする。
  */
 @Service
 public class SubscriptionReconciliationService {
     private static final Logger log = LoggerFactory.getLogger(SubscriptionReconciliationService.class);
 
+    /** 進捗テーブルのジョブ名 */
+    private static final String JOB_NAME = "subscription-reconcile";
+
+    /** 進捗テーブルのジョブ名（一覧APIによる差分リコンシリエーション） */
+    private static final String LIST_JOB_NAME = "subscription-list-sync";
+
+    /** Stripe 一覧APIの1ページの件数（上限） */
+    private static final long LIST_PAGE_LIMIT = 100L;
+
+    /** Stripe がイベントを保持する期間。ウォーターマークがこれより古い場合は全件を照合する */
+    private static final Duration EVENT_RETENTION = Duration.ofDays(30);
+
+    /** ウォーターマークの重なり幅（実行中に発生したイベントの取りこぼし防止） */
+    private static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(5);
+
+    /** 差分取得の対象とするイベント種別 */
+    private static final List<String> SUBSCRIPTION_EVENT_TYPES = List.of("customer.subscription.updated", "customer.subscription.deleted");
+
     @Autowired
     private SubscriptionsCustomMapper subscriptionsCustomMapper;
 
+    @Autowired
+    private ReconcileProgressMapper reconcileProgressMapper;
+
     @Value("${stripe.apiKey:}")
     private String stripeApiKey;
 
+    /** Stripe APIのベースURL（stripe-mock 等のスタブを使う場合のみ指定） */
+    @Value("${stripe.apiBase:}")
+    private String stripeApiBase;
+
+    /** 1ページで読み込む契約数 */
+    @Value("${stripe.reconcile.pageSize:500}")
+    private int pageSize;
+
+    /** 1回の UPDATE で反映する最大件数 */
+    @Value("${stripe.reconcile.writeBatchSize:200}")
+    private int writeBatchSize;
+
+    /** Stripe API の同時呼び出し数 */
+    @Value("${stripe.reconcile.concurrency:8}")
+    private int concurrency;
+
+    /** Stripe API の1秒あたりの呼び出し上限（Stripe の読み取りレート制限より低く設定する） */
+    @Value("${stripe.reconcile.ratePerSecond:25}")
+    private double ratePerSecond;
+
+    /** 中断した実行を再開する対象とする期間（時間）。これより古いものは最初からやり直す */
+    @Value("${stripe.reconcile.resumeWindowHours:20}")
+    private long resumeWindowHours;
+
+    /** 照合方式（retrieve: 契約ごとに取得 / list: 一覧APIと差分イベントで照合） */
+    @Value("${stripe.reconcile.mode:retrieve}")
+    private String mode;
+
+    /** 実行中フラグ（多重起動防止） */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
     /**
      * 日次のリコンシリエーション（毎日 02:30）
      */
@@ -37,32 +113,293 @@ public class SubscriptionReconciliationService {
             log.warn("Stripe API key not configured; skip reconciliation");
             return;
         }
-        Stripe.apiKey = stripeApiKey;
-        List<Map<String, Object>> rows = subscriptionsCustomMapper.selectActiveWithStripeId();
-        log.info("Reconciling {} active subscriptions with Stripe IDs", rows.size());
-        for (Map<String, Object> row : rows) {
-            String subId = (String) row.get("stripe_subscription_id");
-            try {
-                Subscription sub = Subscription.retrieve(subId);
-                Boolean cancelAtPeriodEnd = sub.getCancelAtPeriodEnd();
-                Long currentPeriodEnd = sub.getCurrentPeriodEnd();
-                String status = sub.getStatus();
-                if (Boolean.TRUE.equals(cancelAtPeriodEnd) && currentPeriodEnd != null) {
-                    Timestamp expiresAt = new Timestamp(currentPeriodEnd * 1000L);
-                    subscriptionsCustomMapper.updateExpiresAtByStripeId(subId, expiresAt);
-                    log.info("Updated expires_at for {} to {}", subId, expiresAt);
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Reconciliation already running; skip");
+            return;
+        }
+        try {
+            if ("list".equalsIgnoreCase(mode)) {
+                reconcileByList();
+            } else {
+                reconcile();
+            }
+        } catch (Exception ex) {
+            log.error("Reconciliation aborted: {}", ex.getMessage(), ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * リコンシリエーション本体
+     */
+    private void reconcile() {
+        RequestOptions options = requestOptions();
+        ReconcileProgress progress = startOrResume();
+        TokenBucket bucket = new TokenBucket(ratePerSecond, Math.max(1, concurrency));
+        AtomicInteger threadSeq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "subscription-reconcile-" + threadSeq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.currentTimeMillis();
+        try {
+            while (true) {
+                List<ReconcileTarget> page = subscriptionsCustomMapper.selectActiveWithStripeIdAfter(progress.getLastSid(), pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                AtomicInteger failed = new AtomicInteger();
+                List<CompletableFuture<ReconcileUpdate>> futures = new ArrayList<>(page.size());
+                for (ReconcileTarget target : page) {
+                    futures.add(CompletableFuture.supplyAsync(() -> fetchUpdate(target, bucket, options, failed), pool));
                 }
-                if ("canceled".equalsIgnoreCase(status)) {
-                    Long canceledAt = sub.getCanceledAt();
-                    Timestamp canceledTs = (canceledAt != null) ? new Timestamp(canceledAt * 1000L) : (currentPeriodEnd != null ? new Timestamp(currentPeriodEnd * 1000L) : null);
-                    subscriptionsCustomMapper.cancelByStripeId(subId, canceledTs);
-                    log.info("Marked subscription {} as CANCELLED at {}", subId, canceledTs);
+                List<ReconcileUpdate> updates = new ArrayList<>();
+                for (CompletableFuture<ReconcileUpdate> f : futures) {
+                    ReconcileUpdate u = f.join();
+                    if (u != null) updates.add(u);
+                }
+                int updated = applyUpdates(updates);
+
+                // ページの反映後に進捗を保存（中断時はここから再開）
+                progress.setLastSid(page.get(page.size() - 1).getSubscriptionSid());
+                progress.setProcessed(progress.getProcessed() + page.size());
+                progress.setUpdated(progress.getUpdated() + updated);
+                progress.setFailed(progress.getFailed() + failed.get());
+                reconcileProgressMapper.upsert(progress);
+                log.info("Reconciliation page done: lastSid={} processed={} updated={} failed={}",
+                        progress.getLastSid(), progress.getProcessed(), progress.getUpdated(), progress.getFailed());
+                if (page.size() < pageSize) {
+                    break;
                 }
-            } catch (StripeException se) {
-                log.error("Stripe error retrieving subscription {}: {}", subId, se.getMessage());
-            } catch (Exception ex) {
-                log.error("Error reconciling subscription {}: {}", subId, ex.getMessage(), ex);
             }
+            progress.setFinishedAt(new Date());
+            reconcileProgressMapper.upsert(progress);
+            log.info("Reconciliation finished: processed={} updated={} failed={} took={}ms",
+                    progress.getProcessed(), progress.getUpdated(), progress.getFailed(), System.currentTimeMillis() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 前回の実行が途中で終わっていれば続きから、そうでなければ最初から始める
+     *
+     * @return 今回の実行の進捗
+     */
+    private ReconcileProgress startOrResume() {
+        ReconcileProgress prev = reconcileProgressMapper.selectByJobName(JOB_NAME);
+        if (prev != null && prev.getFinishedAt() == null && prev.getStartedAt() != null
+                && prev.getStartedAt().toInstant().isAfter(Instant.now().minus(Duration.ofHours(resumeWindowHours)))) {
+            log.info("Resuming reconciliation from subscription_sid > {} (processed={})", prev.getLastSid(), prev.getProcessed());
+            return prev;
+        }
+        ReconcileProgress progress = new ReconcileProgress();
+        progress.setJobName(JOB_NAME);
+        progress.setLastSid(0);
+        progress.setProcessed(0);
+        progress.setUpdated(0);
+        progress.setFailed(0);
+        progress.setStartedAt(new Date());
+        reconcileProgressMapper.upsert(progress);
+        return progress;
+    }
+
+    /**
+     * Stripe からサブスクリプションを取得し、ローカルに反映すべき更新内容を求める
+     *
+     * @param target 対象契約
+     * @param bucket レート制限
+     * @param options Stripe リクエストオプション
+     * @param failed 失敗件数
+     * @return 更新内容（更新不要・取得失敗の場合はNULL）
+     */
+    private ReconcileUpdate fetchUpdate(ReconcileTarget target, TokenBucket bucket, RequestOptions options, AtomicInteger failed) {
+        String subId = target.getStripeSubscriptionId();
+        try {
+            bucket.acquire();
+            Subscription sub = Subscription.retrieve(subId, options);
+            return toUpdate(sub);
+        } catch (StripeException se) {
+            failed.incrementAndGet();
+            log.error("Stripe error retrieving subscription {}: {}", subId, se.getMessage());
+            return null;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            return null;
+        } catch (Exception ex) {
+            failed.incrementAndGet();
+            log.error("Error reconciling subscription {}: {}", subId, ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * Stripe 上の状態からローカルに反映すべき更新内容を求める
+     *
+     * @param sub Stripe サブスクリプション
+     * @return 更新内容（更新不要の場合はNULL）
+     */
+    private ReconcileUpdate toUpdate(Subscription sub) {
+        String subId = sub.getId();
+        Boolean cancelAtPeriodEnd = sub.getCancelAtPeriodEnd();
+        Long currentPeriodEnd = sub.getCurrentPeriodEnd();
+        String status = sub.getStatus();
+        if ("canceled".equalsIgnoreCase(status)) {
+            Long canceledAt = sub.getCanceledAt();
+            Timestamp canceledTs = (canceledAt != null) ? new Timestamp(canceledAt * 1000L) : (currentPeriodEnd != null ? new Timestamp(currentPeriodEnd * 1000L) : null);
+            log.info("Marking subscription {} as CANCELLED at {}", subId, canceledTs);
+            return new ReconcileUpdate(subId, true, canceledTs);
+        }
+        if (Boolean.TRUE.equals(cancelAtPeriodEnd) && currentPeriodEnd != null) {
+            Timestamp expiresAt = new Timestamp(currentPeriodEnd * 1000L);
+            log.info("Updating expires_at for {} to {}", subId, expiresAt);
+            return new ReconcileUpdate(subId, false, expiresAt);
+        }
+        return null;
+    }
+
+    /**
+     * 一覧APIによる差分リコンシリエーション
+     * 初回（またはウォーターマークがイベント保持期間より古い場合）は Subscription.list を全件ページングし、
+     * 以降は前回実行以降のサブスクリプション更新イベントだけを Event.list で取得して照合する。
+     * いずれも1回の API 呼び出しで100件ずつ取得し、ローカルの ACTIVE 契約インデックスと突き合わせる。
+     */
+    private void reconcileByList() {
+        RequestOptions options = requestOptions();
+        long start = System.currentTimeMillis();
+        Instant runStartedAt = Instant.now();
+
+        // ローカルの ACTIVE 契約インデックス（Stripe購読ID → 現在の expires_at）
+        Map<String, Timestamp> index = new HashMap<>();
+        for (Map<String, Object> row : subscriptionsCustomMapper.selectActiveWithStripeId()) {
+            Object expires = row.get("expires_at");
+            index.put((String) row.get("stripe_subscription_id"), expires instanceof Timestamp ? (Timestamp) expires : null);
+        }
+
+        ReconcileProgress prev = reconcileProgressMapper.selectByJobName(LIST_JOB_NAME);
+        Instant watermark = (prev != null && prev.getFinishedAt() != null && prev.getStartedAt() != null)
+                ? prev.getStartedAt().toInstant().minus(WATERMARK_OVERLAP)
+                : null;
+        boolean incremental = watermark != null && watermark.isAfter(runStartedAt.minus(EVENT_RETENTION));
+
+        ReconcileProgress progress = new ReconcileProgress();
+        progress.setJobName(LIST_JOB_NAME);
+        progress.setLastSid(0);
+        progress.setProcessed(0);
+        progress.setUpdated(0);
+        progress.setFailed(0);
+        progress.setStartedAt(Date.from(runStartedAt));
+
+        List<ReconcileUpdate> updates = new ArrayList<>();
+        int examined = 0;
+        try {
+            if (incremental) {
+                // 新しい順に返るため、サブスクリプションごとに最初に見たもの（最新の状態）だけを使う
+                Set<String> seen = new HashSet<>();
+                EventListParams params = EventListParams.builder()
+                        .addAllType(SUBSCRIPTION_EVENT_TYPES)
+                        .setCreated(EventListParams.Created.builder().setGt(watermark.getEpochSecond()).build())
+                        .setLimit(LIST_PAGE_LIMIT)
+                        .build();
+                for (Event event : Event.list(params, options).autoPagingIterable()) {
+                    examined++;
+                    Subscription sub = subscriptionOf(event);
+                    if (sub == null || !seen.add(sub.getId())) continue;
+                    addIfChanged(sub, index, updates);
+                }
+            } else {
+                SubscriptionListParams params = SubscriptionListParams.builder()
+                        .setStatus(SubscriptionListParams.Status.ALL)
+                        .setCreated(SubscriptionListParams.Created.builder().setLte(runStartedAt.getEpochSecond()).build())
+                        .setLimit(LIST_PAGE_LIMIT)
+                        .build();
+                for (Subscription sub : Subscription.list(params, options).autoPagingIterable()) {
+                    examined++;
+                    addIfChanged(sub, index, updates);
+                }
+            }
+        } catch (StripeException se) {
+            // ウォーターマークを進めずに終了（次回は同じ位置から取得し直す）
+            log.error("Stripe error listing subscriptions (incremental={}): {}", incremental, se.getMessage());
+            return;
+        }
+
+        progress.setProcessed(examined);
+        progress.setUpdated(applyUpdates(updates));
+        progress.setFinishedAt(new Date());
+        reconcileProgressMapper.upsert(progress);
+        log.info("List reconciliation finished: incremental={} since={} localActive={} examined={} updated={} took={}ms",
+                incremental, watermark, index.size(), examined, progress.getUpdated(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * ローカルの ACTIVE 契約で、Stripe 側と差分があるものを更新対象に加える
+     *
+     * @param sub Stripe サブスクリプション
+     * @param index ローカルの ACTIVE 契約インデックス
+     * @param updates 更新対象
+     */
+    private void addIfChanged(Subscription sub, Map<String, Timestamp> index, List<ReconcileUpdate> updates) {
+        if (!index.containsKey(sub.getId())) return;
+        ReconcileUpdate u = toUpdate(sub);
+        if (u == null) return;
+        // expires_at のみの更新で値が同じ場合は書き込まない
+        if (!u.isCancel() && u.getExpiresAt() != null && u.getExpiresAt().equals(index.get(sub.getId()))) return;
+        updates.add(u);
+    }
+
+    /**
+     * イベントのデータオブジェクトからサブスクリプションを取り出す（API バージョン不一致時は rawJson から再構築する）
+     *
+     * @param event Stripe イベント
+     * @return サブスクリプション（取り出せない場合はNULL）
+     */
+    private Subscription subscriptionOf(Event event) {
+        var deser = event.getDataObjectDeserializer();
+        StripeObject obj = deser.getObject().orElse(null);
+        if (obj instanceof Subscription sub) {
+            return sub;
+        }
+        String rawJson = deser.getRawJson();
+        if (rawJson == null || rawJson.isBlank()) {
+            return null;
+        }
+        try {
+            return ApiResource.GSON.fromJson(rawJson, Subscription.class);
+        } catch (Exception ex) {
+            log.warn("Failed to read subscription from event {}: {}", event.getId(), ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 更新内容を writeBatchSize 件ずつまとめて反映する
+     *
+     * @param updates 更新内容
+     * @return 更新件数
+     */
+    private int applyUpdates(List<ReconcileUpdate> updates) {
+        int updated = 0;
+        for (int i = 0; i < updates.size(); i += writeBatchSize) {
+            List<ReconcileUpdate> chunk = updates.subList(i, Math.min(updates.size(), i + writeBatchSize));
+            updated += subscriptionsCustomMapper.batchReconcile(chunk);
+        }
+        return updated;
+    }
+
+    /**
+     * Stripe リクエストオプションを作成する（グローバルな Stripe.apiKey は変更しない）
+     */
+    private RequestOptions requestOptions() {
+        RequestOptions.RequestOptionsBuilder builder = RequestOptions.builder()
+                .setApiKey(stripeApiKey)
+                .setMaxNetworkRetries(2);
+        if (stripeApiBase != null && !stripeApiBase.isBlank()) {
+            builder.setBaseUrl(stripeApiBase);
         }
+        return builder.build();
     }
-}
\ No newline at end of file
+}
@@ -9,7 +9,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.aitaskmanager.repository.generator.SubscriptionPlansMapper;
+import com.aitaskmanager.service.catalog.CatalogService;
 import com.aitaskmanager.repository.model.SubscriptionPlans;
 import com.aitaskmanager.util.LogUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -22,7 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 public class SubscriptionService {
 
     @Autowired
-    private SubscriptionPlansMapper subscriptionPlansMapper;
+    private CatalogService catalogService;
 
     /**
      * すべてのプランを取得してクライアント向けの簡易マップへ整形
@@ -30,9 +30,9 @@ public class SubscriptionService {
      * @return プランのリスト
      */
     public List<Map<String, Object>> getPlans() {
-        LogUtil.service(SubscriptionService.class, "plans.list", "", "started");
+        LogUtil.service(SubscriptionService.class, "plans.list", "started");
         try {
-            List<SubscriptionPlans> plans = subscriptionPlansMapper.selectAll();
+            List<SubscriptionPlans> plans = catalogService.listPlans();
             List<Map<String, Object>> body = plans.stream().map(p -> {
                 Map<String, Object> m = new HashMap<>();
                 m.put("id", p.getSubscriptionPlanSid());
@@ -41,7 +41,7 @@ public class SubscriptionService {
                 m.put("aiQuota", p.getAiQuota());
                 return m;
             }).toList();
-            LogUtil.service(SubscriptionService.class, "plans.list", "count=" + body.size(), "completed");
+            LogUtil.service(SubscriptionService.class, "plans.list", "completed", "count", body.size());
             return body;
         } catch (ResponseStatusException ex) {
             throw ex;
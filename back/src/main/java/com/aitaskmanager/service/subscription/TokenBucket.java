@@ -0,0 +1,58 @@
+package com.aitaskmanager.service.subscription;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 外部APIの呼び出しレートを制限するトークンバケット（スレッドセーフ）
+ * 1秒あたり ratePerSecond 個のトークンを補充し、最大 burst 個まで貯める。
+ */
+class TokenBucket {
+
+    private final double ratePerNanos;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * コンストラクタ
+     *
+     * @param ratePerSecond 1秒あたりの補充数
+     * @param burst 最大保持数
+     */
+    TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0) throw new IllegalArgumentException("ratePerSecond must be positive");
+        this.ratePerNanos = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * トークンを1つ取得する（足りない場合は補充されるまで待つ）
+     *
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / ratePerNanos);
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 経過時間に応じてトークンを補充する
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNanos);
+        lastRefill = now;
+    }
+}
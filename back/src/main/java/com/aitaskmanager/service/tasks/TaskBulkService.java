@@ -0,0 +1,196 @@
+package com.aitaskmanager.service.tasks;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.aitaskmanager.repository.customMapper.TaskMapper;
+import com.aitaskmanager.repository.dto.tasks.TaskBulkItemResult;
+import com.aitaskmanager.repository.dto.tasks.TaskBulkOperation;
+import com.aitaskmanager.repository.dto.tasks.TaskBulkRequest;
+import com.aitaskmanager.repository.dto.tasks.TaskBulkResponse;
+import com.aitaskmanager.repository.model.Tasks;
+import com.aitaskmanager.util.LogUtil;
+import com.aitaskmanager.util.TaskUtils;
+
+/**
+ * タスクの一括操作（ステータス・優先度・期限日の変更、削除）を提供するサービス。
+ * 操作ごとに対象ID群を配列で渡し、1文の UPDATE / DELETE でまとめて適用する。
+ */
+@Service
+public class TaskBulkService {
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private TaskRollupService taskRollupService;
+
+    @Autowired
+    private TaskSummaryService taskSummaryService;
+
+    /**
+     * 一括操作を配列の順に適用する（全体で1トランザクション）。
+     * 値の不正は適用前に 400 とし、存在しない・本人のものでないタスクはタスクごとの結果で NOT_FOUND を返す。
+     *
+     * @param userSid ユーザーSID
+     * @param request 一括操作リクエスト
+     * @return タスクごとの結果と件数
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public TaskBulkResponse apply(Integer userSid, TaskBulkRequest request) {
+        if (userSid == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ユーザーが存在しません");
+        }
+        // 途中まで書き込んでから 400 にならないよう、先にすべての値を検証する
+        List<Object> values = new ArrayList<>(request.getOperations().size());
+        for (TaskBulkOperation op : request.getOperations()) {
+            values.add(parseValue(op));
+        }
+        LogUtil.service(TaskBulkService.class, "tasks.bulk", "started", "userSid", userSid, "operations", request.getOperations().size());
+
+        // 親の集計列を計算し直すため、行を書き換える前にツリーのロックを取る
+        taskMapper.lockUserTaskTree(TaskService.TREE_LOCK_NAMESPACE, userSid);
+
+        TaskBulkResponse response = new TaskBulkResponse();
+        List<TaskBulkItemResult> results = new ArrayList<>();
+        // 集計列を計算し直す親（全操作の適用後にまとめて1回だけたどる）
+        Set<Integer> rollupParents = new LinkedHashSet<>();
+        Set<Integer> deletedAll = new HashSet<>();
+        for (int i = 0; i < request.getOperations().size(); i++) {
+            TaskBulkOperation op = request.getOperations().get(i);
+            Integer[] ids = new LinkedHashSet<>(op.getIds()).toArray(new Integer[0]);
+            if ("delete".equals(op.getOp())) {
+                applyDelete(userSid, op.getOp(), ids, results, response, rollupParents, deletedAll);
+            } else {
+                applyUpdate(userSid, op.getOp(), ids, values.get(i), results, response, rollupParents);
+            }
+        }
+        rollupParents.removeAll(deletedAll);
+        taskRollupService.refreshFrom(userSid, rollupParents);
+        if (response.getUpdated() + response.getDeleted() > 0) {
+            taskSummaryService.invalidate(userSid);
+        }
+        response.setResults(results);
+        LogUtil.service(TaskBulkService.class, "tasks.bulk", "completed", "userSid", userSid,
+                "updated", response.getUpdated(), "deleted", response.getDeleted() + response.getDeletedDescendants());
+        return response;
+    }
+
+    /**
+     * 更新系の操作を適用する
+     */
+    private void applyUpdate(Integer userSid, String op, Integer[] ids, Object value,
+                             List<TaskBulkItemResult> results, TaskBulkResponse response, Set<Integer> rollupParents) {
+        List<Tasks> updated = switch (op) {
+            case "status" -> taskMapper.bulkUpdateStatus(userSid, ids, (String) value);
+            case "priority" -> taskMapper.bulkUpdatePriority(userSid, ids, (String) value);
+            case "due_date" -> taskMapper.bulkUpdateDueDate(userSid, ids, (java.sql.Date) value);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "操作の種類が不正です");
+        };
+        Set<Integer> updatedSet = new HashSet<>();
+        for (Tasks t : updated) {
+            updatedSet.add(t.getTaskSid());
+            // 優先度は親の集計列に影響しない
+            if (!"priority".equals(op) && t.getParentTaskSid() != null) rollupParents.add(t.getParentTaskSid());
+        }
+        // 更新されなかったIDだけ、変更なしか存在しないかを確認する
+        Set<Integer> existing = Set.of();
+        if (updatedSet.size() < ids.length) {
+            Integer[] rest = remaining(ids, updatedSet);
+            existing = new HashSet<>(taskMapper.selectExistingIds(userSid, rest));
+        }
+        for (Integer id : ids) {
+            if (updatedSet.contains(id)) {
+                results.add(new TaskBulkItemResult(id, op, TaskBulkItemResult.UPDATED));
+                response.setUpdated(response.getUpdated() + 1);
+            } else if (existing.contains(id)) {
+                results.add(new TaskBulkItemResult(id, op, TaskBulkItemResult.UNCHANGED));
+                response.setUnchanged(response.getUnchanged() + 1);
+            } else {
+                results.add(new TaskBulkItemResult(id, op, TaskBulkItemResult.NOT_FOUND));
+                response.setNotFound(response.getNotFound() + 1);
+            }
+        }
+    }
+
+    /**
+     * 削除操作を適用する（配下のタスクも同じ文で削除する）
+     */
+    private void applyDelete(Integer userSid, String op, Integer[] ids, List<TaskBulkItemResult> results,
+                             TaskBulkResponse response, Set<Integer> rollupParents, Set<Integer> deletedAll) {
+        Set<Integer> deleted = new HashSet<>();
+        for (Tasks t : taskMapper.bulkDeleteSubtrees(userSid, ids)) {
+            deleted.add(t.getTaskSid());
+            if (t.getParentTaskSid() != null) rollupParents.add(t.getParentTaskSid());
+        }
+        deletedAll.addAll(deleted);
+        int requested = 0;
+        for (Integer id : ids) {
+            if (deleted.contains(id)) {
+                results.add(new TaskBulkItemResult(id, op, TaskBulkItemResult.DELETED));
+                requested++;
+            } else {
+                results.add(new TaskBulkItemResult(id, op, TaskBulkItemResult.NOT_FOUND));
+                response.setNotFound(response.getNotFound() + 1);
+            }
+        }
+        response.setDeleted(response.getDeleted() + requested);
+        response.setDeletedDescendants(response.getDeletedDescendants() + deleted.size() - requested);
+    }
+
+    /**
+     * 操作の値を検証して SQL に渡す型へ変換する
+     *
+     * @param op 操作
+     * @return ステータス・優先度は文字列、期限日は java.sql.Date（期限なしはNULL）、削除はNULL
+     */
+    private static Object parseValue(TaskBulkOperation op) {
+        String value = op.getValue();
+        switch (op.getOp()) {
+            case "status":
+                if (value == null || !value.equals(TaskUtils.normalizeStatus(value))) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ステータスが不正です");
+                }
+                return value;
+            case "priority":
+                if (value == null || !value.equals(TaskUtils.normalizePriority(value))) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "優先度が不正です");
+                }
+                return value;
+            case "due_date":
+                if (value == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "期限日は必須です（期限なしにする場合は空文字）");
+                }
+                try {
+                    return TaskUtils.toSqlDate(value);
+                } catch (DateTimeParseException ex) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "存在しない日付です");
+                }
+            case "delete":
+                return null;
+            default:
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "操作の種類が不正です");
+        }
+    }
+
+    /**
+     * 更新されなかったIDを取り出す
+     */
+    private static Integer[] remaining(Integer[] ids, Set<Integer> done) {
+        List<Integer> rest = new ArrayList<>(ids.length - done.size());
+        for (Integer id : ids) {
+            if (!done.contains(id)) rest.add(id);
+        }
+        return rest.toArray(new Integer[0]);
+    }
+}
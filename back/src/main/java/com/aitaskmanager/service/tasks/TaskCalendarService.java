@@ -0,0 +1,88 @@
+package com.aitaskmanager.service.tasks;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.aitaskmanager.repository.customMapper.TaskMapper;
+import com.aitaskmanager.repository.dto.tasks.TaskCalendarDay;
+import com.aitaskmanager.repository.dto.tasks.TaskCalendarResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskCalendarRow;
+import com.aitaskmanager.util.LogUtil;
+
+/**
+ * カレンダー表示用に、期限日ごとのタスクIDと件数（ステータス別・優先度別）を提供するサービス。
+ * 全タスクを返さず、表示期間の集計だけを1回の範囲検索で取得する。
+ */
+@Service
+public class TaskCalendarService {
+
+    /** 1回に取得できる期間の最大日数（月表示の6週＋前後の余裕） */
+    public static final int MAX_RANGE_DAYS = 62;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    /**
+     * 期間内の日ごとの集計を取得する
+     *
+     * @param userSid ユーザーSID
+     * @param from 期間の開始日（yyyy-MM-dd）
+     * @param to 期間の終了日（yyyy-MM-dd、この日を含む）
+     * @return 期限のある日のみの集計（日付の昇順）
+     */
+    public TaskCalendarResponse getCalendar(Integer userSid, String from, String to) {
+        LocalDate fromDate = parseDate(from, "from");
+        LocalDate toDate = parseDate(to, "to");
+        if (toDate.isBefore(fromDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to は from 以降の日付を指定してください");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "期間は" + MAX_RANGE_DAYS + "日以内で指定してください");
+        }
+        LogUtil.service(TaskCalendarService.class, "tasks.calendar", "started", "userSid", userSid, "from", fromDate, "to", toDate);
+
+        // 期限日×ステータス×優先度の行を日ごとにまとめる（行は期限日の昇順）
+        Map<String, TaskCalendarDay> days = new LinkedHashMap<>();
+        for (TaskCalendarRow row : taskMapper.selectCalendar(userSid, Date.valueOf(fromDate), Date.valueOf(toDate))) {
+            TaskCalendarDay day = days.get(row.getDueDate());
+            if (day == null) {
+                day = new TaskCalendarDay();
+                day.setDate(row.getDueDate());
+                days.put(row.getDueDate(), day);
+            }
+            day.setTotal(day.getTotal() + row.getTaskCount());
+            day.getByStatus().merge(row.getStatus(), row.getTaskCount(), Integer::sum);
+            day.getByPriority().merge(row.getPriority(), row.getTaskCount(), Integer::sum);
+            if (row.getTaskSids() != null) day.getTaskIds().addAll(Arrays.asList(row.getTaskSids()));
+        }
+        List<TaskCalendarDay> result = new ArrayList<>(days.values());
+        for (TaskCalendarDay day : result) {
+            day.getTaskIds().sort(null);
+        }
+        LogUtil.service(TaskCalendarService.class, "tasks.calendar", "completed", "userSid", userSid, "days", result.size());
+        return new TaskCalendarResponse(fromDate.toString(), toDate.toString(), result);
+    }
+
+    /**
+     * yyyy-MM-dd の日付を解析する（不正な場合は 400）
+     */
+    private static LocalDate parseDate(String value, String name) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + " は yyyy-MM-dd 形式で指定してください");
+        }
+    }
+}
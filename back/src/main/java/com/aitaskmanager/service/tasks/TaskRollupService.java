@@ -0,0 +1,114 @@
+package com.aitaskmanager.service.tasks;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aitaskmanager.repository.customMapper.TaskMapper;
+import com.aitaskmanager.util.LogUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 親タスクの集計列（子孫数・完了数・未完了の子孫の最早期限）を維持するサービス。
+ * 書き込みのたびに変更箇所の親から祖先方向へ1階層ずつ計算し直し、
+ * 定期実行で全体を子孫の閉包から計算し直してずれを修復する。
+ */
+@Service
+@Slf4j
+public class TaskRollupService {
+
+    /** 祖先方向へたどる最大回数（階層は最大4のため通常は3回以内で止まる） */
+    private static final int MAX_LEVELS = 16;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    /** 修復をユーザーごとの別トランザクションで行うためのテンプレート */
+    private final TransactionTemplate perUserTransaction;
+
+    /**
+     * コンストラクタ
+     *
+     * @param transactionManager トランザクションマネージャ
+     */
+    public TaskRollupService(PlatformTransactionManager transactionManager) {
+        this.perUserTransaction = new TransactionTemplate(transactionManager);
+        this.perUserTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 子が追加・変更・削除されたタスクから祖先方向へ集計列を計算し直す。
+     * 各階層は直下の子の値と集計列だけから求め、値が変わらなかった時点でそれより上はたどらない。
+     * 呼び出し元のトランザクション内で実行する。
+     * 呼び出し元は子の行を書き換える前にユーザーのツリーのロック（{@link TaskMapper#lockUserTaskTree}）を取っておくこと。
+     * 同じユーザーの集計は1件ずつ直列に行われ、後の側は先の側のコミット後の値から計算するため、
+     * 先の結果を古い値で上書きせず、祖先の行を互いに逆順で待つこともない。
+     *
+     * @param userSid ユーザーSID
+     * @param taskSids 子が変わったタスクSID群（NULLは無視する）
+     */
+    public void refreshFrom(Integer userSid, Collection<Integer> taskSids) {
+        Set<Integer> level = new LinkedHashSet<>();
+        for (Integer sid : taskSids) {
+            if (sid != null) level.add(sid);
+        }
+        if (level.isEmpty()) return;
+        for (int i = 0; i < MAX_LEVELS && !level.isEmpty(); i++) {
+            List<Integer> parents = taskMapper.refreshRollups(userSid, level.toArray(new Integer[0]));
+            level = new LinkedHashSet<>();
+            for (Integer parent : parents) {
+                if (parent != null) level.add(parent);
+            }
+        }
+        if (!level.isEmpty()) {
+            log.warn("[TaskRollupService] refresh stopped at level limit userSid={} remaining={}", userSid, level);
+        }
+    }
+
+    /**
+     * 子が変わったタスク1件から祖先方向へ集計列を計算し直す
+     *
+     * @param userSid ユーザーSID
+     * @param taskSid 子が変わったタスクSID（NULLの場合は何もしない）
+     */
+    public void refreshFrom(Integer userSid, Integer taskSid) {
+        if (taskSid != null) {
+            refreshFrom(userSid, List.of(taskSid));
+        }
+    }
+
+    /**
+     * 全タスクの集計列を子孫全体から計算し直す（定期実行）。
+     * ユーザーごとに別トランザクションでツリーのロックを取ってから修復し、書き込み中のユーザーとは直列化する
+     * （全ユーザーを1文で更新すると行のロック順が書き込み側とそろわず、デッドロックになり得るため）。
+     *
+     * @return 修復した行数
+     */
+    @Scheduled(cron = "${tasks.rollup.repairCron:0 40 3 * * *}")
+    public int repairAll() {
+        LogUtil.service(TaskRollupService.class, "tasks.rollup-repair", "started");
+        int repaired = 0;
+        for (Integer userSid : taskMapper.selectUserSidsWithTasks()) {
+            Integer rows = perUserTransaction.execute(st -> {
+                taskMapper.lockUserTaskTree(TaskService.TREE_LOCK_NAMESPACE, userSid);
+                return taskMapper.repairAllRollups(userSid);
+            });
+            repaired += rows != null ? rows : 0;
+        }
+        if (repaired > 0) {
+            // 増分更新の漏れがあったことを示すため WARN で残す
+            log.warn("[TaskRollupService] rollup drift repaired rows={}", repaired);
+        }
+        LogUtil.service(TaskRollupService.class, "tasks.rollup-repair", "completed", "repaired", repaired);
+        return repaired;
+    }
+}
@@ -0,0 +1,156 @@
+package com.aitaskmanager.service.tasks;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.aitaskmanager.repository.customMapper.TaskMapper;
+import com.aitaskmanager.repository.dto.tasks.TaskResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskSearchResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskSearchRow;
+import com.aitaskmanager.repository.model.Tasks;
+import com.aitaskmanager.util.LogUtil;
+
+/**
+ * タスクの検索（タイトル・説明）を提供するサービス。
+ * 日本語は PostgreSQL 標準の全文検索では分かち書きされないため、日本語を含む検索語は部分一致（トライグラム索引）で、
+ * それ以外は全文検索（tsvector）とあいまい一致（pg_trgm）で検索する。
+ */
+@Service
+public class TaskSearchService {
+
+    /** 言語の指定: 検索語から判定する */
+    public static final String LANG_AUTO = "auto";
+    /** 言語の指定: 日本語向けの部分一致 */
+    public static final String LANG_JA = "ja";
+    /** 言語の指定: 全文検索とあいまい一致 */
+    public static final String LANG_SIMPLE = "simple";
+
+    /** 検索語の最大文字数 */
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    /** 日本語向け検索で AND 条件にする語の最大数 */
+    private static final int MAX_TERMS = 8;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    /**
+     * 本人のタスクを検索する
+     *
+     * @param userSid ユーザーSID
+     * @param q 検索語
+     * @param lang 言語の指定（auto / ja / simple）
+     * @param limit 取得件数
+     * @param cursor 前ページのレスポンスの nextCursor（先頭ページはNULL）
+     * @param mapper タスクを応答DTOへ変換する関数（一覧・作成などと同じ変換を使う）
+     * @return スコアの高い順の検索結果と次ページのカーソル
+     */
+    public TaskSearchResponse search(Integer userSid, String q, String lang, int limit, String cursor,
+                                     Function<? super Tasks, TaskResponse> mapper) {
+        String query = normalize(q);
+        if (query.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "検索語は必須です");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "検索語は" + MAX_QUERY_LENGTH + "文字以内で入力してください");
+        }
+        boolean japanese = switch (lang == null ? LANG_AUTO : lang) {
+            case LANG_AUTO -> containsJapanese(query);
+            case LANG_JA -> true;
+            case LANG_SIMPLE -> false;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lang は auto / ja / simple のいずれかを指定してください");
+        };
+        List<String> patterns = japanese ? likePatterns(query) : List.of();
+        Double afterRank = null;
+        Integer afterTaskSid = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = decodeCursor(cursor);
+            afterRank = Double.valueOf(parts[0]);
+            afterTaskSid = Integer.valueOf(parts[1]);
+        }
+        LogUtil.service(TaskSearchService.class, "tasks.search", "started", "userSid", userSid, "japanese", japanese);
+
+        // 1件多く取得して次ページの有無を判定する
+        List<TaskSearchRow> rows = taskMapper.searchTasks(userSid, query, japanese, patterns, afterRank, afterTaskSid, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<TaskSearchRow> page = hasNext ? rows.subList(0, limit) : rows;
+
+        List<TaskResponse> items = new ArrayList<>(page.size());
+        for (TaskSearchRow row : page) {
+            items.add(mapper.apply(row));
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            TaskSearchRow last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getRank(), last.getTaskSid());
+        }
+        LogUtil.service(TaskSearchService.class, "tasks.search", "completed", "userSid", userSid, "count", items.size());
+        return new TaskSearchResponse(items, nextCursor);
+    }
+
+    /**
+     * 検索語を正規化する（NFKC で全角英数・半角カナなどをそろえ、連続する空白を1つにする）
+     */
+    static String normalize(String q) {
+        if (q == null) return "";
+        return Normalizer.normalize(q, Normalizer.Form.NFKC).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * 日本語（ひらがな・カタカナ・漢字）を含むか判定する
+     */
+    static boolean containsJapanese(String s) {
+        return s.codePoints().anyMatch(cp -> {
+            Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+            return script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA
+                    || script == Character.UnicodeScript.HAN;
+        });
+    }
+
+    /**
+     * 空白区切りの語ごとに部分一致の ILIKE パターンを作る（%, _, \ はエスケープする）
+     */
+    static List<String> likePatterns(String query) {
+        List<String> patterns = new ArrayList<>();
+        for (String term : query.split(" ")) {
+            if (term.isEmpty()) continue;
+            if (patterns.size() >= MAX_TERMS) break;
+            patterns.add("%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        return patterns;
+    }
+
+    /**
+     * 次ページのカーソルを作る（スコアとタスクSIDを不透明な文字列にする）
+     */
+    private static String encodeCursor(Double rank, Integer taskSid) {
+        String raw = rank + ":" + taskSid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * カーソルを [スコア, タスクSID] に戻す
+     */
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2) throw new IllegalArgumentException(raw);
+            Double.parseDouble(parts[0]);
+            Integer.parseInt(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "カーソルが不正です");
+        }
+    }
+}
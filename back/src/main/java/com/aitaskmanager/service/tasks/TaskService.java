@@ -2,7 +2,15 @@ package com.aitaskmanager.service.tasks;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TimeZone;
 import java.text.SimpleDateFormat;
 
@@ -17,18 +25,23 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import com.aitaskmanager.security.AuthUtils;
 
 import com.aitaskmanager.repository.customMapper.TaskMapper;
-import com.aitaskmanager.repository.customMapper.UserMapper;
+import com.aitaskmanager.repository.dto.tasks.TaskCloneRequest;
+import com.aitaskmanager.repository.dto.tasks.TaskMoveCheck;
+import com.aitaskmanager.repository.dto.tasks.TaskPatchRequest;
 import com.aitaskmanager.repository.dto.tasks.TaskRequest;
 import com.aitaskmanager.repository.dto.tasks.TaskTreeResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskWithRollup;
 import com.aitaskmanager.repository.customMapper.CustomAiUsageMapper;
-import com.aitaskmanager.repository.customMapper.SubscriptionsCustomMapper;
-import com.aitaskmanager.repository.generator.SubscriptionPlansMapper;
+import com.aitaskmanager.service.catalog.CatalogService;
+import com.aitaskmanager.service.loader.RequestDataLoader;
 import com.aitaskmanager.repository.model.SubscriptionPlans;
 import com.aitaskmanager.repository.model.Tasks;
 import com.aitaskmanager.repository.model.Users;
 import com.aitaskmanager.util.TaskUtils;
 import com.aitaskmanager.util.LogUtil;
+import com.aitaskmanager.util.QuotaPeriodUtils;
 import com.aitaskmanager.service.ai.OpenAiDecomposeService;
+import com.aitaskmanager.service.holiday.BusinessDayService;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -38,25 +51,46 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @Slf4j
 public class TaskService {
+
+    /** 階層の上限（root=1, 子=2, 孫=3, ひ孫=4） */
+    private static final int MAX_TREE_LEVELS = 4;
+
+    /** 部分ツリーで起点から取得できる最大の階層差（階層は最大4のため、ルートから3つ下まで） */
+    public static final int MAX_SUBTREE_DEPTH = MAX_TREE_LEVELS - 1;
+
+    /**
+     * ユーザーのタスクツリーへの書き込みを直列化するロックの名前空間（pg_advisory_xact_lock の第1キー）。
+     * 階層を変える操作（移動・複製・子の作成）と、親の集計列を計算し直す書き込みは、行を更新する前にこのロックを取る。
+     */
+    static final int TREE_LOCK_NAMESPACE = 0x7461736b;
+
+    /** 1回で複製できるタスク数の上限（4階層・各12件の木が収まる数） */
+    private static final int MAX_CLONE_SIZE = 2000;
     
     @Autowired
-    private UserMapper userMapper;
+    private RequestDataLoader requestDataLoader;
 
     @Autowired
     private TaskMapper taskMapper;
 
     @Autowired
-    private CustomAiUsageMapper customAiUsageMapper;
+    private TaskRollupService taskRollupService;
+
+    @Autowired
+    private TaskSummaryService taskSummaryService;
 
     @Autowired
-    private SubscriptionsCustomMapper subscriptionsCustomMapper;
+    private CustomAiUsageMapper customAiUsageMapper;
 
     @Autowired
-    private SubscriptionPlansMapper subscriptionPlansMapper;
+    private CatalogService catalogService;
 
     @Autowired
     private OpenAiDecomposeService openAiDecomposeService;
 
+    @Autowired
+    private BusinessDayService businessDayService;
+
     
 
     // OpenAI APIキーはapplication.propertiesから取得（環境変数依存を排除）
@@ -86,18 +120,20 @@ public class TaskService {
      */
     @Transactional(rollbackFor = Exception.class)
     public Tasks createTask(Integer userSid, TaskRequest request) {
-        LogUtil.service(TaskService.class, "tasks.create", "userSid=" + userSid, "started");
-        // 受信ペイロードの要約ログ（原因特定用）
-        log.debug("[TaskService] createTask payload userSid={} title='{}' priority={} status={} due_date={} ai_decompose={} parent_task_id={} parentTaskId={}",
-            userSid,
-            request.getTitle(),
-            request.getPriority(),
-            request.getStatus(),
-            request.getDue_date(),
-            request.getAi_decompose(),
-            request.getParent_task_id(),
-            request.getParentTaskId()
-        );
+        LogUtil.service(TaskService.class, "tasks.create", "started", "userSid", userSid);
+        // 受信ペイロードの要約ログ（原因特定用、DEBUG 無効時は引数配列も作らない）
+        if (log.isDebugEnabled()) {
+            log.debug("[TaskService] createTask payload userSid={} title='{}' priority={} status={} due_date={} ai_decompose={} parent_task_id={} parentTaskId={}",
+                userSid,
+                request.getTitle(),
+                request.getPriority(),
+                request.getStatus(),
+                request.getDue_date(),
+                request.getAi_decompose(),
+                request.getParent_task_id(),
+                request.getParentTaskId()
+            );
+        }
         String reqTitle = TaskUtils.defaultString(request.getTitle(), "").trim();
         Tasks task = new Tasks();
         task.setUserSid(userSid);
@@ -115,6 +151,8 @@ public class TaskService {
         Integer reqParentId = request.getParent_task_id() != null ? request.getParent_task_id() : request.getParentTaskId();
         log.debug("[TaskService] createTask parentId resolved={} userSid={}", reqParentId, userSid);
         if (reqParentId != null) {
+            // 深さの確認から挿入までの間に親が移動されないよう、移動と同じロックを取る
+            taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
             // 親の存在/権限を確認
             Tasks parent = taskMapper.selectByTaskSidAndUserSid(reqParentId, userSid);
             if (parent == null) {
@@ -129,28 +167,30 @@ public class TaskService {
             }
             task.setParentTaskSid(reqParentId);
         }
+        Tasks result;
         try {
-            taskMapper.insert(task); // useGeneratedKeysでID確定
+            result = taskMapper.insertReturning(task); // RETURNING で ID・作成日時まで確定
         } catch (Exception ex) {
             // 予期せぬDB例外の詳細（入力値込み）を記録して再スロー
             log.error("[TaskService] createTask insert failed userSid={} title='{}' priority={} status={} due_date={} parentId={}", 
                 userSid, task.getTitle(), task.getPriority(), task.getStatus(), request.getDue_date(), reqParentId, ex);
             throw ex;
         }
-        log.debug("[TaskService] createTask parent inserted taskSid={} parentTaskSid={} (should be null for root)", task.getTaskSid(), task.getParentTaskSid());
+        log.debug("[TaskService] createTask parent inserted taskSid={} parentTaskSid={} (should be null for root)", result.getTaskSid(), result.getParentTaskSid());
+        taskRollupService.refreshFrom(userSid, result.getParentTaskSid());
+        taskSummaryService.invalidate(userSid);
 
         // 仕様変更: 作成時（POST /api/tasks）に ai_decompose=true でも子タスクの自動生成は行わない。
         // 子タスクの生成は『プレビュー→選択保存』フローに統一するため、ここでは親のみ作成して返す。
         if (Boolean.TRUE.equals(request.getAi_decompose())) {
-            log.info("[TaskService] ai_decompose=true on create: 自動生成は行いません（プレビュー→選択保存で実施） parentSid={} userSid={}", task.getTaskSid(), userSid);
+            log.info("[TaskService] ai_decompose=true on create: 自動生成は行いません（プレビュー→選択保存で実施） parentSid={} userSid={}", result.getTaskSid(), userSid);
         }
         // AI提案から作成された子タスクの保存時は使用回数をカウント（保存時のみ消費のポリシー）
         if (Boolean.TRUE.equals(request.getAi_generated())) {
             incrementAiUsage(userSid);
         }
-        Tasks result = taskMapper.selectByTaskSidAndUserSid(task.getTaskSid(), userSid);
-        LogUtil.service(TaskService.class, "tasks.create", "taskSid=" + result.getTaskSid() + " userSid=" + userSid, "completed");
-    return result;
+        LogUtil.service(TaskService.class, "tasks.create", "completed", "taskSid", result.getTaskSid(), "userSid", userSid);
+        return result;
     }
 
     /**
@@ -163,12 +203,7 @@ public class TaskService {
      */
     @Transactional(rollbackFor = Exception.class)
     public Tasks updateTask(int taskSid, TaskRequest request, Integer userSid) {
-        LogUtil.service(TaskService.class, "tasks.update", "taskSid=" + taskSid + " userSid=" + userSid, "started");
-        // 既存タスクを取得し parentTaskId を保持（親子関係の喪失防止）
-        Tasks existing = taskMapper.selectByTaskSidAndUserSid(taskSid, userSid);
-        if (existing == null) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "更新対象のタスクが存在しません");
-        }
+        LogUtil.service(TaskService.class, "tasks.update", "started", "taskSid", taskSid, "userSid", userSid);
         String reqTitleUpdate = TaskUtils.defaultString(request.getTitle(), "").trim();
 
         Tasks task = new Tasks();
@@ -183,19 +218,226 @@ public class TaskService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "存在しない日付です");
         }
         task.setDueDate(dueSqlUpdate);
-        task.setParentTaskSid(existing.getParentTaskSid());
 
-        int update = taskMapper.update(task);
+        // 親の集計列を計算し直すため、行を更新する前にツリーのロックを取る
+        taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
+        // 存在・権限の確認を兼ねた条件付き更新（親子関係は SQL 側で保持し、更新後の行をそのまま返す）
+        Tasks result = taskMapper.updateReturning(task);
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "更新対象のタスクが存在しません");
+        }
+        taskRollupService.refreshFrom(userSid, result.getParentTaskSid());
+        taskSummaryService.invalidate(userSid);
+        LogUtil.service(TaskService.class, "tasks.update", "completed", "taskSid", taskSid, "userSid", userSid);
+        return result;
+    }
 
-        if (update == 0) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "タスクが見つからないか権限がありません");
+
+    /**
+     * タスクを部分更新する（送られた項目の列だけを書き換える）
+     *
+     * @param taskSid タスクSID
+     * @param request 部分更新リクエスト
+     * @param userSid ユーザーSID
+     * @return 更新後のタスク
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Tasks patchTask(int taskSid, TaskPatchRequest request, Integer userSid) {
+        LogUtil.service(TaskService.class, "tasks.patch", "started", "taskSid", taskSid, "userSid", userSid);
+        Tasks task = new Tasks();
+        task.setTaskSid(taskSid);
+        task.setUserSid(userSid);
+        boolean changed = false;
+        if (request.getTitle() != null) {
+            String title = request.getTitle().trim();
+            if (title.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "タイトルは必須です");
+            }
+            task.setTitle(title);
+            changed = true;
+        }
+        if (request.getDescription() != null) {
+            task.setDescription(request.getDescription());
+            changed = true;
+        }
+        if (request.getPriority() != null) {
+            task.setPriority(TaskUtils.normalizePriority(request.getPriority()));
+            changed = true;
+        }
+        if (request.getStatus() != null) {
+            task.setStatus(TaskUtils.normalizeStatus(request.getStatus()));
+            changed = true;
+        }
+        boolean clearDueDate = false;
+        if (request.getDue_date() != null) {
+            if (request.getDue_date().isBlank()) {
+                clearDueDate = true;
+            } else {
+                java.sql.Date due = TaskUtils.toSqlDate(request.getDue_date());
+                if (due == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "存在しない日付です");
+                }
+                task.setDueDate(due);
+            }
+            changed = true;
         }
 
-        Tasks result = taskMapper.selectByTaskSidAndUserSid(taskSid, userSid);
-        LogUtil.service(TaskService.class, "tasks.update", "taskSid=" + taskSid + " userSid=" + userSid, "completed");
+        // 親の集計列に影響するのはステータスと期限日のみ（その場合は行を更新する前にツリーのロックを取る）
+        boolean affectsRollup = task.getStatus() != null || request.getDue_date() != null;
+        if (affectsRollup) {
+            taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
+        }
+        Tasks result = changed
+                ? taskMapper.updatePartialReturning(task, clearDueDate)
+                : taskMapper.selectByTaskSidAndUserSid(taskSid, userSid);
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "更新対象のタスクが存在しません");
+        }
+        if (affectsRollup) {
+            taskRollupService.refreshFrom(userSid, result.getParentTaskSid());
+        }
+        if (changed) {
+            taskSummaryService.invalidate(userSid);
+        }
+        LogUtil.service(TaskService.class, "tasks.patch", changed ? "completed" : "no-change", "taskSid", taskSid, "userSid", userSid);
         return result;
     }
 
+    /**
+     * タスクのステータスのみを更新する（完了チェックの切り替え用）。
+     * 値が変わらない場合は書き込まずに現在の値を返す。
+     *
+     * @param taskSid タスクSID
+     * @param status ステータス
+     * @param userSid ユーザーSID
+     * @return task_sid, status, updated_at を持つタスク
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Tasks updateTaskStatus(int taskSid, String status, Integer userSid) {
+        // 親の集計列を計算し直すため、行を更新する前にツリーのロックを取る
+        taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
+        Tasks result = taskMapper.updateStatusReturning(taskSid, userSid, TaskUtils.normalizeStatus(status));
+        if (result != null) {
+            taskRollupService.refreshFrom(userSid, result.getParentTaskSid());
+            taskSummaryService.invalidate(userSid);
+        } else {
+            // 変更なし、または対象なし（まれなケースのみ追加で参照する）
+            result = taskMapper.selectByTaskSidAndUserSid(taskSid, userSid);
+            if (result == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "更新対象のタスクが存在しません");
+            }
+        }
+        LogUtil.service(TaskService.class, "tasks.status", "completed", "taskSid", taskSid, "userSid", userSid, "status", result.getStatus());
+        return result;
+    }
+
+    /**
+     * タスクを配下ごと別の親の下（またはルート）へ移動する。
+     * 存在・循環・移動後の深さを1回の再帰クエリで検証し、書き込みは移動するタスク1行の親の付け替えのみ。
+     *
+     * @param taskSid 移動するタスクSID
+     * @param parentTaskSid 移動先の親タスクSID（nullでルートへ移動）
+     * @param userSid ユーザーSID
+     * @return 移動後のタスク
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Tasks moveTask(int taskSid, Integer parentTaskSid, Integer userSid) {
+        LogUtil.service(TaskService.class, "tasks.move", "started", "taskSid", taskSid, "parentTaskSid", parentTaskSid, "userSid", userSid);
+        // 個々には正しい移動でも同時に実行すると循環し得るため、同じユーザーの移動は直列化する
+        taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
+        TaskMoveCheck check = taskMapper.selectMoveCheck(userSid, taskSid, parentTaskSid);
+        if (!check.isTaskExists()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "移動対象のタスクが存在しません");
+        }
+        if (parentTaskSid != null) {
+            if (!check.isTargetExists()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "親タスクが見つかりません");
+            }
+            if (check.isTargetInSubtree()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "自分自身または配下のタスクの下には移動できません");
+            }
+        }
+        if (check.getTargetDepth() + check.getSubtreeHeight() > MAX_TREE_LEVELS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "階層は最大4までです");
+        }
+        if (Objects.equals(check.getCurrentParentSid(), parentTaskSid)) {
+            LogUtil.service(TaskService.class, "tasks.move", "no-change", "taskSid", taskSid, "userSid", userSid);
+            return taskMapper.selectByTaskSidAndUserSid(taskSid, userSid);
+        }
+        Tasks result = taskMapper.updateParentReturning(userSid, taskSid, parentTaskSid);
+        // 移動元・移動先の両方の祖先で集計列を計算し直す
+        taskRollupService.refreshFrom(userSid, Arrays.asList(check.getCurrentParentSid(), parentTaskSid));
+        LogUtil.service(TaskService.class, "tasks.move", "completed", "taskSid", taskSid, "parentTaskSid", parentTaskSid, "userSid", userSid);
+        return result;
+    }
+
+    /**
+     * タスクのサブツリーを複製する（テンプレートとしての再利用）。
+     * ノード数によらず1文の INSERT ... SELECT で複製し、複製したサブツリーを返す。
+     *
+     * @param taskSid 複製元の起点タスクSID
+     * @param request 複製リクエスト
+     * @param userSid ユーザーSID
+     * @return 複製したタスクを起点とする部分ツリー
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public TaskTreeResponse cloneTask(int taskSid, TaskCloneRequest request, Integer userSid) {
+        Integer parentTaskSid = request.getParent_task_id() != null ? request.getParent_task_id() : request.getParentTaskId();
+        LogUtil.service(TaskService.class, "tasks.clone", "started", "taskSid", taskSid, "parentTaskSid", parentTaskSid, "userSid", userSid);
+        String title = null;
+        if (request.getTitle() != null) {
+            title = request.getTitle().trim();
+            if (title.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "タイトルは必須です");
+            }
+        }
+        java.sql.Date anchor = null;
+        if (request.getDueDateAnchor() != null) {
+            try {
+                anchor = TaskUtils.toSqlDate(request.getDueDateAnchor());
+            } catch (DateTimeParseException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "存在しない日付です");
+            }
+        }
+        // 移動と同じロックを取り、同じ検証（存在・深さ）を行う。複製は元を変更しないため、配下への複製も許可する
+        taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
+        TaskMoveCheck check = taskMapper.selectMoveCheck(userSid, taskSid, parentTaskSid);
+        if (!check.isTaskExists()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "複製元のタスクが存在しません");
+        }
+        if (parentTaskSid != null && !check.isTargetExists()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "親タスクが見つかりません");
+        }
+        if (check.getTargetDepth() + check.getSubtreeHeight() > MAX_TREE_LEVELS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "階層は最大4までです");
+        }
+        if (check.getSubtreeSize() > MAX_CLONE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "複製できるタスクは" + MAX_CLONE_SIZE + "件までです");
+        }
+
+        List<Tasks> created = taskMapper.cloneSubtree(userSid, taskSid, parentTaskSid, title, anchor,
+                Boolean.TRUE.equals(request.getKeepStatus()));
+        // 起点は親が複製したタスクに含まれない1件
+        Set<Integer> createdIds = new HashSet<>();
+        for (Tasks t : created) createdIds.add(t.getTaskSid());
+        Integer newRootSid = null;
+        for (Tasks t : created) {
+            if (t.getParentTaskSid() == null || !createdIds.contains(t.getParentTaskSid())) {
+                newRootSid = t.getTaskSid();
+                break;
+            }
+        }
+        if (newRootSid == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "複製元のタスクが存在しません");
+        }
+        // 複製した木の内部と複製先の祖先の集計列を組み立てる
+        List<Integer> refresh = new ArrayList<>(createdIds);
+        refresh.add(parentTaskSid);
+        taskRollupService.refreshFrom(userSid, refresh);
+        taskSummaryService.invalidate(userSid);
+        LogUtil.service(TaskService.class, "tasks.clone", "completed", "taskSid", newRootSid, "userSid", userSid, "count", created.size());
+        return getSubtree(userSid, newRootSid, MAX_SUBTREE_DEPTH);
+    }
 
     /**
      * タスクを削除する
@@ -205,15 +447,23 @@ public class TaskService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void deleteTask(int taskSid, Integer userSid) {
-        LogUtil.service(TaskService.class, "tasks.delete", "taskSid=" + taskSid + " userSid=" + userSid, "started");
+        LogUtil.service(TaskService.class, "tasks.delete", "started", "taskSid", taskSid, "userSid", userSid);
         try {
             if (userSid == null) {
                 throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ユーザーが存在しません");
             }
 
+            // 親の集計列を計算し直すため、削除の前にツリーのロックを取る（読んだ親が移動で変わらないよう取得より先に取る）
+            taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
+            Tasks target = taskMapper.selectByTaskSidAndUserSid(taskSid, userSid);
+            if (target == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "タスクが見つからないか権限がありません");
+            }
             // 再帰的にサブツリー削除（子→孫→...→親の順）
             deleteSubtree(taskSid, userSid);
-            LogUtil.service(TaskService.class, "tasks.delete", "taskSid=" + taskSid + " userSid=" + userSid, "completed");
+            taskRollupService.refreshFrom(userSid, target.getParentTaskSid());
+            taskSummaryService.invalidate(userSid);
+            LogUtil.service(TaskService.class, "tasks.delete", "completed", "taskSid", taskSid, "userSid", userSid);
         } catch (ResponseStatusException ex) {
             // 既に意味のあるステータス/メッセージが設定されているのでそのまま投げ直す
             throw ex;
@@ -230,11 +480,13 @@ public class TaskService {
      */
     @Transactional(rollbackFor = Exception.class)
     public void deleteChildrenOnly(int parentTaskSid, Integer userSid) {
-        LogUtil.service(TaskService.class, "tasks.delete-children", "parentTaskSid=" + parentTaskSid + " userSid=" + userSid, "started");
+        LogUtil.service(TaskService.class, "tasks.delete-children", "started", "parentTaskSid", parentTaskSid, "userSid", userSid);
+        // 親の集計列を計算し直すため、削除の前にツリーのロックを取る
+        taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
         // まず直下の子一覧を取得
         List<Integer> childIds = taskMapper.selectIdsByParent(userSid, parentTaskSid);
         if (childIds == null || childIds.isEmpty()) {
-            LogUtil.service(TaskService.class, "tasks.delete-children", "parentTaskSid=" + parentTaskSid + " userSid=" + userSid, "no-children");
+            LogUtil.service(TaskService.class, "tasks.delete-children", "no-children", "parentTaskSid", parentTaskSid, "userSid", userSid);
             return;
         }
         // 孫一覧を取得して先に削除
@@ -244,7 +496,9 @@ public class TaskService {
         }
         // 子を削除
         taskMapper.deleteByIds(userSid, childIds);
-        LogUtil.service(TaskService.class, "tasks.delete-children", "parentTaskSid=" + parentTaskSid + " userSid=" + userSid, "completed");
+        taskRollupService.refreshFrom(userSid, parentTaskSid);
+        taskSummaryService.invalidate(userSid);
+        LogUtil.service(TaskService.class, "tasks.delete-children", "completed", "parentTaskSid", parentTaskSid, "userSid", userSid);
     }
 
     /**
@@ -314,7 +568,7 @@ public class TaskService {
      */
     private boolean isMaxDepthReached(Integer parentTaskSid, Integer userSid) {
         int depth = getDepthFromRoot(parentTaskSid, userSid);
-        return depth >= 4; // root=1, 子=2, 孫=3, ひ孫=4 まで許容
+        return depth >= MAX_TREE_LEVELS; // root=1, 子=2, 孫=3, ひ孫=4 まで許容
     }
 
 
@@ -325,41 +579,93 @@ public class TaskService {
      * @return タスク階層ツリーのリスト
      */
     public List<TaskTreeResponse> getTaskTree(Integer userSid) {
-        List<Tasks> all = taskMapper.selectByUserSid(userSid);
+        List<TaskWithRollup> all = taskMapper.selectWithRollupByUserSid(userSid);
         // ルート（parentTaskId null）を起点に再帰構築
         return buildTree(all, null);
     }
 
     /**
-     * タスク階層ツリーを再帰的に構築する
+     * 指定タスクを起点とした部分ツリーを取得する（depth 階層下まで）。
+     * 取得範囲の下端のノードは children が空になるが、childCount で子の有無を判別できる。
+     *
+     * @param userSid ユーザーSID
+     * @param taskSid 起点のタスクSID
+     * @param depth 起点から何階層下まで取得するか（0で起点のみ、上限を超える値は上限に丸める）
+     * @return 起点のノード
+     */
+    public TaskTreeResponse getSubtree(Integer userSid, int taskSid, int depth) {
+        int bounded = Math.max(0, Math.min(depth, MAX_SUBTREE_DEPTH));
+        List<TaskWithRollup> rows = taskMapper.selectSubtreeWithRollup(userSid, taskSid, bounded);
+        if (rows.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "タスクが存在しません");
+        }
+        // 先頭が起点（浅い順）。起点の兄弟は含まれないため、起点の親を基準に組み立てれば起点1件になる
+        return buildTree(rows, rows.get(0).getParentTaskSid()).get(0);
+    }
+
+    /**
+     * ルートタスク（親なし）の一覧を子を含めずに取得する（遅延展開の起点用）
+     *
+     * @param userSid ユーザーSID
+     * @param limit 取得件数
+     * @param offset 読み飛ばす件数
+     * @return ルートタスクのリスト（children は空、childCount に直下の子の件数）
+     */
+    public List<TaskTreeResponse> getRootTasks(Integer userSid, int limit, int offset) {
+        List<TaskWithRollup> roots = taskMapper.selectRootsWithRollup(userSid, limit, offset);
+        return buildTree(roots, null);
+    }
+
+    /**
+     * 取得済みの行から階層ツリーを構築する（親ごとにまとめてから組み立てるため行数に比例する）
      * 
-     * @param all すべてのタスク
-     * @param parentSid 親タスクSID（nullの場合はルート）
+     * @param rows 取得済みのタスク
+     * @param rootParentSid 最上位にするノードの親タスクSID（nullの場合はルート）
      * @return タスク階層ツリーのリスト
      */
-    private List<TaskTreeResponse> buildTree(List<Tasks> all, Integer parentSid) {
+    private List<TaskTreeResponse> buildTree(List<TaskWithRollup> rows, Integer rootParentSid) {
         SimpleDateFormat dueSdf = new SimpleDateFormat("yyyy/MM/dd");
         SimpleDateFormat dtSdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
         dueSdf.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
         dtSdf.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
-        return all.stream()
-            .filter(t -> (parentSid == null && t.getParentTaskSid() == null) || (parentSid != null && parentSid.equals(t.getParentTaskSid())))
-            .map(t -> {
-                com.aitaskmanager.repository.dto.tasks.TaskTreeResponse dto = new com.aitaskmanager.repository.dto.tasks.TaskTreeResponse();
-                dto.setId(t.getTaskSid());
-                dto.setUserId(t.getUserSid());
-                dto.setParentTaskId(t.getParentTaskSid());
-                dto.setTitle(t.getTitle());
-                dto.setDescription(t.getDescription());
-                dto.setDueDate(t.getDueDate() != null ? dueSdf.format(t.getDueDate()) : null);
-                dto.setPriority(t.getPriority());
-                dto.setStatus(t.getStatus());
-                dto.setCreatedAt(dtSdf.format(t.getCreatedAt()));
-                dto.setUpdatedAt(dtSdf.format(t.getUpdatedAt()));
-                dto.setDecomposedAt(t.getDecomposedAt() != null ? dtSdf.format(t.getDecomposedAt()) : null);
-                dto.setChildren(buildTree(all, t.getTaskSid()));
-                return dto;
-            }).toList();
+        LocalDate today = LocalDate.now(ZoneId.of("Asia/Tokyo"));
+        Map<Integer, List<TaskWithRollup>> byParent = new HashMap<>();
+        for (TaskWithRollup t : rows) {
+            byParent.computeIfAbsent(t.getParentTaskSid(), k -> new ArrayList<>()).add(t);
+        }
+        return buildLevel(byParent, rootParentSid, dueSdf, dtSdf, today);
+    }
+
+    /**
+     * 指定した親の直下のノードを再帰的に組み立てる
+     */
+    private List<TaskTreeResponse> buildLevel(Map<Integer, List<TaskWithRollup>> byParent, Integer parentSid,
+                                              SimpleDateFormat dueSdf, SimpleDateFormat dtSdf, LocalDate today) {
+        List<TaskWithRollup> level = byParent.getOrDefault(parentSid, List.of());
+        List<TaskTreeResponse> nodes = new ArrayList<>(level.size());
+        for (TaskWithRollup t : level) {
+            TaskTreeResponse dto = new TaskTreeResponse();
+            dto.setId(t.getTaskSid());
+            dto.setUserId(t.getUserSid());
+            dto.setParentTaskId(t.getParentTaskSid());
+            dto.setTitle(t.getTitle());
+            dto.setDescription(t.getDescription());
+            dto.setDueDate(t.getDueDate() != null ? dueSdf.format(t.getDueDate()) : null);
+            dto.setPriority(t.getPriority());
+            dto.setStatus(t.getStatus());
+            dto.setCreatedAt(dtSdf.format(t.getCreatedAt()));
+            dto.setUpdatedAt(dtSdf.format(t.getUpdatedAt()));
+            dto.setDecomposedAt(t.getDecomposedAt() != null ? dtSdf.format(t.getDecomposedAt()) : null);
+            dto.setBusinessDaysRemaining(businessDayService.remainingUntilOrNull(today, t.getDueDate()));
+            dto.setDescendantCount(t.getDescendantCount() != null ? t.getDescendantCount() : 0);
+            dto.setDoneDescendantCount(t.getDoneDescendantCount() != null ? t.getDoneDescendantCount() : 0);
+            dto.setEarliestChildDueDate(t.getEarliestChildDueDate() != null ? dueSdf.format(t.getEarliestChildDueDate()) : null);
+            dto.setChildren(buildLevel(byParent, t.getTaskSid(), dueSdf, dtSdf, today));
+            // 件数付きで取得していない場合（全体ツリー）は組み立てた子の数がそのまま件数
+            dto.setChildCount(t.getChildCount() != null ? t.getChildCount() : dto.getChildren().size());
+            nodes.add(dto);
+        }
+        return nodes;
     }
 
     /**
@@ -368,22 +674,19 @@ public class TaskService {
      * @param userSid ユーザーSID
      * @param taskSid タスクSID
      * @param request タスクリクエスト
-     * @return 最新のタスク階層ツリーのリスト
+     * @return 再細分化したタスクを起点とする部分ツリー（1件のリスト）
      */
     @Transactional(rollbackFor = Exception.class)
     public List<TaskTreeResponse> redecomposeTask(Integer userSid, Integer taskSid, TaskRequest request) {
-        LogUtil.service(TaskService.class, "tasks.redecompose", "taskSid=" + taskSid + " userSid=" + userSid, "started");
+        LogUtil.service(TaskService.class, "tasks.redecompose", "started", "taskSid", taskSid, "userSid", userSid);
         // 権限確認
         Tasks parent = taskMapper.selectByTaskSidAndUserSid(taskSid, userSid);
         if (parent == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "タスクが存在しません");
         // 深さ上限チェック（4階層まで）。親がすでに深さ4なら子の再生成は不可。
         if (isMaxDepthReached(taskSid, userSid)) {
             log.info("[TaskService] skip redecompose due to depth limit (>=4). parentSid={}", taskSid);
-            return getTaskTree(userSid);
+            return List.of(getSubtree(userSid, taskSid, MAX_SUBTREE_DEPTH));
         }
-        // 既存子孫を再帰削除（親は残す）
-        deleteDescendants(taskSid, userSid);
-        log.info("[TaskService] redecompose delete descendants done parentSid={}", taskSid);
         // プランのAIクォータを確認
         enforceAiQuotaOrThrow(userSid);
 
@@ -398,6 +701,19 @@ public class TaskService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "AIで再細分化できませんでした。説明を具体的にしてください");
         }
 
+        // AI の応答待ちの間はロックを持たず、書き込みの直前に移動と同じロックを取って深さを確認し直す
+        // （応答待ちの間に親が移動されていると、子を作ると4階層を超える場合がある）
+        taskMapper.lockUserTaskTree(TREE_LOCK_NAMESPACE, userSid);
+        if (taskMapper.selectByTaskSidAndUserSid(taskSid, userSid) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "タスクが存在しません");
+        }
+        if (isMaxDepthReached(taskSid, userSid)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "階層は最大4までです");
+        }
+        // 既存子孫を再帰削除（親は残す）
+        deleteDescendants(taskSid, userSid);
+        log.info("[TaskService] redecompose delete descendants done parentSid={}", taskSid);
+
         int maxChildren = 12;
         int children = Math.min(items.size(), maxChildren);
         for (int i = 0; i < children; i++) {
@@ -414,11 +730,13 @@ public class TaskService {
         }
         // 親の細分化日時更新
         taskMapper.updateDecomposedAt(taskSid, userSid);
+        taskRollupService.refreshFrom(userSid, taskSid);
+        taskSummaryService.invalidate(userSid);
         // 利用回数をカウント
         incrementAiUsage(userSid);
-        LogUtil.service(TaskService.class, "tasks.redecompose", "taskSid=" + taskSid + " userSid=" + userSid + " children=" + children, "completed");
-        // 最新全体ツリー返却
-        return getTaskTree(userSid);
+        LogUtil.service(TaskService.class, "tasks.redecompose", "completed", "taskSid", taskSid, "userSid", userSid, "children", children);
+        // 再細分化したタスクの部分ツリーのみ返却（全体ツリーは返さない）
+        return List.of(getSubtree(userSid, taskSid, MAX_SUBTREE_DEPTH));
     }
 
     /**
@@ -432,7 +750,7 @@ public class TaskService {
         Integer planId = AuthUtils.getPlanId(auth);
         if (planId == null) {
               String principalUserId = (auth != null) ? com.aitaskmanager.security.AuthUtils.getUserId(auth) : null;
-            Users u = (principalUserId != null) ? userMapper.selectByUserId(principalUserId) : null;
+            Users u = (principalUserId != null) ? requestDataLoader.userByUserId(principalUserId) : null;
             if (u == null) {
                 throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "ユーザーが存在しません");
             }
@@ -442,7 +760,7 @@ public class TaskService {
         // デフォルトは無料: 0回（ai_quota が 4 のとき無制限）
         Integer aiQuota = 0;
         if (planId != null) {
-            SubscriptionPlans plan = subscriptionPlansMapper.selectByPrimaryKey(planId);
+            SubscriptionPlans plan = catalogService.findPlan(planId);
             if (plan != null) aiQuota = plan.getAiQuota();
         }
 
@@ -451,16 +769,10 @@ public class TaskService {
         Integer periodYear = now.getYear();
         Integer periodMonth = now.getMonthValue();
         try {
-            java.sql.Timestamp startedAtTs = subscriptionsCustomMapper.selectLatestStartedAt(userSid != null ? Long.valueOf(userSid) : null);
+            java.sql.Timestamp startedAtTs = requestDataLoader.latestStartedAt(userSid != null ? Long.valueOf(userSid) : null);
             if (startedAtTs != null) {
-                LocalDate startedDate = startedAtTs.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                // startedDate から now を超えない最大のサイクル開始日を算出（毎月同日、存在しない場合は月末にクランプ）
-                LocalDate cursor = startedDate;
-                while (true) {
-                    LocalDate next = addOneMonthSameDayClamped(cursor);
-                    if (next.isAfter(now)) break;
-                    cursor = next;
-                }
+                // 開始日から now を超えない最大のサイクル開始日を算出（毎月同日、存在しない場合は月末にクランプ）
+                LocalDate cursor = QuotaPeriodUtils.currentCycleStart(QuotaPeriodUtils.toStartedDate(startedAtTs), now);
                 periodYear = cursor.getYear();
                 periodMonth = cursor.getMonthValue();
             }
@@ -503,15 +815,10 @@ public class TaskService {
         Integer periodYear = now.getYear();
         Integer periodMonth = now.getMonthValue();
         try {
-            java.sql.Timestamp startedAtTs = subscriptionsCustomMapper.selectLatestStartedAt(userSid != null ? Long.valueOf(userSid) : null);
+            java.sql.Timestamp startedAtTs = requestDataLoader.latestStartedAt(userSid != null ? Long.valueOf(userSid) : null);
             if (startedAtTs != null) {
-                LocalDate startedDate = startedAtTs.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-                LocalDate cursor = startedDate;
-                while (true) {
-                    LocalDate next = addOneMonthSameDayClamped(cursor);
-                    if (next.isAfter(now)) break;
-                    cursor = next;
-                }
+                // 開始日から now を超えない最大のサイクル開始日を算出（毎月同日、存在しない場合は月末にクランプ）
+                LocalDate cursor = QuotaPeriodUtils.currentCycleStart(QuotaPeriodUtils.toStartedDate(startedAtTs), now);
                 periodYear = cursor.getYear();
                 periodMonth = cursor.getMonthValue();
             }
@@ -521,16 +828,5 @@ public class TaskService {
         customAiUsageMapper.upsertIncrement(userSid, periodYear, periodMonth);
     }
 
-    /**
-     * 翌月同日を試み、存在しない場合は月末へクランプして1か月進める。
-     */
-    private LocalDate addOneMonthSameDayClamped(LocalDate base) {
-        LocalDate cand = base.plusMonths(1);
-        int dom = base.getDayOfMonth();
-        int endOfMonth = cand.lengthOfMonth();
-        int clampedDay = Math.min(dom, endOfMonth);
-        return LocalDate.of(cand.getYear(), cand.getMonth(), clampedDay);
-    }
-
     
 }
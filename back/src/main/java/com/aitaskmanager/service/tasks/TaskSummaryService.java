@@ -0,0 +1,137 @@
+package com.aitaskmanager.service.tasks;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.aitaskmanager.repository.customMapper.TaskMapper;
+import com.aitaskmanager.repository.dto.tasks.TaskSummaryResponse;
+import com.aitaskmanager.repository.dto.tasks.TaskSummaryRow;
+import com.aitaskmanager.util.LogUtil;
+
+/**
+ * ダッシュボードの件数（ステータス別・優先度別・期限切れ・今週が期限など）を提供するサービス。
+ * 1回の GROUPING SETS で集計し、結果はユーザーごとにメモリへキャッシュする。
+ * キャッシュはタスクの書き込み（コミット後）と日付の変わり目で破棄し、TTL で上限を設ける（複数インスタンス構成の保険）。
+ */
+@Service
+public class TaskSummaryService {
+
+    /** 基準日のタイムゾーン */
+    private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+
+    /** 「期限が近い」とみなす日数（基準日から何日後まで） */
+    private static final int SOON_DAYS = 3;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    /** キャッシュの有効期間（秒） */
+    @Value("${tasks.summary.cacheTtlSeconds:60}")
+    private long cacheTtlSeconds;
+
+    /** キャッシュするユーザー数の上限（超えたら全て破棄する） */
+    @Value("${tasks.summary.cacheMaxEntries:10000}")
+    private int cacheMaxEntries;
+
+    /** キャッシュの値（summary が NULL のものは集計中を示す印） */
+    private static final class CacheEntry {
+        final TaskSummaryResponse summary;
+        final LocalDate asOf;
+        final Instant computedAt;
+        CacheEntry(TaskSummaryResponse summary, LocalDate asOf, Instant computedAt) {
+            this.summary = summary;
+            this.asOf = asOf;
+            this.computedAt = computedAt;
+        }
+    }
+
+    /** ユーザーSID → 集計結果（または集計中の印） */
+    private final Map<Integer, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * ダッシュボードの集計を取得する（キャッシュがあればそれを返す）
+     *
+     * @param userSid ユーザーSID
+     * @return 集計結果
+     */
+    public TaskSummaryResponse getSummary(Integer userSid) {
+        LocalDate today = LocalDate.now(ZONE);
+        CacheEntry entry = cache.get(userSid);
+        if (entry != null && entry.summary != null && entry.asOf.equals(today)
+                && Instant.now().isBefore(entry.computedAt.plus(Duration.ofSeconds(cacheTtlSeconds)))) {
+            return entry.summary;
+        }
+        // 集計中の印をこのユーザーの枠に置き、集計後は印が残っている場合だけ結果に置き換える。
+        // 集計中にこのユーザーの書き込みで破棄された場合は印が消えるため、古い結果はキャッシュしない（他のユーザーの破棄は影響しない）
+        CacheEntry pending = new CacheEntry(null, today, Instant.now());
+        if (cache.size() >= cacheMaxEntries) cache.clear();
+        cache.put(userSid, pending);
+        TaskSummaryResponse summary = compute(userSid, today);
+        cache.replace(userSid, pending, new CacheEntry(summary, today, Instant.now()));
+        return summary;
+    }
+
+    /**
+     * ユーザーの集計キャッシュを破棄する。トランザクション内ではコミット後にも破棄し、
+     * コミット前の値で集計し直した結果が残らないようにする。
+     *
+     * @param userSid ユーザーSID
+     */
+    public void invalidate(Integer userSid) {
+        if (userSid == null) return;
+        evict(userSid);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userSid);
+                }
+            });
+        }
+    }
+
+    private void evict(Integer userSid) {
+        cache.remove(userSid);
+    }
+
+    /**
+     * GROUPING SETS の結果（ステータス別・優先度別・全体の行）をレスポンスにまとめる
+     */
+    private TaskSummaryResponse compute(Integer userSid, LocalDate today) {
+        LocalDate soonEnd = today.plusDays(SOON_DAYS);
+        // カレンダーと同じく日曜始まりの週とし、今週の土曜までを「今週」とする
+        LocalDate weekEnd = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY));
+        TaskSummaryResponse summary = new TaskSummaryResponse();
+        summary.setAsOf(today.toString());
+        for (TaskSummaryRow row : taskMapper.selectSummary(userSid, Date.valueOf(today), Date.valueOf(soonEnd), Date.valueOf(weekEnd))) {
+            if (row.getGroupingStatus() == 0) {
+                summary.getByStatus().put(row.getStatus(), row.getTaskCount());
+            } else if (row.getGroupingPriority() == 0) {
+                summary.getByPriority().put(row.getPriority(), row.getTaskCount());
+            } else {
+                summary.setTotal(row.getTaskCount());
+                summary.setOverdue(row.getOverdueCount());
+                summary.setDueToday(row.getDueTodayCount());
+                summary.setDueSoon(row.getDueSoonCount());
+                summary.setDueThisWeek(row.getDueThisWeekCount());
+            }
+        }
+        summary.setDone(summary.getByStatus().getOrDefault("DONE", 0));
+        summary.setNotDone(summary.getTotal() - summary.getDone());
+        LogUtil.service(TaskSummaryService.class, "tasks.summary", "computed", "userSid", userSid, "total", summary.getTotal());
+        return summary;
+    }
+}
@@ -0,0 +1,159 @@
+package com.aitaskmanager.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * AI応答テキスト処理のユーティリティクラス
+ * 正規表現は事前コンパイルし、行分割・正規化は1パスで行う
+ */
+public final class AiTextUtils {
+
+    /** 空白の連続（語数カウント用） */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** 曖昧判定: 最小文字数 */
+    private static final int MIN_CHARS = 20;
+
+    /** 曖昧判定: 最小語数 */
+    private static final int MIN_WORDS = 3;
+
+    /**
+     * 重複判定のための簡易正規化
+     * 先頭の箇条書き記号（-, *, •）を除去し、連続空白を1つにまとめて大文字化する
+     *
+     * @param s 入力文字列
+     * @return 正規化された文字列（nullは空文字）
+     */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        int end = s.length();
+        int i = 0;
+        while (i < end && s.charAt(i) <= ' ') i++;
+        while (end > i && s.charAt(end - 1) <= ' ') end--;
+        // 先頭の "-" / "*"、続けて "•" をそれぞれ後続空白ごと除去
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '*')) {
+            i = skipSpaces(s, i + 1, end);
+        }
+        if (i < end && s.charAt(i) == '•') {
+            i = skipSpaces(s, i + 1, end);
+        }
+        StringBuilder sb = new StringBuilder(end - i);
+        boolean inSpace = false;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (isSpace(c)) {
+                inSpace = true;
+            } else {
+                if (inSpace && sb.length() > 0) sb.append(' ');
+                inSpace = false;
+                sb.append(c);
+            }
+        }
+        return sb.toString().toUpperCase();
+    }
+
+    /**
+     * 語数（空白区切り）を数える
+     *
+     * @param s 入力文字列
+     * @return 語数（空・nullは0）
+     */
+    public static int countWords(String s) {
+        if (s == null) return 0;
+        String t = s.trim();
+        return t.isEmpty() ? 0 : WHITESPACE.split(t).length;
+    }
+
+    /**
+     * 入力が曖昧（短すぎる/語数が少なすぎる）か判定する
+     * 説明が空の場合はタイトルで判定する
+     *
+     * @param title タイトル
+     * @param description 説明
+     * @return 曖昧な場合はtrue
+     */
+    public static boolean isAmbiguous(String title, String description) {
+        String base = (description != null && !description.isBlank()) ? description : title;
+        if (base == null || base.isBlank()) return true;
+        return base.length() < MIN_CHARS && countWords(base) < MIN_WORDS;
+    }
+
+    /**
+     * テキストを箇条書きのリストにパースする（1パスの行スキャン）
+     * 各行の前後空白と先頭の "-" / "*" を除去し、空行は無視する
+     *
+     * @param text 入力テキスト
+     * @param limit 最大件数
+     * @return 箇条書きのリスト
+     */
+    public static List<String> parseBulletLines(String text, int limit) {
+        List<String> list = new ArrayList<>();
+        if (text == null) return list;
+        int len = text.length();
+        int lineStart = 0;
+        while (lineStart <= len && list.size() < limit) {
+            int nl = text.indexOf('\n', lineStart);
+            int lineEnd = (nl < 0) ? len : nl;
+            int s = lineStart;
+            int e = lineEnd;
+            while (s < e && text.charAt(s) <= ' ') s++;
+            while (e > s && text.charAt(e - 1) <= ' ') e--;
+            if (s < e && (text.charAt(s) == '-' || text.charAt(s) == '*')) {
+                s = skipSpaces(text, s + 1, e);
+            }
+            if (s < e) list.add(text.substring(s, e));
+            if (nl < 0) break;
+            lineStart = nl + 1;
+        }
+        return list;
+    }
+
+    /**
+     * 正規化キーで重複を除外する
+     * タイトルまたは説明が除外キー（親のタイトル/説明など）と一致する要素、およびタイトルが先行要素と重複する要素を除く
+     *
+     * @param items 対象リスト
+     * @param titleOf 要素からタイトルを取り出す関数
+     * @param descriptionOf 要素から説明を取り出す関数
+     * @param excluded 除外対象の文字列（正規化して比較）
+     * @return 重複除外後のリスト（順序は維持）
+     */
+    public static <T> List<T> dedupByNormalizedKey(List<T> items, Function<T, String> titleOf, Function<T, String> descriptionOf, String... excluded) {
+        Set<String> excludedKeys = new HashSet<>();
+        for (String ex : excluded) {
+            String key = normalize(ex);
+            if (!key.isEmpty()) excludedKeys.add(key);
+        }
+        Set<String> seenTitles = new HashSet<>();
+        List<T> result = new ArrayList<>(items.size());
+        for (T item : items) {
+            String titleKey = normalize(titleOf.apply(item));
+            String descKey = normalize(descriptionOf.apply(item));
+            if (excludedKeys.contains(titleKey) || excludedKeys.contains(descKey)) continue;
+            if (!seenTitles.add(titleKey)) continue;
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * 指定位置から空白を読み飛ばす
+     */
+    private static int skipSpaces(String s, int from, int end) {
+        int i = from;
+        while (i < end && isSpace(s.charAt(i))) i++;
+        return i;
+    }
+
+    /**
+     * 正規表現の \s と同じ空白文字か判定する
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+}
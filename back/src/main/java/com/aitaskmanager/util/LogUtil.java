@@ -2,15 +2,40 @@ package com.aitaskmanager.util;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
 
 /**
  * ログ出力を統一するためのユーティリティ。
+ * キーと値はメッセージ末尾に「key=value」で出力し、同じ値を構造化項目（key-value）としても渡す。
+ * key-value を出力しないレイアウト（Spring Boot 既定のパターンなど）でも ID が失われないようにするため。
+ * INFO が無効な場合は何も組み立てない。出力形式（JSON / テキスト）は log4j2-spring.xml のレイアウトで決まる。
  */
 public final class LogUtil {
 
+    /** クラスごとのロガー（呼び出しのたびに LoggerFactory を引かない） */
+    private static final ClassValue<Logger> LOGGERS = new ClassValue<>() {
+        @Override
+        protected Logger computeValue(Class<?> type) {
+            return LoggerFactory.getLogger(type);
+        }
+    };
+
+    private LogUtil() {
+    }
+
+    /**
+     * クラスに対応するロガーを取得する（キャッシュ済み）
+     *
+     * @param clazz ログを出力するクラス
+     * @return ロガー
+     */
+    public static Logger logger(Class<?> clazz) {
+        return LOGGERS.get(clazz);
+    }
+
     /**
      * コントローラ用の統一ログ（入口ログなど）。
-     * 例: [Controller] tasks.delete id=123 userId=1 username=alice invoked
+     * 例: [Controller] tasks.delete invoked userSid=1 username=alice
      * @param clazz ログを出力するクラス
      * @param domainDotAction ドメインとアクションをドットでつなげた文字列（例: "tasks.delete"）
      * @param userSid ユーザーSID
@@ -18,20 +43,116 @@ public final class LogUtil {
      * @param suffix ログの末尾に付与する文字列（例: "invoked", "completed"）
      */
     public static void controller(Class<?> clazz, String domainDotAction, Integer userSid, String username, String suffix) {
-        Logger log = LoggerFactory.getLogger(clazz);
-        log.info("[Controller] {} userSid={} username={} {}", domainDotAction, userSid, username, suffix);
+        Logger log = LOGGERS.get(clazz);
+        if (!log.isInfoEnabled()) return;
+        StringBuilder msg = controllerMessage(domainDotAction, userSid, username, suffix);
+        controllerEvent(log, msg.toString(), userSid, username).log();
     }
 
     /**
-     * サービス用の統一ログ（入口/完了）。
-     * 例: [Service] tasks.delete taskId=123 userId=1 started
+     * コントローラ用の統一ログ（対象IDなど項目を1つ追加）。
+     * 例: [Controller] tasks.delete invoked userSid=1 username=alice id=123
+     * @param clazz ログを出力するクラス
+     * @param domainDotAction ドメインとアクションをドットでつなげた文字列
+     * @param userSid ユーザーSID
+     * @param username ユーザー名
+     * @param suffix ログの末尾に付与する文字列
+     * @param key 追加項目のキー
+     * @param value 追加項目の値
+     */
+    public static void controller(Class<?> clazz, String domainDotAction, Integer userSid, String username, String suffix,
+                                  String key, Object value) {
+        Logger log = LOGGERS.get(clazz);
+        if (!log.isInfoEnabled()) return;
+        StringBuilder msg = append(controllerMessage(domainDotAction, userSid, username, suffix), key, value);
+        controllerEvent(log, msg.toString(), userSid, username).addKeyValue(key, value).log();
+    }
+
+    /**
+     * サービス用の統一ログ（入口/完了、項目なし）。
+     * 例: [Service] plans.list started
      * @param clazz ログを出力するクラス
      * @param domainDotAction ドメインとアクションをドットでつなげた文字列（例: "tasks.delete"）
-     * @param kvPairs キーと値のペア文字列（例: "taskId=123 userId=1"）
      * @param suffix ログの末尾に付与する文字列（例:"started", "completed"）
      */
-    public static void service(Class<?> clazz, String domainDotAction, String kvPairs, String suffix) {
-        Logger log = LoggerFactory.getLogger(clazz);
-        log.info("[Service] {} {} {}", domainDotAction, kvPairs, suffix);
+    public static void service(Class<?> clazz, String domainDotAction, String suffix) {
+        Logger log = LOGGERS.get(clazz);
+        if (!log.isInfoEnabled()) return;
+        log.atInfo().setMessage(serviceMessage(domainDotAction, suffix).toString()).log();
+    }
+
+    /**
+     * サービス用の統一ログ（項目1つ）。
+     * 例: [Service] tasks.create started userSid=1
+     * @param clazz ログを出力するクラス
+     * @param domainDotAction ドメインとアクションをドットでつなげた文字列
+     * @param suffix ログの末尾に付与する文字列
+     * @param k1 項目1のキー
+     * @param v1 項目1の値
+     */
+    public static void service(Class<?> clazz, String domainDotAction, String suffix, String k1, Object v1) {
+        Logger log = LOGGERS.get(clazz);
+        if (!log.isInfoEnabled()) return;
+        StringBuilder msg = append(serviceMessage(domainDotAction, suffix), k1, v1);
+        log.atInfo().setMessage(msg.toString()).addKeyValue(k1, v1).log();
+    }
+
+    /**
+     * サービス用の統一ログ（項目2つ）。
+     * 例: [Service] tasks.delete started taskSid=123 userSid=1
+     * @param clazz ログを出力するクラス
+     * @param domainDotAction ドメインとアクションをドットでつなげた文字列
+     * @param suffix ログの末尾に付与する文字列
+     * @param k1 項目1のキー
+     * @param v1 項目1の値
+     * @param k2 項目2のキー
+     * @param v2 項目2の値
+     */
+    public static void service(Class<?> clazz, String domainDotAction, String suffix,
+                               String k1, Object v1, String k2, Object v2) {
+        Logger log = LOGGERS.get(clazz);
+        if (!log.isInfoEnabled()) return;
+        StringBuilder msg = append(append(serviceMessage(domainDotAction, suffix), k1, v1), k2, v2);
+        log.atInfo().setMessage(msg.toString()).addKeyValue(k1, v1).addKeyValue(k2, v2).log();
+    }
+
+    /**
+     * サービス用の統一ログ（項目3つ）。
+     * @param clazz ログを出力するクラス
+     * @param domainDotAction ドメインとアクションをドットでつなげた文字列
+     * @param suffix ログの末尾に付与する文字列
+     * @param k1 項目1のキー
+     * @param v1 項目1の値
+     * @param k2 項目2のキー
+     * @param v2 項目2の値
+     * @param k3 項目3のキー
+     * @param v3 項目3の値
+     */
+    public static void service(Class<?> clazz, String domainDotAction, String suffix,
+                               String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        Logger log = LOGGERS.get(clazz);
+        if (!log.isInfoEnabled()) return;
+        StringBuilder msg = append(append(append(serviceMessage(domainDotAction, suffix), k1, v1), k2, v2), k3, v3);
+        log.atInfo().setMessage(msg.toString()).addKeyValue(k1, v1).addKeyValue(k2, v2).addKeyValue(k3, v3).log();
+    }
+
+    private static LoggingEventBuilder controllerEvent(Logger log, String message, Integer userSid, String username) {
+        return log.atInfo()
+                .setMessage(message)
+                .addKeyValue("userSid", userSid)
+                .addKeyValue("username", username);
+    }
+
+    private static StringBuilder controllerMessage(String domainDotAction, Integer userSid, String username, String suffix) {
+        StringBuilder sb = new StringBuilder(96).append("[Controller] ").append(domainDotAction).append(' ').append(suffix);
+        return append(append(sb, "userSid", userSid), "username", username);
+    }
+
+    private static StringBuilder serviceMessage(String domainDotAction, String suffix) {
+        return new StringBuilder(96).append("[Service] ").append(domainDotAction).append(' ').append(suffix);
+    }
+
+    private static StringBuilder append(StringBuilder sb, String key, Object value) {
+        return sb.append(' ').append(key).append('=').append(value);
     }
 }
@@ -0,0 +1,66 @@
+package com.aitaskmanager.util;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * AI利用回数の集計期間（購読開始日に連動する月次サイクル）を求めるユーティリティクラス
+ */
+public final class QuotaPeriodUtils {
+
+    private QuotaPeriodUtils() {
+    }
+
+    /**
+     * 購読開始日時を日付に変換する（システム既定のタイムゾーン）
+     *
+     * @param startedAt 購読開始日時
+     * @return 購読開始日
+     */
+    public static LocalDate toStartedDate(Timestamp startedAt) {
+        return startedAt.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * 現在のサイクル開始日を求める。
+     * 開始日から1か月ずつ進め、today を超えない最後の日を返す（毎月同日、存在しない場合は月末にクランプ）。
+     *
+     * @param startedDate 購読開始日
+     * @param today 基準日
+     * @return 現在のサイクル開始日（開始日が基準日より後の場合は開始日）
+     */
+    public static LocalDate currentCycleStart(LocalDate startedDate, LocalDate today) {
+        LocalDate cursor = startedDate;
+        while (true) {
+            LocalDate next = addOneMonthSameDayClamped(cursor);
+            if (next.isAfter(today)) return cursor;
+            cursor = next;
+        }
+    }
+
+    /**
+     * 次のサイクル開始日（利用回数のリセット日）を求める
+     *
+     * @param startedDate 購読開始日
+     * @param today 基準日
+     * @return 次のサイクル開始日
+     */
+    public static LocalDate nextCycleStart(LocalDate startedDate, LocalDate today) {
+        return addOneMonthSameDayClamped(currentCycleStart(startedDate, today));
+    }
+
+    /**
+     * 翌月同日を試み、存在しない場合は月末へクランプして1か月進める。
+     *
+     * @param base 基準日
+     * @return 1か月後の日付
+     */
+    public static LocalDate addOneMonthSameDayClamped(LocalDate base) {
+        LocalDate cand = base.plusMonths(1);
+        int dom = base.getDayOfMonth();
+        int endOfMonth = cand.lengthOfMonth();
+        int clampedDay = Math.min(dom, endOfMonth);
+        return LocalDate.of(cand.getYear(), cand.getMonth(), clampedDay);
+    }
+}
@@ -2,6 +2,7 @@ package com.aitaskmanager.util;
 
 import java.sql.Date;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -70,4 +71,16 @@ public final class TaskUtils {
             return Date.valueOf(LocalDate.parse(s, DateTimeFormatter.ofPattern("yyyy-MM-dd")));
         }
     }
+
+    /**
+     * 日付（期日など）を東京タイムゾーンの LocalDate に変換
+     * 
+     * @param date 日付（java.sql.Date も可）
+     * @return LocalDate（nullの場合はnull）
+     */
+    public static LocalDate toLocalDate(java.util.Date date) {
+        if (date == null) return null;
+        if (date instanceof Date) return ((Date) date).toLocalDate();
+        return date.toInstant().atZone(ZoneId.of("Asia/Tokyo")).toLocalDate();
+    }
 }
@@ -56,6 +56,23 @@ export async function breakdownTask(input: TaskBreakdownRequest): Promise<TaskBr
   return res.data as TaskBreakdownResponse;
 }
 
+// 一括タスク細分化レスポンスの型定義（results はリクエストと同順）
+export type TaskBreakdownBatchResponse = {
+  warning?: string;
+  results: Array<{
+    index: number;
+    warning?: string;
+    error?: string;
+    children: Array<{ title: string; description?: string }>;
+  }>;
+};
+
+// 一括タスク細分化API
+export async function breakdownTasks(items: TaskBreakdownRequest[]): Promise<TaskBreakdownBatchResponse> {
+  const res = await apiClient.post('/api/ai/tasks/breakdown:batch', { items });
+  return res.data as TaskBreakdownBatchResponse;
+}
+
 // クレジット決済セッション作成API
 export async function createCreditCheckout(priceId: string): Promise<{ sessionUrl: string }> {
   const res = await apiClient.post('/api/billing/checkout-credit', null, {
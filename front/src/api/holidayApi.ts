@@ -12,31 +12,57 @@ export interface PublicHoliday {
   type: string;       // Public など
 }
 
+// 一括取得APIの祝日（必要な項目のみ）
+export type HolidaySummary = Pick<PublicHoliday, 'date' | 'localName' | 'name'>;
+
+// 一括取得APIのレスポンス（国コード → 年 → 祝日リスト）
+export type HolidayRangeResponse = Record<string, Record<string, HolidaySummary[]>>;
+
+// APIエラーを表示用メッセージに変換
+const toHolidayErrorMessage = (e: unknown): string => {
+  let msg = '祝日取得失敗';
+  if (typeof e === 'object' && e !== null) {
+    // axios error shape 部分的アクセス（型厳密化は省略）
+    const errObj = e as { response?: { status?: number; data?: { message?: string } }; message?: string };
+    const status = errObj.response?.status;
+    const backendMsg = errObj.response?.data?.message;
+    if (status === 401) {
+      msg = backendMsg || '認証が必要です (祝日API)';
+    } else if (status === 502 || status === 503) {
+      msg = backendMsg || '外部祝日サービスへの接続に失敗しました';
+    } else if (backendMsg) {
+      msg = backendMsg;
+    } else if (errObj.message) {
+      msg = errObj.message;
+    }
+  } else if (typeof e === 'string') {
+    msg = e;
+  }
+  return msg;
+};
+
 // 祝日取得API
 export const fetchHolidays = async (year: number): Promise<PublicHoliday[]> => {
   try {
     const res = await axios.get('/api/holidays', { params: { year } });
     return res.data;
   } catch (e: unknown) {
-    let msg = '祝日取得失敗';
-    if (typeof e === 'object' && e !== null) {
-      // axios error shape 部分的アクセス（型厳密化は省略）
-      const errObj = e as { response?: { status?: number; data?: { message?: string } }; message?: string };
-      const status = errObj.response?.status;
-      const backendMsg = errObj.response?.data?.message;
-      if (status === 401) {
-        msg = backendMsg || '認証が必要です (祝日API)';
-      } else if (status === 502 || status === 503) {
-        msg = backendMsg || '外部祝日サービスへの接続に失敗しました';
-      } else if (backendMsg) {
-        msg = backendMsg;
-      } else if (errObj.message) {
-        msg = errObj.message;
-      }
-    } else if (typeof e === 'string') {
-      msg = e;
-    }
+    const msg = toHolidayErrorMessage(e);
     console.warn('fetchHolidays error:', msg);
     throw new Error(msg);
   }
 };
+
+// 複数年・複数国の祝日一括取得API
+export const fetchHolidaysRange = async (from: number, to: number, countries?: string[]): Promise<HolidayRangeResponse> => {
+  try {
+    const params: Record<string, string | number> = { from, to };
+    if (countries && countries.length > 0) params.country = countries.join(',');
+    const res = await axios.get('/api/holidays/range', { params });
+    return res.data;
+  } catch (e: unknown) {
+    const msg = toHolidayErrorMessage(e);
+    console.warn('fetchHolidaysRange error:', msg);
+    throw new Error(msg);
+  }
+};
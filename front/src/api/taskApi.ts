@@ -1,6 +1,6 @@
 import axios, { AxiosError } from "axios";
 import apiClient from "./apiClient";
-import type { TaskInput, Task } from "../types/task";
+import type { TaskInput, Task, TaskPatchInput, TaskStatus, TaskStatusResult, TaskBulkOperation, TaskBulkResult } from "../types/task";
 
 // 生データ型（APIレスポンス用）
 interface RawTask {
@@ -61,6 +61,10 @@ export interface TaskTreeNode {
   createdAt: string;
   updatedAt: string;
   decomposedAt?: string | null;
+  childCount: number; // 直下の子タスク数（children が未取得で空でも実際の件数）
+  descendantCount: number; // 子孫タスク数（サーバ側で集計済み）
+  doneDescendantCount: number; // 完了した子孫タスク数
+  earliestChildDueDate?: string | null; // 未完了の子孫の最短期限（yyyy/MM/dd）
   children: TaskTreeNode[];
 }
 
@@ -70,6 +74,57 @@ export const fetchTaskTree = async (): Promise<TaskTreeNode[]> => {
   return res.data;
 };
 
+// ルートタスクのみ取得API（children は空、childCount で展開可否を判定する）
+export const fetchTaskRoots = async (limit = 100, offset = 0): Promise<TaskTreeNode[]> => {
+  const res = await apiClient.get<TaskTreeNode[]>(`${API_BASE}/roots`, { params: { limit, offset } });
+  return res.data;
+};
+
+// ダッシュボード集計API（一覧を取得せずに件数だけを取得する）
+export interface TaskSummary {
+  asOf: string; // 基準日 yyyy-MM-dd
+  total: number;
+  done: number;
+  notDone: number;
+  overdue: number;
+  dueToday: number;
+  dueSoon: number; // 未完了かつ3日以内が期限
+  dueThisWeek: number; // 未完了かつ今週の土曜までが期限
+  byStatus: Record<string, number>;
+  byPriority: Record<string, number>;
+}
+
+export const fetchTaskSummary = async (): Promise<TaskSummary> => {
+  const res = await apiClient.get<TaskSummary>(`${API_BASE}/summary`);
+  return res.data;
+};
+
+// カレンダー集計API（期限のある日ごとのタスクIDと件数、期間は from〜to の最大62日間、yyyy-MM-dd）
+export interface TaskCalendarDay {
+  date: string; // yyyy-MM-dd
+  total: number;
+  taskIds: number[];
+  byStatus: Record<string, number>;
+  byPriority: Record<string, number>;
+}
+
+export interface TaskCalendarResult {
+  from: string;
+  to: string;
+  days: TaskCalendarDay[];
+}
+
+export const fetchTaskCalendar = async (from: string, to: string): Promise<TaskCalendarResult> => {
+  const res = await apiClient.get<TaskCalendarResult>(`${API_BASE}/calendar`, { params: { from, to } });
+  return res.data;
+};
+
+// 部分ツリー取得API（ノード展開時に depth 階層下まで取得する、0〜3）
+export const fetchTaskSubtree = async (taskId: number, depth = 1): Promise<TaskTreeNode> => {
+  const res = await apiClient.get<TaskTreeNode>(`${API_BASE}/${taskId}/subtree`, { params: { depth } });
+  return res.data;
+};
+
 
 
 // タスク作成API
@@ -85,6 +140,71 @@ export const updateTask = async (taskId: number, task: TaskInput): Promise<Task>
   return res.data;
 };
 
+// タスク部分更新API（変更した項目だけを送る）
+export const patchTask = async (taskId: number, patch: TaskPatchInput): Promise<Task> => {
+  const res = await apiClient.patch<Task>(`${API_BASE}/${taskId}`, patch);
+  return res.data;
+};
+
+// タスクのステータスのみ更新API（完了チェックの切り替え用）
+export const updateTaskStatus = async (taskId: number, status: TaskStatus): Promise<TaskStatusResult> => {
+  const res = await apiClient.patch<TaskStatusResult>(`${API_BASE}/${taskId}/status`, { status });
+  return res.data;
+};
+
+// タスク移動API（配下ごと別の親の下へ移動、parentTaskId=null でルートへ）
+export const moveTask = async (taskId: number, parentTaskId: number | null): Promise<Task> => {
+  const res = await apiClient.post<Task>(`${API_BASE}/${taskId}/move`, { parentTaskId });
+  return res.data;
+};
+
+// タスク複製API（配下ごと1回で複製。dueDateAnchor 指定時は起点の期限日がその日になるよう全体をずらす）
+export interface TaskCloneInput {
+  parentTaskId?: number | null; // 複製先の親（省略/null でルート）
+  title?: string; // 複製した起点のタイトル（省略で元のまま）
+  dueDateAnchor?: string; // yyyy-MM-dd
+  keepStatus?: boolean; // 省略時はすべて TODO で複製
+}
+
+export const cloneTask = async (taskId: number, input: TaskCloneInput = {}): Promise<TaskTreeNode> => {
+  const res = await apiClient.post<TaskTreeNode>(`${API_BASE}/${taskId}/clone`, input);
+  return res.data;
+};
+
+// タスク検索API（スコア順。nextCursor を cursor に渡すと次ページを取得する）
+export interface TaskSearchResult {
+  items: Task[];
+  nextCursor: string | null;
+}
+
+export const searchTasks = async (
+  q: string,
+  options: { lang?: "auto" | "ja" | "simple"; limit?: number; cursor?: string } = {}
+): Promise<TaskSearchResult> => {
+  const res = await apiClient.get<TaskSearchResult>(`${API_BASE}/search`, { params: { q, ...options } });
+  return res.data;
+};
+
+// タスク一括操作API（操作は順に1トランザクションで適用され、タスクごとの結果が返る）
+export const bulkUpdateTasks = async (operations: TaskBulkOperation[]): Promise<TaskBulkResult> => {
+  const res = await apiClient.post<TaskBulkResult>(`${API_BASE}:bulk`, { operations });
+  return res.data;
+};
+
+// 編集前のタスクとフォーム入力を比べ、変更された項目だけの部分更新入力を作る
+export const diffTaskInput = (before: Task, input: TaskInput): TaskPatchInput => {
+  const patch: TaskPatchInput = {};
+  if (input.title !== before.title) patch.title = input.title;
+  if ((input.description ?? "") !== (before.description ?? "")) patch.description = input.description ?? "";
+  if (input.status !== before.status) patch.status = input.status as TaskStatus;
+  if (input.priority !== undefined && input.priority !== before.priority) patch.priority = input.priority as Task["priority"];
+  // サーバは yyyy/MM/dd で返すため yyyy-MM-dd にそろえて比較する
+  const beforeDue = (before.dueDate ?? "").replace(/\//g, "-");
+  const afterDue = input.due_date ?? "";
+  if (afterDue !== beforeDue) patch.due_date = afterDue;
+  return patch;
+};
+
 // タスク削除API
 export const deleteTask = async (taskId: number): Promise<void> => {
   try {
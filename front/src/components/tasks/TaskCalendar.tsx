@@ -4,7 +4,7 @@ import "./TaskCalendar.css";
 import { TaskTooltip } from "./TaskTooltip";
 // formatDateKey をローカル定義（祝日API取得で十分なため）
 const formatDateKey = (d: Date): string => `${d.getFullYear()}-${String(d.getMonth()+1).padStart(2,'0')}-${String(d.getDate()).padStart(2,'0')}`;
-import { fetchHolidays } from "../../api/holidayApi";
+import { fetchHolidays, fetchHolidaysRange } from "../../api/holidayApi";
 import type { PublicHoliday } from "../../api/holidayApi";
 
 // モジュールスコープの祝日キャッシュ（コンポーネント再マウント時も維持）
@@ -132,7 +132,7 @@ export const TaskCalendar: React.FC<TaskCalendarProps> = ({ tasks, month, onPrev
     }
   }, [tooltipTaskId]);
 
-  // 年が変わったタイミングで祝日取得（キャッシュ利用）
+  // 年が変わったタイミングで祝日取得（キャッシュ利用、前後の年もまとめて取得）
   useEffect(() => {
     // キャッシュヒット
     const cached = holidayCache[year];
@@ -147,17 +147,23 @@ export const TaskCalendar: React.FC<TaskCalendarProps> = ({ tasks, month, onPrev
     holidayInFlight = true;
     (async () => {
       try {
-        const data: PublicHoliday[] = await fetchHolidays(year);
-        if (data && data.length > 0) {
+        const range = await fetchHolidaysRange(year - 1, year + 1);
+        // 国コードは既定の1か国のみ
+        const byYear = Object.values(range)[0] ?? {};
+        for (const [y, data] of Object.entries(byYear)) {
+          if (!data || data.length === 0) continue;
           const set = new Set<string>();
           const names: Record<string,string> = {};
           for (const h of data) {
             set.add(h.date);
             if (h.localName) names[h.date] = h.localName;
           }
-          holidayCache[year] = { set, names };
-          setHolidaySet(set);
-          setHolidayNameMap(names);
+          holidayCache[Number(y)] = { set, names };
+        }
+        const current = holidayCache[year];
+        if (current) {
+          setHolidaySet(current.set);
+          setHolidayNameMap(current.names);
         }
       } catch (e) {
         console.warn("祝日取得失敗", e);
@@ -128,6 +128,12 @@ export const TaskList = ({
             <div className="task-tree-actions">
             <span className={`count-chip ${hasChildren ? "" : "empty"}`}>
               {hasChildren ? <span className="child-count-badge">子{node.children.length}</span> : ""}
+              {node.descendantCount > 0 && (
+                <span
+                  className="progress-badge"
+                  title={node.earliestChildDueDate ? `未完了の最短期限: ${node.earliestChildDueDate}` : undefined}
+                >{node.doneDescendantCount}/{node.descendantCount}完了</span>
+              )}
             </span>
             {loadingRedecompose === node.id ? (
               <span className="redecompose-loading">細分化中...</span>
@@ -1,8 +1,9 @@
 import { useEffect, useMemo, useState } from "react";
 import { useNavigate } from "react-router-dom";
 import { useAuth } from "../context/authContext";
-import type { Task, TaskInput } from "../types/task";
-import { fetchTasks, deleteTask, updateTask, createTask } from "../api/taskApi";
+import type { Task, TaskInput, TaskPatchInput, TaskStatus } from "../types/task";
+import { fetchTasks, fetchTaskSummary, deleteTask, patchTask, updateTaskStatus, diffTaskInput, createTask } from "../api/taskApi";
+import type { TaskSummary } from "../api/taskApi";
 import { TaskList } from "../components/tasks/TaskList";
 import { TaskCalendar } from "../components/tasks/TaskCalendar";
 import { TaskLegend } from "../components/tasks/TaskLegend";
@@ -56,6 +57,9 @@ export default function Dashboard() {
 
   // タスク関連
   const [allTasks, setAllTasks] = useState<Task[]>([]);
+  // 一覧の取得完了前に表示するサーバ集計（取得後は一覧から数える）
+  const [summary, setSummary] = useState<TaskSummary | null>(null);
+  const [tasksLoaded, setTasksLoaded] = useState(false);
   const [status, setStatus] = useState("");
   const [priority, setPriority] = useState("");
   const [sort, setSort] = useState("due_date_asc");
@@ -208,12 +212,16 @@ export default function Dashboard() {
     }
   };
 
-  // タスク一覧取得
+  // タスク一覧取得（件数は軽量な集計APIを並行して取得し、一覧より先に表示する）
   useEffect(() => {
+    fetchTaskSummary()
+      .then(setSummary)
+      .catch((e) => console.warn("タスク集計取得失敗", e));
     const load = async () => {
       try {
         const tasks = await fetchTasks();
         setAllTasks(tasks);
+        setTasksLoaded(true);
       } catch (e) {
         console.error(e);
       }
@@ -363,8 +371,12 @@ export default function Dashboard() {
       if (!isDone && due && withinDays(today, due, 3)) sCount++;
     }
 
+    // 一覧の取得前はサーバ集計を表示する（定義は同じ）
+    if (!tasksLoaded && summary) {
+      return { todayCount: summary.dueToday, doneCount: summary.done, notDoneCount: summary.notDone, soonDueCount: summary.dueSoon };
+    }
     return { todayCount: tCount, doneCount: dCount, notDoneCount: ndCount, soonDueCount: sCount };
-  }, [allTasks]);
+  }, [allTasks, tasksLoaded, summary]);
  
   // 編集開始ハンドラ
   const handleEdit = (task: Task) => {
@@ -375,7 +387,23 @@ export default function Dashboard() {
   // タスク更新ハンドラ
   const handleUpdate = async (taskId: number, input: TaskInput) => {
     try {
-      await updateTask(taskId, input);
+      // 変更された項目だけを送る（ステータスのみの変更は軽量な専用APIを使う）
+      const before = editingTask && editingTask.id === taskId ? editingTask : allTasks.find((t) => t.id === taskId);
+      const patch: TaskPatchInput = before
+        ? diffTaskInput(before, input)
+        : {
+            title: input.title,
+            description: input.description ?? "",
+            status: input.status as TaskStatus,
+            priority: input.priority as Task["priority"] | undefined,
+            due_date: input.due_date ?? "",
+          };
+      const keys = Object.keys(patch);
+      if (keys.length === 1 && patch.status) {
+        await updateTaskStatus(taskId, patch.status);
+      } else if (keys.length > 0) {
+        await patchTask(taskId, patch);
+      }
       const tasks = await fetchTasks();
       setAllTasks(tasks);
       setShowForm(false);
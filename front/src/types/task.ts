@@ -12,6 +12,7 @@ export interface Task {
   status: TaskStatus;
   createdAt: string;
   updatedAt: string;
+  businessDaysRemaining?: number | null; // 期日までの残り営業日数（超過は負数）
 }
 
 export interface TaskInput {
@@ -25,4 +26,43 @@ export interface TaskInput {
   // 親タスクID（手動子作成用、サーバは snake/camel 両対応）
   parent_task_id?: number;
   parentTaskId?: number;
-}
\ No newline at end of file
+}
+
+// 部分更新（PATCH）用の入力。送った項目だけがサーバで更新される
+export interface TaskPatchInput {
+  title?: string;
+  description?: string; // 空文字で説明を空にする
+  status?: TaskStatus;
+  due_date?: string; // yyyy-MM-dd、空文字で期限なし
+  priority?: TaskPriority;
+}
+
+// ステータス更新（PATCH /api/tasks/{id}/status）のレスポンス
+export interface TaskStatusResult {
+  id: number;
+  status: TaskStatus;
+  updatedAt: string;
+}
+
+// 一括操作（POST /api/tasks:bulk）の1件分。同じ操作を ids のタスクすべてへ適用する
+export type TaskBulkOperation =
+  | { op: "status"; ids: number[]; value: TaskStatus }
+  | { op: "priority"; ids: number[]; value: TaskPriority }
+  | { op: "due_date"; ids: number[]; value: string } // yyyy-MM-dd、空文字で期限なし
+  | { op: "delete"; ids: number[] };
+
+export interface TaskBulkItemResult {
+  id: number;
+  op: TaskBulkOperation["op"];
+  result: "UPDATED" | "UNCHANGED" | "DELETED" | "NOT_FOUND";
+}
+
+// 一括操作のレスポンス
+export interface TaskBulkResult {
+  results: TaskBulkItemResult[];
+  updated: number;
+  unchanged: number;
+  deleted: number;
+  deletedDescendants: number;
+  notFound: number;
+}